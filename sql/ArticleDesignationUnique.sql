@@ -0,0 +1,26 @@
+-- Nomme les contraintes d'unicité de la désignation sur une base existante
+
+-- Le service reconnaît un doublon de désignation au nom de la contrainte violée ;
+-- Hibernate générait des noms aléatoires, remplacés ici par ceux déclarés sur l'entité Article.
+DO $$
+DECLARE
+    c record;
+BEGIN
+    FOR c IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'article'::regclass
+          AND con.contype = 'u'
+          AND array_length(con.conkey, 1) = 1
+          AND att.attname IN ('designation', 'designation_key')
+          AND con.conname NOT IN ('uk_article_designation', 'uk_article_designation_key')
+    LOOP
+        EXECUTE format('ALTER TABLE article DROP CONSTRAINT %I', c.conname);
+    END LOOP;
+END $$;
+
+ALTER TABLE article DROP CONSTRAINT IF EXISTS uk_article_designation;
+ALTER TABLE article DROP CONSTRAINT IF EXISTS uk_article_designation_key;
+ALTER TABLE article ADD CONSTRAINT uk_article_designation UNIQUE (designation);
+ALTER TABLE article ADD CONSTRAINT uk_article_designation_key UNIQUE (designation_key);
@@ -0,0 +1,16 @@
+-- Prépare une base existante aux totaux quotidiens des mouvements de stock (StockRollupService)
+
+-- Un total par article, jour et type de mouvement, tenu à jour par les insertions de mouvements
+CREATE TABLE IF NOT EXISTS stock_daily_rollup (
+    article_id     UUID         NOT NULL REFERENCES article (id),
+    day            DATE         NOT NULL,
+    movement_type  VARCHAR(255) NOT NULL,
+    quantity       BIGINT       NOT NULL,
+    movement_count INT          NOT NULL,
+    PRIMARY KEY (article_id, day, movement_type)
+);
+
+-- Totaux de tous les articles sur une période
+CREATE INDEX IF NOT EXISTS idx_stock_daily_rollup_day ON stock_daily_rollup (day);
+
+-- L'historique existant est ensuite reconstruit jour par jour par POST /stock/rollups/backfill
@@ -0,0 +1,30 @@
+-- Prépare une base existante au StockLedgerService, qui remplace la procédure InsertStockMovement
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+-- Un seul stock par article : fusionner les doublons éventuels avant d'ajouter la contrainte
+WITH duplicates AS (
+    SELECT id,
+           article_id,
+           SUM(current_quantity) OVER (PARTITION BY article_id) AS total,
+           ROW_NUMBER() OVER (PARTITION BY article_id ORDER BY created_at, id) AS rank
+    FROM stock
+),
+kept AS (
+    UPDATE stock s
+    SET current_quantity = d.total,
+        updated_at = now()
+    FROM duplicates d
+    WHERE s.id = d.id
+      AND d.rank = 1
+      AND EXISTS (SELECT 1 FROM duplicates o WHERE o.article_id = d.article_id AND o.rank > 1)
+)
+DELETE FROM stock s
+USING duplicates d
+WHERE s.id = d.id
+  AND d.rank > 1;
+
+-- Cible de ON CONFLICT (article_id)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_stock_article_id ON stock (article_id);
+
+-- Le signe des mouvements est désormais décidé par StockMovementType
+DROP PROCEDURE IF EXISTS InsertStockMovement(UUID, VARCHAR, INT);
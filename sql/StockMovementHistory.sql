@@ -0,0 +1,9 @@
+-- Index de l'historique des mouvements de stock (GET /stock/movements)
+
+-- Historique d'un article : une seule plage de cet index, déjà triée par date
+CREATE INDEX IF NOT EXISTS idx_stock_movement_article_date ON stock_movement (article_id, movement_date);
+
+-- Historique de tous les articles sur une période : les lignes sont insérées dans l'ordre de movement_date,
+-- un index BRIN de quelques pages suffit pour ignorer les blocs hors de la période
+CREATE INDEX IF NOT EXISTS brin_stock_movement_movement_date ON stock_movement USING brin (movement_date)
+    WITH (pages_per_range = 32, autosummarize = on);
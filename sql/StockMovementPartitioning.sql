@@ -0,0 +1,59 @@
+-- Passe stock_movement au partitionnement déclaratif par mois sur movement_date (StockPartitionService)
+-- À exécuter pendant une fenêtre de maintenance : la table est verrouillée pendant la copie des mouvements
+BEGIN;
+
+LOCK TABLE stock_movement IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE stock_movement RENAME TO stock_movement_legacy;
+
+-- Les noms d'index sont repris par la table partitionnée
+DROP INDEX IF EXISTS idx_stock_movement_article_date;
+DROP INDEX IF EXISTS brin_stock_movement_movement_date;
+
+-- Mêmes colonnes, dans le même ordre ; la clé primaire d'une table partitionnée doit contenir la clé de partition
+CREATE TABLE stock_movement (LIKE stock_movement_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (movement_date);
+ALTER TABLE stock_movement ADD CONSTRAINT pk_stock_movement PRIMARY KEY (id, movement_date);
+ALTER TABLE stock_movement ADD CONSTRAINT fk_stock_movement_article FOREIGN KEY (article_id) REFERENCES article (id);
+
+-- Créés sur chaque partition, présente et future
+CREATE INDEX idx_stock_movement_article_date ON stock_movement (article_id, movement_date);
+CREATE INDEX brin_stock_movement_movement_date ON stock_movement USING brin (movement_date)
+    WITH (pages_per_range = 32, autosummarize = on);
+
+-- Une partition par mois, du plus ancien mouvement à deux mois après le mois courant (app.stock.partitions.months-ahead)
+DO $$
+DECLARE
+    month DATE;
+BEGIN
+    FOR month IN
+        SELECT generate_series(
+                       date_trunc('month', coalesce((SELECT min(movement_date) FROM stock_movement_legacy), now())),
+                       date_trunc('month', now()) + interval '2 months',
+                       interval '1 month')::date
+    LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF stock_movement FOR VALUES FROM (%L) TO (%L)',
+                       'stock_movement_p' || to_char(month, 'YYYY_MM'), month, month + interval '1 month');
+    END LOOP;
+END
+$$;
+
+-- Reçoit les mouvements hors des partitions mensuelles ; StockPartitionService les déplace dans leur partition
+CREATE TABLE stock_movement_default PARTITION OF stock_movement DEFAULT;
+
+INSERT INTO stock_movement SELECT * FROM stock_movement_legacy;
+
+-- N'abandonne l'ancienne table que si tous les mouvements ont été copiés
+DO $$
+BEGIN
+    IF (SELECT count(*) FROM stock_movement) <> (SELECT count(*) FROM stock_movement_legacy) THEN
+        RAISE EXCEPTION 'Copie incomplète des mouvements de stock';
+    END IF;
+END
+$$;
+
+DROP TABLE stock_movement_legacy;
+
+COMMIT;
+
+ANALYZE stock_movement;
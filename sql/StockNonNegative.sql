@@ -0,0 +1,6 @@
+-- Interdit un stock négatif sur une base existante
+
+-- Les mouvements sont déjà gardés par les requêtes ; la contrainte n'est qu'un dernier rempart.
+-- NOT VALID : les lignes existantes ne sont pas vérifiées, à corriger avant un VALIDATE CONSTRAINT
+ALTER TABLE stock DROP CONSTRAINT IF EXISTS stock_current_quantity_non_negative;
+ALTER TABLE stock ADD CONSTRAINT stock_current_quantity_non_negative CHECK (current_quantity >= 0) NOT VALID;
@@ -0,0 +1,37 @@
+-- Prépare une base existante à la réconciliation des stocks avec leurs mouvements (StockReconciliationService)
+
+-- Une exécution de la réconciliation ; completed_partitions marque d'un bit chaque partition terminée,
+-- ce qui permet de reprendre une exécution interrompue
+CREATE TABLE IF NOT EXISTS stock_reconciliation (
+    id                   UUID      PRIMARY KEY,
+    partition_count      INT       NOT NULL,
+    repair               BOOLEAN   NOT NULL,
+    completed_partitions BYTEA     NOT NULL,
+    checked_articles     BIGINT    NOT NULL,
+    drifted_articles     BIGINT    NOT NULL,
+    repaired_articles    BIGINT    NOT NULL,
+    finished_at          TIMESTAMP,
+    failed_at            TIMESTAMP,
+    error                VARCHAR(1000),
+    created_at           TIMESTAMP,
+    updated_at           TIMESTAMP
+);
+
+-- Erreur qui a arrêté une exécution, effacée à sa reprise ; ajoutée aux tables créées avant
+ALTER TABLE stock_reconciliation ADD COLUMN IF NOT EXISTS failed_at TIMESTAMP;
+ALTER TABLE stock_reconciliation ADD COLUMN IF NOT EXISTS error VARCHAR(1000);
+
+-- Un écart entre le stock d'un article et la somme de ses mouvements, trouvé par une exécution
+CREATE TABLE IF NOT EXISTS stock_drift (
+    id                UUID      PRIMARY KEY,
+    stock_quantity    INT       NOT NULL,
+    movement_quantity BIGINT    NOT NULL,
+    repaired          BOOLEAN   NOT NULL,
+    reconciliation_id UUID      NOT NULL REFERENCES stock_reconciliation (id),
+    article_id        UUID      NOT NULL REFERENCES article (id),
+    created_at        TIMESTAMP,
+    updated_at        TIMESTAMP
+);
+
+-- Écarts d'une exécution
+CREATE INDEX IF NOT EXISTS idx_stock_drift_reconciliation ON stock_drift (reconciliation_id);
@@ -0,0 +1,4 @@
+-- Prépare une base existante aux alertes de stock bas (StockAlertService)
+
+-- Seuil de réapprovisionnement par article : NULL si l'article n'est pas surveillé
+ALTER TABLE stock ADD COLUMN IF NOT EXISTS reorder_threshold INT;
@@ -0,0 +1,31 @@
+-- Prépare une base existante aux instantanés quotidiens du stock (StockSnapshotService)
+CREATE EXTENSION IF NOT EXISTS pgcrypto;
+
+-- Un instantané par article et par jour : la quantité en stock au début de la journée
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    id            UUID PRIMARY KEY,
+    article_id    UUID NOT NULL REFERENCES article (id),
+    snapshot_date DATE NOT NULL,
+    quantity      INT  NOT NULL,
+    created_at    TIMESTAMP(6),
+    updated_at    TIMESTAMP(6),
+    CONSTRAINT ux_stock_snapshot_article_date UNIQUE (article_id, snapshot_date)
+);
+
+-- Rejouer les mouvements d'un article depuis son dernier instantané ne lit qu'une plage de cet index
+CREATE INDEX IF NOT EXISTS idx_stock_movement_article_date ON stock_movement (article_id, movement_date);
+
+-- Premier instantané de chaque article ayant des mouvements, à partir de tout l'historique
+-- (les types positifs doivent suivre StockMovementType)
+INSERT INTO stock_snapshot (id, article_id, snapshot_date, quantity, created_at, updated_at)
+SELECT gen_random_uuid(),
+       sm.article_id,
+       current_date,
+       SUM(CASE WHEN sm.movement_type IN ('STOCK_IN', 'STOCK_POSITIVE_CORRECTION', 'STOCK_RECALL')
+                THEN sm.quantity ELSE -sm.quantity END),
+       now(),
+       now()
+FROM stock_movement sm
+WHERE sm.movement_date < current_date
+GROUP BY sm.article_id
+ON CONFLICT (article_id, snapshot_date) DO NOTHING;
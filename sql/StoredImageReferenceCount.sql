@@ -0,0 +1,7 @@
+-- Recalcule le nombre de références des images stockées (ImageSweeperService)
+
+-- Une image est référencée une fois par article actif qui l'utilise comme photo ;
+-- les compteurs incrémentés par les anciens envois, jamais décrémentés, sont corrigés ici
+UPDATE stored_image s
+SET reference_count = (SELECT count(*) FROM article a WHERE a.picture = s.path AND NOT a.is_deleted),
+    updated_at = now();
@@ -2,7 +2,7 @@ CREATE OR REPLACE FUNCTION logical_delete()
     RETURNS TRIGGER AS $$
 BEGIN
     -- Au lieu de supprimer la ligne, on met à jour is_deleted à true
-UPDATE article SET is_deleted = TRUE WHERE id = OLD.id;
+UPDATE article SET is_deleted = TRUE, updated_at = now() WHERE id = OLD.id;
 
 -- Empêcher la suppression physique de l'enregistrement
 RETURN NULL;
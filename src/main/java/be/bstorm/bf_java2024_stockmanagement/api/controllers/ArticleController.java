@@ -1,25 +1,56 @@
 package be.bstorm.bf_java2024_stockmanagement.api.controllers;
 
+import be.bstorm.bf_java2024_stockmanagement.bll.models.ArticleBatchResult;
 import be.bstorm.bf_java2024_stockmanagement.bll.services.ArticleService;
 import be.bstorm.bf_java2024_stockmanagement.bll.services.CategoryService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockWriteBehindService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Category;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article.ArticleBatchResultDTO;
 import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article.ArticleDTO;
 import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article.ArticleDetailsDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article.ArticlePageDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article.ArticleRepricingDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.forms.article.ArticleBatchForm;
 import be.bstorm.bf_java2024_stockmanagement.api.models.forms.article.ArticleForm;
+import be.bstorm.bf_java2024_stockmanagement.api.models.forms.article.ArticleRepricingForm;
 import be.bstorm.bf_java2024_stockmanagement.api.models.forms.article.ArticleUpdateForm;
+import be.bstorm.bf_java2024_stockmanagement.api.validators.annotations.ImageFormat;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.net.URI;
-import java.util.List;
-import java.util.UUID;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for managing articles.
@@ -27,10 +58,14 @@ import java.util.UUID;
  *
  * <p>Endpoints:
  * <ul>
- * <li>{@link #getArticles()} - Retrieves all active articles as a list.</li>
- * <li>{@link #getArticle(UUID)} - Retrieves details of a specific article by its ID.</li>
+ * <li>{@link #getArticles(String, Integer, WebRequest)} - Retrieves one keyset-paginated page of active articles, honoring conditional requests.</li>
+ * <li>{@link #exportArticles()} - Streams all active articles as newline-delimited JSON.</li>
+ * <li>{@link #getArticle(UUID, WebRequest)} - Retrieves details of a specific article by its ID, honoring conditional requests.</li>
  * <li>{@link #createArticle(ArticleForm, BindingResult)} - Creates a new article with optional image upload and validates input data.</li>
+ * <li>{@link #importArticles(List)} - Creates or updates a batch of articles, reporting the outcome of each one.</li>
  * <li>{@link #updateArticle(ArticleUpdateForm, BindingResult)} - Updates an article’s details and optionally replaces the image, with validation checks.</li>
+ * <li>{@link #updateArticleImage(UUID, MultipartFile)} - Streams a new image for an article without buffering it in memory.</li>
+ * <li>{@link #repriceArticles(ArticleRepricingForm, BindingResult)} - Reprices or changes the VAT of all matching articles in one statement.</li>
  * <li>{@link #deleteArticle(UUID)} - Marks an article as deleted by its ID.</li>
  * </ul>
  * </p>
@@ -45,31 +80,158 @@ public class ArticleController {
 
     private final ArticleService articleService;
     private final CategoryService categoryService;
+    private final StockWriteBehindService stockWriteBehindService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
     /**
-     * Retrieves a list of all active articles, transforming each into an {@link ArticleDTO}.
+     * The page size used when the client does not request one.
+     */
+    @Value("${app.article.page-size:50}")
+    private int defaultPageSize;
+
+    /**
+     * The largest page size a client may request.
+     */
+    @Value("${app.article.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * The largest number of articles accepted by a single batch import.
+     */
+    @Value("${app.article.max-batch-size:50000}")
+    private int maxBatchSize;
+
+    /**
+     * Retrieves one page of active articles ordered by designation, using keyset (cursor) pagination, so each page
+     * is a bounded index range scan however deep the client pages. The response carries the opaque cursor of the
+     * next page, and a {@code Link} header with {@code rel="next"} when more articles are available; the whole catalog
+     * is exported by {@link #exportArticles()}.
+     * The response carries a strong {@code ETag} and a {@code Last-Modified} date taken from the version of the active
+     * articles; when the client's {@code If-None-Match} or {@code If-Modified-Since} still matches, {@code 304 Not Modified}
+     * is returned without reading the page. Stock movements still in the write-behind buffer are included.
      *
-     * @return A {@link ResponseEntity} containing a list of {@link ArticleDTO} objects representing active articles.
+     * @param cursor The opaque cursor returned with the previous page; omitted for the first page.
+     * @param size The requested page size; defaults to {@code app.article.page-size} and is capped at {@code app.article.max-page-size}.
+     * @param request The current request, used to evaluate the conditional headers.
+     * @return A {@link ResponseEntity} containing an {@link ArticlePageDTO},
+     *         or {@code null} once a {@code 304} response has been prepared.
+     * @throws IllegalArgumentException If the cursor is malformed.
      */
     @GetMapping
-    public ResponseEntity<List<ArticleDTO>> getArticles() {
-        List<ArticleDTO> articles = articleService.findAll().stream()
-                .map(ArticleDTO::fromArticle)
+    public ResponseEntity<ArticlePageDTO> getArticles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request
+    ) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        CursorUtils.Position after = cursor == null || cursor.isBlank() ? null : CursorUtils.decode(cursor);
+
+        long pendingVersion = stockWriteBehindService.version();
+        ArticleVersionProjection version = articleService.findVersion();
+        String eTag = toETag(version, pendingVersion);
+        long lastModified = toEpochMilli(version.lastModified());
+        if (request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+
+        // Fetch one extra row to know whether a next page exists without a count query
+        Map<UUID, Integer> pending = stockWriteBehindService.pendingDeltas();
+        List<ArticleSummaryProjection> articles = articleService.findPage(after, pageSize + 1);
+        boolean hasNext = articles.size() > pageSize;
+        List<ArticleDTO> content = articles.stream()
+                .limit(pageSize)
+                .map(article -> ArticleDTO.fromProjection(article, pending.getOrDefault(article.id(), 0)))
                 .toList();
-        return ResponseEntity.ok(articles);
+
+        if (!hasNext) {
+            return ResponseEntity.ok()
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .body(new ArticlePageDTO(content, pageSize, null, null));
+        }
+
+        ArticleDTO last = content.get(content.size() - 1);
+        String nextCursor = CursorUtils.encode(last.designation(), last.id());
+        String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", pageSize)
+                .toUriString();
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(new ArticlePageDTO(content, pageSize, nextCursor, next));
+    }
+
+    /**
+     * Exports all active articles as newline-delimited JSON ({@code application/x-ndjson}), one {@link ArticleDTO} per line.
+     * Articles are read through a database cursor and written straight to the response as they arrive,
+     * so heap use stays flat and the first bytes are sent before the whole catalog has been read.
+     *
+     * @return A {@link ResponseEntity} containing a {@link StreamingResponseBody} that writes the catalog.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        ObjectWriter writer = objectMapper.writerFor(ArticleDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            Map<UUID, Integer> pending = stockWriteBehindService.pendingDeltas();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                boolean[] first = {true};
+                articleService.forEachActive(article -> {
+                    try {
+                        writer.writeValue(generator, ArticleDTO.fromProjection(article, pending.getOrDefault(article.id(), 0)));
+                        generator.writeRaw('\n');
+                        // Send the first line right away instead of waiting for the buffer to fill
+                        if (first[0]) {
+                            generator.flush();
+                            first[0] = false;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     /**
      * Retrieves detailed information about a specific article, identified by its unique ID.
+     * The response carries a strong {@code ETag} and a {@code Last-Modified} date derived from the article, its category
+     * and its stock; when the client's copy is still current, {@code 304 Not Modified} is returned without loading the article.
+     * Stock movements still in the write-behind buffer are included.
      *
      * @param id The UUID of the article to retrieve. Must be a valid UUID format.
-     * @return A {@link ResponseEntity} containing an {@link ArticleDetailsDTO} if found.
+     * @param request The current request, used to evaluate the conditional headers.
+     * @return A {@link ResponseEntity} containing an {@link ArticleDetailsDTO} if found,
+     *         or {@code null} once a {@code 304} response has been prepared.
      * @throws RuntimeException if the article does not exist or is marked as deleted.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ArticleDetailsDTO> getArticle(@PathVariable UUID id) {
-        ArticleDetailsDTO dto = ArticleDetailsDTO.fromArticle(articleService.findById(id));
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<ArticleDetailsDTO> getArticle(@PathVariable UUID id, WebRequest request) {
+        long pendingVersion = stockWriteBehindService.version();
+        ArticleVersionProjection version = articleService.findVersionById(id);
+        String eTag = toETag(version, pendingVersion);
+        long lastModified = toEpochMilli(version.lastModified());
+        if (version.count() > 0 && request.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+
+        int pending = stockWriteBehindService.pendingDelta(id);
+        ArticleDetailsDTO dto = ArticleDetailsDTO.fromProjection(articleService.findById(id), pending);
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .body(dto);
     }
 
     /**
@@ -107,6 +269,65 @@ public class ArticleController {
         return ResponseEntity.created(location).build();
     }
 
+    /**
+     * Creates or updates a batch of articles, such as a supplier catalog, in a single request.
+     * Each item is validated on its own and categories are resolved with one query for the whole batch;
+     * valid items are then saved through JDBC batching. Invalid items are reported as rejected instead of failing the batch.
+     *
+     * @param forms The list of {@link ArticleBatchForm}; items with an ID update an existing article, the others create one.
+     * @return A {@link ResponseEntity} containing one {@link ArticleBatchResultDTO} per item, in submission order.
+     * @throws IllegalArgumentException If the batch is larger than {@code app.article.max-batch-size}.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ArticleBatchResultDTO>> importArticles(@RequestBody List<ArticleBatchForm> forms) {
+        if (forms.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch too large: " + forms.size() + " > " + maxBatchSize);
+        }
+
+        Set<UUID> categoryIds = forms.stream()
+                .filter(Objects::nonNull)
+                .map(ArticleBatchForm::categoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, Category> categories = categoryService.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<ArticleBatchResult> results = new ArrayList<>(forms.size());
+        Map<Integer, Article> articles = new LinkedHashMap<>();
+        for (int i = 0; i < forms.size(); i++) {
+            ArticleBatchForm form = forms.get(i);
+            if (form == null) {
+                results.add(ArticleBatchResult.rejected(i, "Empty item"));
+                continue;
+            }
+            Set<ConstraintViolation<ArticleBatchForm>> violations = validator.validate(form);
+            if (!violations.isEmpty()) {
+                List<String> errors = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .toList();
+                results.add(ArticleBatchResult.rejected(i, "Validation Error: " + errors));
+                continue;
+            }
+            Category category = categories.get(form.categoryId());
+            if (category == null) {
+                results.add(ArticleBatchResult.rejected(i, "Category does not exist"));
+                continue;
+            }
+            Article article = form.toArticle();
+            article.setCategory(category);
+            articles.put(i, article);
+        }
+
+        if (!articles.isEmpty()) {
+            results.addAll(articleService.saveAll(articles));
+        }
+        List<ArticleBatchResultDTO> dtos = results.stream()
+                .sorted(Comparator.comparingInt(ArticleBatchResult::index))
+                .map(ArticleBatchResultDTO::fromResult)
+                .toList();
+        return ResponseEntity.ok(dtos);
+    }
+
     /**
      * Updates an existing article by ID with new data provided in the {@link ArticleUpdateForm}.
      * This includes changes to the designation, unit price, VAT, category, and optionally, a new image.
@@ -134,6 +355,66 @@ public class ArticleController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Replaces the image of an article with a multipart upload. The file is streamed to disk and atomically moved
+     * into the images directory, so it is never held in the heap; the size is bounded by
+     * {@code spring.servlet.multipart.max-file-size} and the number of concurrent uploads by {@code app.images.max-concurrent-uploads}.
+     *
+     * @param id The UUID of the article.
+     * @param image The uploaded image, in the {@code image} part; must be a JPEG or PNG image, checked from its header.
+     * @return A {@link ResponseEntity} with no content, and a location header pointing to the stored image.
+     * @throws IllegalArgumentException If the article does not exist, or the image is empty or too large.
+     * @throws IllegalStateException If too many uploads are already in progress.
+     */
+    @PutMapping(value = "/{id}/image", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Void> updateArticleImage(
+            @PathVariable UUID id,
+            @RequestParam("image") @ImageFormat MultipartFile image
+    ) {
+        String imagePath = articleService.updateImage(id, image);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentContextPath()
+                .path("/images/")
+                .path(imagePath)
+                .build()
+                .toUri();
+        return ResponseEntity.noContent().location(location).build();
+    }
+
+    /**
+     * Applies a bulk change to every active article matching a category and/or VAT filter, in a single statement:
+     * a percentage or absolute change of the unit price excluding tax, or a reassignment to another VAT rate.
+     *
+     * @param repricingForm The {@link ArticleRepricingForm} holding the filter and exactly one operation.
+     * @param bindingResult The result of form validation, holding any validation errors.
+     * @return A {@link ResponseEntity} containing an {@link ArticleRepricingDTO} with the number of affected articles.
+     * @throws ValidationException If the form is invalid, e.g. when zero or several operations are provided.
+     */
+    @PostMapping("/reprice")
+    public ResponseEntity<ArticleRepricingDTO> repriceArticles(
+            @Valid @RequestBody ArticleRepricingForm repricingForm,
+            BindingResult bindingResult
+    ) {
+        if (bindingResult.hasErrors()) {
+            List<String> errors = bindingResult.getAllErrors().stream()
+                    .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                    .toList();
+            throw new ValidationException("Validation Error: " + errors);
+        }
+
+        int affected;
+        if (repricingForm.percentage() != null) {
+            affected = articleService.repriceByPercentage(
+                    repricingForm.categoryId(), repricingForm.vat(), BigDecimal.valueOf(repricingForm.percentage()));
+        } else if (repricingForm.amount() != null) {
+            affected = articleService.repriceByAmount(
+                    repricingForm.categoryId(), repricingForm.vat(), Math.round(repricingForm.amount() * 100));
+        } else {
+            affected = articleService.reassignVat(repricingForm.categoryId(), repricingForm.vat(), repricingForm.newVat());
+        }
+        return ResponseEntity.ok(new ArticleRepricingDTO(affected));
+    }
+
     /**
      * Deletes an article by marking it as deleted in the system. If the article does not exist or is already deleted,
      * the method throws an {@link IllegalArgumentException}.
@@ -147,4 +428,40 @@ public class ArticleController {
         articleService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Builds a strong entity tag from a version: the count and the update times, at microsecond precision, in hexadecimal,
+     * followed by the write-behind counter once movements have been buffered, since those change no update time.
+     *
+     * @param version The {@link ArticleVersionProjection} to encode.
+     * @param pendingVersion The {@link StockWriteBehindService#version()} read before the version.
+     * @return The quoted entity tag.
+     */
+    private static String toETag(ArticleVersionProjection version, long pendingVersion) {
+        return "\"" + Long.toHexString(version.count())
+                + "-" + Long.toHexString(toEpochMicro(version.articlesUpdatedAt()))
+                + "-" + Long.toHexString(toEpochMicro(version.categoriesUpdatedAt()))
+                + "-" + Long.toHexString(toEpochMicro(version.stocksUpdatedAt()))
+                + (pendingVersion == 0 ? "" : "-" + Long.toHexString(pendingVersion)) + "\"";
+    }
+
+    /**
+     * Converts an update time to microseconds since the epoch, in the server's time zone.
+     *
+     * @param dateTime The update time, possibly {@code null}.
+     * @return The number of microseconds since the epoch, or {@code 0} if the time is {@code null}.
+     */
+    private static long toEpochMicro(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Converts an update time to milliseconds since the epoch, in the server's time zone.
+     *
+     * @param dateTime The update time, possibly {@code null}.
+     * @return The number of milliseconds since the epoch, or {@code -1} (unknown) if the time is {@code null}.
+     */
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
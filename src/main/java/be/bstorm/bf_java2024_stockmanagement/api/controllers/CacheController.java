@@ -0,0 +1,52 @@
+package be.bstorm.bf_java2024_stockmanagement.api.controllers;
+
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.cache.CacheStatsDTO;
+import be.bstorm.bf_java2024_stockmanagement.il.configs.CacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * REST controller exposing the statistics of the in-process caches.
+ *
+ * <p>Endpoints:
+ * <ul>
+ * <li>{@link #getStats()} - Retrieves the hit, miss and eviction counters of every cache.</li>
+ * </ul>
+ * </p>
+ *
+ * @see CacheConfig
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Retrieves the statistics of every cache managed by the application.
+     *
+     * @return A {@link ResponseEntity} containing a list of {@link CacheStatsDTO}, one per cache.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getStats() {
+        List<CacheStatsDTO> stats = cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .map(cache -> {
+                    // The caches are wrapped to be transaction-aware; the native cache is Caffeine's
+                    Cache<?, ?> nativeCache = (Cache<?, ?>) cache.getNativeCache();
+                    return CacheStatsDTO.fromStats(cache.getName(), nativeCache.estimatedSize(), nativeCache.stats());
+                })
+                .toList();
+        return ResponseEntity.ok(stats);
+    }
+}
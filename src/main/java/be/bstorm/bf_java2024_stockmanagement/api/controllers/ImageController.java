@@ -0,0 +1,216 @@
+package be.bstorm.bf_java2024_stockmanagement.api.controllers;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * REST controller serving the stored images and their resized variants under {@code /images/**}.
+ * Image files never change once written (their names are content hashes or UUID-prefixed), so they are served with
+ * an immutable, long-lived {@code Cache-Control}, a strong {@code ETag} taken from the file name, and byte range
+ * support. File content is handed to the container's sendfile support when available; otherwise it is copied with
+ * {@link FileChannel#transferTo} into the response's output stream, which goes through a buffer and is not zero-copy.
+ *
+ * <p>Endpoints:
+ * <ul>
+ * <li>{@link #getImage(String, HttpServletRequest, HttpServletResponse)} - Retrieves an image, honoring conditional and range requests.</li>
+ * <li>{@link #getImageVariant(String, int, Integer)} - Retrieves a resized variant of an image.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ImageService
+ * @see ThumbnailService
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/images")
+public class ImageController {
+
+    private final ImageService imageService;
+    private final ThumbnailService thumbnailService;
+
+    /**
+     * Request attribute set by Tomcat when the connector can send a file with the sendfile system call.
+     */
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+
+    /**
+     * Request attributes asking Tomcat to send a file region itself, once the response is committed.
+     */
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * One year, the longest max-age commonly honored; images are immutable.
+     */
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    /**
+     * Retrieves a stored image. Conditional requests ({@code If-None-Match}, {@code If-Modified-Since}) are answered
+     * with {@code 304 Not Modified}, and a single byte range ({@code Range}, guarded by {@code If-Range}) with
+     * {@code 206 Partial Content}; multiple ranges get the whole file. The {@code ETag} is the name of the file without
+     * its extension, the content hash of the image, so it does not change when an identical upload reuses the file.
+     * The body never goes through a heap buffer when the container supports sendfile; otherwise it is copied through
+     * the buffer of the servlet output stream.
+     *
+     * @param path The path of the image, relative to the images directory (as stored in {@code Article.picture}).
+     * @param request The current request.
+     * @param response The current response, written directly.
+     * @throws IllegalArgumentException If the image does not exist.
+     * @throws IOException If the file cannot be read or the response cannot be written.
+     */
+    @GetMapping("/{*path}")
+    public void getImage(
+            @PathVariable String path,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        // The catch-all variable keeps the leading slash
+        Path file = imageService.resolve(path.substring(1));
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        String eTag = "\"" + (extension > 0 ? name.substring(0, extension) : name) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, lastModified)) {
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds != null && bounds.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(MediaTypeFactory.getMediaType(name)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat streams the region with sendfile after the request completes, without entering the JVM heap
+            request.setAttribute(SENDFILE_FILENAME, file.toFile().getCanonicalPath());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // The servlet output stream is not a channel, so transferTo reads the file into a buffer before writing it
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                position += channel.transferTo(position, end + 1 - position, out);
+            }
+        }
+    }
+
+    /**
+     * Parses a {@code Range} header holding a single byte range ({@code bytes=a-b}, {@code bytes=a-} or {@code bytes=-n}).
+     *
+     * @param range The value of the {@code Range} header.
+     * @param length The length of the file.
+     * @return The inclusive {@code [start, end]} bounds, an empty array if the range cannot be satisfied,
+     *         or {@code null} if the header is malformed or holds several ranges, in which case the whole file is sent.
+     */
+    private static long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves a resized and recompressed variant of a stored image, fitting within {@code w} x {@code h} pixels.
+     * The variant is generated on first request and then served from the disk cache.
+     *
+     * @param path The path of the original image, relative to the images directory (as stored in {@code Article.picture}).
+     * @param w The maximum width of the variant, in pixels.
+     * @param h The maximum height of the variant, in pixels; only the width is bounded if omitted.
+     * @return A {@link ResponseEntity} containing the variant file, cacheable by clients.
+     * @throws IllegalArgumentException If the image does not exist or the size is out of range.
+     * @throws IllegalStateException If the resize workers are saturated.
+     */
+    @GetMapping(value = "/{*path}", params = "w")
+    public ResponseEntity<Resource> getImageVariant(
+            @PathVariable String path,
+            @RequestParam int w,
+            @RequestParam(required = false) Integer h
+    ) {
+        // The catch-all variable keeps the leading slash
+        Path variant = thumbnailService.getVariant(path.substring(1), w, h);
+        MediaType mediaType = MediaTypeFactory.getMediaType(variant.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(30)).cachePublic())
+                .body(new FileSystemResource(variant));
+    }
+}
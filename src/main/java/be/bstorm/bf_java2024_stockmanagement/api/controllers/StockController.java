@@ -0,0 +1,358 @@
+package be.bstorm.bf_java2024_stockmanagement.api.controllers;
+
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.InsufficientStockDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockDailyTotalDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockDriftDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockLevelDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockMovementDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockMovementPageDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockReconciliationDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock.StockRollupBackfillDTO;
+import be.bstorm.bf_java2024_stockmanagement.api.models.forms.stock.StockMovementForm;
+import be.bstorm.bf_java2024_stockmanagement.api.models.forms.stock.StockThresholdForm;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementFilter;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockAlertService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockReconciliationService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockRollupService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockSnapshotService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * REST controller for managing the stock of articles.
+ * Provides endpoints for recording stock movements, such as the ones produced by warehouse scanners,
+ * for browsing their history and its daily totals, for reading the stock of articles at a past date,
+ * for setting the reorder thresholds that raise low-stock alerts, and for reconciling the stocks with their movements.
+ *
+ * <p>Endpoints:
+ * <ul>
+ * <li>{@link #createMovements(List)} - Records a batch of stock movements in one transaction.</li>
+ * <li>{@link #getMovements(UUID, LocalDateTime, LocalDateTime, StockMovementType, String, Integer)} - Retrieves one page of the stock movement history.</li>
+ * <li>{@link #getLevelAsOf(UUID, LocalDateTime)} - Retrieves the stock of an article at a past date.</li>
+ * <li>{@link #getLevelsAsOf(List, LocalDateTime)} - Retrieves the stock of several articles at a past date.</li>
+ * <li>{@link #getDailyTotals(UUID, LocalDate, LocalDate)} - Retrieves the daily totals of the stock movements over a date range.</li>
+ * <li>{@link #backfillRollups(LocalDate, LocalDate)} - Rebuilds the daily totals of past days from the movement history.</li>
+ * <li>{@link #updateThreshold(UUID, StockThresholdForm, BindingResult)} - Sets or clears the reorder threshold of an article.</li>
+ * <li>{@link #startReconciliation(boolean)} - Starts, or resumes, a reconciliation of the stocks with their movements.</li>
+ * <li>{@link #getReconciliation(UUID)} - Retrieves a reconciliation run and its progress.</li>
+ * <li>{@link #getDrifts(UUID)} - Retrieves the drifts found by a reconciliation run.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockService
+ * @see StockSnapshotService
+ * @see StockRollupService
+ * @see StockAlertService
+ * @see StockReconciliationService
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/stock")
+public class StockController {
+
+    private final StockService stockService;
+    private final StockSnapshotService stockSnapshotService;
+    private final StockRollupService stockRollupService;
+    private final StockAlertService stockAlertService;
+    private final StockReconciliationService stockReconciliationService;
+    private final Validator validator;
+
+    /**
+     * The largest number of movements, or of articles, accepted by a single request.
+     */
+    @Value("${app.stock.max-batch-size:10000}")
+    private int maxBatchSize;
+
+    /**
+     * The number of movements per history page when the client does not request one.
+     */
+    @Value("${app.stock.page-size:100}")
+    private int defaultPageSize;
+
+    /**
+     * The largest history page size a client may request.
+     */
+    @Value("${app.stock.max-page-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Records a batch of stock movements and applies them to the stocks, in a single transaction: the batch is
+     * validated as a whole, and either every movement is recorded or none is. The net change of each article is
+     * applied with one statement, and the movements are inserted with another, whatever the size of the batch.
+     * A batch that would take a stock below zero is refused as a whole with {@code 409 Conflict}.
+     *
+     * @param forms The list of {@link StockMovementForm}, in the order the movements occurred.
+     * @return A {@link ResponseEntity} containing the {@link StockLevelDTO} of each article concerned, after the movements,
+     *         or, with {@code 409 Conflict}, the {@link InsufficientStockDTO} of the first article lacking stock.
+     * @throws ValidationException If any movement is invalid, listing the position of each invalid movement.
+     * @throws IllegalArgumentException If the batch is larger than {@code app.stock.max-batch-size}, or refers to an unknown article.
+     */
+    @PostMapping("/movements")
+    public ResponseEntity<?> createMovements(@RequestBody List<StockMovementForm> forms) {
+        if (forms.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch too large: " + forms.size() + " > " + maxBatchSize);
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<StockMovementLine> movements = new ArrayList<>(forms.size());
+        for (int i = 0; i < forms.size(); i++) {
+            StockMovementForm form = forms.get(i);
+            if (form == null) {
+                errors.add("[" + i + "]: Empty item");
+                continue;
+            }
+            for (ConstraintViolation<StockMovementForm> violation : validator.validate(form)) {
+                errors.add("[" + i + "]." + violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+            movements.add(form.toLine());
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Validation Error: " + errors);
+        }
+
+        StockWithdrawal result = stockService.recordMovements(movements);
+        if (result instanceof StockWithdrawal.InsufficientStock insufficientStock) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(InsufficientStockDTO.fromResult(insufficientStock));
+        }
+        List<StockLevelDTO> levels = ((StockWithdrawal.Withdrawn) result).levels().stream()
+                .map(StockLevelDTO::fromProjection)
+                .toList();
+        return ResponseEntity.ok(levels);
+    }
+
+    /**
+     * Retrieves one page of the stock movement history, most recent first, using keyset (cursor) pagination on
+     * {@code (movement_date, id)}. Every filter is optional; filtering by article reads only that article's movements
+     * from its index, and a date range lets the database skip the blocks outside it. The response carries the opaque
+     * cursor of the next page, and a {@code Link} header with {@code rel="next"} when more movements are available.
+     *
+     * @param articleId The UUID of the article whose movements are wanted; omitted for all articles.
+     * @param from The earliest movement date, inclusive, in ISO format (e.g. {@code 2024-01-01T00:00:00}).
+     * @param to The latest movement date, inclusive, in ISO format.
+     * @param type The type of the movements wanted; omitted for all types.
+     * @param cursor The opaque cursor returned with the previous page; omitted for the first page.
+     * @param size The requested page size; defaults to {@code app.stock.page-size} and is capped at {@code app.stock.max-page-size}.
+     * @return A {@link ResponseEntity} containing a {@link StockMovementPageDTO}.
+     * @throws IllegalArgumentException If the cursor is malformed or {@code from} is after {@code to}.
+     */
+    @GetMapping("/movements")
+    public ResponseEntity<StockMovementPageDTO> getMovements(
+            @RequestParam(required = false) UUID articleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) StockMovementType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        CursorUtils.Position after = cursor == null || cursor.isBlank() ? null : CursorUtils.decode(cursor);
+        StockMovementFilter filter = new StockMovementFilter(articleId, type, from, to);
+
+        // Fetch one extra row to know whether a next page exists without a count query
+        List<StockMovementProjection> movements = stockService.findMovements(filter, after, pageSize + 1);
+        boolean hasNext = movements.size() > pageSize;
+        List<StockMovementDTO> content = movements.stream()
+                .limit(pageSize)
+                .map(StockMovementDTO::fromProjection)
+                .toList();
+
+        if (!hasNext) {
+            return ResponseEntity.ok(new StockMovementPageDTO(content, pageSize, null, null));
+        }
+
+        StockMovementDTO last = content.get(content.size() - 1);
+        String nextCursor = CursorUtils.encode(last.movementDate().toString(), last.id());
+        String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .replaceQueryParam("size", pageSize)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(new StockMovementPageDTO(content, pageSize, nextCursor, next));
+    }
+
+    /**
+     * Retrieves the stock of an article at a past date, such as for an audit. The stock is rebuilt from the latest
+     * daily snapshot before that date and the movements recorded after it.
+     *
+     * @param articleId The UUID of the article, which may be deleted.
+     * @param asOf The date and time at which the stock is wanted, in ISO format (e.g. {@code 2024-10-01T18:00:00}).
+     * @return A {@link ResponseEntity} containing the {@link StockLevelDTO} of the article at that date.
+     * @throws IllegalArgumentException If the article does not exist.
+     */
+    @GetMapping("/{articleId}")
+    public ResponseEntity<StockLevelDTO> getLevelAsOf(
+            @PathVariable UUID articleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        StockLevelDTO level = StockLevelDTO.fromProjection(stockSnapshotService.findLevelsAsOf(List.of(articleId), asOf).get(0));
+        return ResponseEntity.ok(level);
+    }
+
+    /**
+     * Retrieves the stock of several articles at a past date, with a bounded number of queries whatever their count.
+     *
+     * @param articleIds The UUIDs of the articles, which may be deleted.
+     * @param asOf The date and time at which the stock is wanted, in ISO format (e.g. {@code 2024-10-01T18:00:00}).
+     * @return A {@link ResponseEntity} containing the {@link StockLevelDTO} of each article at that date, in the requested order.
+     * @throws IllegalArgumentException If more than {@code app.stock.max-batch-size} articles are requested, or an article does not exist.
+     */
+    @GetMapping
+    public ResponseEntity<List<StockLevelDTO>> getLevelsAsOf(
+            @RequestParam List<UUID> articleIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        if (articleIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Too many articles: " + articleIds.size() + " > " + maxBatchSize);
+        }
+
+        List<StockLevelDTO> levels = stockSnapshotService.findLevelsAsOf(articleIds, asOf).stream()
+                .map(StockLevelDTO::fromProjection)
+                .toList();
+        return ResponseEntity.ok(levels);
+    }
+
+    /**
+     * Retrieves the totals of the stock movements per day and type over a date range, for all articles or one of them.
+     * Only the daily rollups are read, so the cost grows with the number of days, not of movements.
+     *
+     * @param articleId The UUID of the article; omitted for all articles.
+     * @param from The first day, inclusive, in ISO format (e.g. {@code 2024-01-01}).
+     * @param to The last day, inclusive, in ISO format.
+     * @return A {@link ResponseEntity} containing a list of {@link StockDailyTotalDTO}, ordered by day then type.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<StockDailyTotalDTO>> getDailyTotals(
+            @RequestParam(required = false) UUID articleId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        List<StockDailyTotalDTO> totals = stockRollupService.findDailyTotals(articleId, from, to).stream()
+                .map(StockDailyTotalDTO::fromProjection)
+                .toList();
+        return ResponseEntity.ok(totals);
+    }
+
+    /**
+     * Rebuilds the daily totals of past days from the movement history, such as after the rollups were introduced
+     * on an existing database. Days are rebuilt one at a time, and the current day is never touched.
+     *
+     * @param from The first day, inclusive, in ISO format; omitted to start at the oldest movement.
+     * @param to The last day, inclusive, in ISO format; omitted, or capped, at the previous day.
+     * @return A {@link ResponseEntity} containing a {@link StockRollupBackfillDTO} with the number of rollups written.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    @PostMapping("/rollups/backfill")
+    public ResponseEntity<StockRollupBackfillDTO> backfillRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(new StockRollupBackfillDTO(stockRollupService.backfill(from, to)));
+    }
+
+    /**
+     * Sets or clears the reorder threshold of an article. Once set, an alert is sent when a movement makes the stock
+     * drop below it, or right away if the stock is already below it.
+     *
+     * @param articleId The UUID of the article.
+     * @param thresholdForm The {@link StockThresholdForm} holding the threshold, or {@code null} to stop monitoring the article.
+     * @param bindingResult The result of form validation, holding any validation errors.
+     * @return A {@link ResponseEntity} with no content.
+     * @throws ValidationException If the threshold is negative.
+     * @throws IllegalArgumentException If the article does not exist.
+     */
+    @PutMapping("/{articleId}/threshold")
+    public ResponseEntity<Void> updateThreshold(
+            @PathVariable UUID articleId,
+            @Valid @RequestBody StockThresholdForm thresholdForm,
+            BindingResult bindingResult
+    ) {
+        if (bindingResult.hasErrors()) {
+            List<String> errors = bindingResult.getAllErrors().stream()
+                    .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                    .toList();
+            throw new ValidationException("Validation Error: " + errors);
+        }
+
+        stockAlertService.setThreshold(articleId, thresholdForm.threshold());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Starts a reconciliation of the stocks with the sums of their movements, which runs in the background. If a
+     * previous run was interrupted or failed, it is resumed where it stopped, with its own settings, instead.
+     *
+     * @param repair Whether the stocks that drifted are corrected by the difference; defaults to only reporting them.
+     * @return A {@link ResponseEntity} with status 202 (Accepted), containing the {@link StockReconciliationDTO} of the
+     *         run and its URI in the {@code Location} header.
+     * @throws IllegalStateException If a reconciliation is already running.
+     */
+    @PostMapping("/reconciliations")
+    public ResponseEntity<StockReconciliationDTO> startReconciliation(@RequestParam(defaultValue = "false") boolean repair) {
+        StockReconciliation run = stockReconciliationService.start(repair);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequestUri()
+                .path("/{id}")
+                .buildAndExpand(run.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(StockReconciliationDTO.fromReconciliation(run));
+    }
+
+    /**
+     * Retrieves a reconciliation run and its progress. A run that stopped on an error carries it, along with the date
+     * it failed, and can be resumed by starting a reconciliation again.
+     *
+     * @param id The UUID of the run.
+     * @return A {@link ResponseEntity} containing the {@link StockReconciliationDTO} of the run.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    @GetMapping("/reconciliations/{id}")
+    public ResponseEntity<StockReconciliationDTO> getReconciliation(@PathVariable UUID id) {
+        return ResponseEntity.ok(StockReconciliationDTO.fromReconciliation(stockReconciliationService.findById(id)));
+    }
+
+    /**
+     * Retrieves the drifts found by a reconciliation run so far.
+     *
+     * @param id The UUID of the run.
+     * @return A {@link ResponseEntity} containing a list of {@link StockDriftDTO}, ordered by article.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    @GetMapping("/reconciliations/{id}/drifts")
+    public ResponseEntity<List<StockDriftDTO>> getDrifts(@PathVariable UUID id) {
+        List<StockDriftDTO> drifts = stockReconciliationService.findDrifts(id).stream()
+                .map(StockDriftDTO::fromProjection)
+                .toList();
+        return ResponseEntity.ok(drifts);
+    }
+}
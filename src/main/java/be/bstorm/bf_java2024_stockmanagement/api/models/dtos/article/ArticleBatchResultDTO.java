@@ -0,0 +1,48 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.ArticleBatchResult;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of one item of an article batch import.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code index} - The position of the item in the submitted batch.</li>
+ * <li>{@code id} - The ID of the created or updated article, or {@code null} if the item was rejected.</li>
+ * <li>{@code status} - {@code CREATED}, {@code UPDATED} or {@code REJECTED}.</li>
+ * <li>{@code message} - The reason of the rejection, or {@code null} otherwise.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromResult(ArticleBatchResult)} - Converts an {@link ArticleBatchResult} into an {@link ArticleBatchResultDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ArticleBatchResult
+ */
+public record ArticleBatchResultDTO(
+        int index,
+        UUID id,
+        String status,
+        String message
+) {
+
+    /**
+     * Converts an {@link ArticleBatchResult} into an {@link ArticleBatchResultDTO} instance.
+     *
+     * @param r The {@link ArticleBatchResult} to convert.
+     * @return An {@link ArticleBatchResultDTO} with data populated from the given result.
+     */
+    public static ArticleBatchResultDTO fromResult(ArticleBatchResult r) {
+        return new ArticleBatchResultDTO(
+                r.index(),
+                r.id(),
+                r.status().name(),
+                r.message()
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article;
 
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
 
 import java.util.UUID;
@@ -22,6 +23,8 @@ import java.util.UUID;
  * <p>Methods:
  * <ul>
  * <li>{@link #fromArticle(Article)} - Converts an {@link Article} entity into an {@link ArticleDTO}.</li>
+ * <li>{@link #fromProjection(ArticleSummaryProjection)} - Converts an {@link ArticleSummaryProjection} into an {@link ArticleDTO}.</li>
+ * <li>{@link #fromProjection(ArticleSummaryProjection, int)} - Converts an {@link ArticleSummaryProjection} into an {@link ArticleDTO}, adding a pending stock change.</li>
  * </ul>
  * </p>
  *
@@ -52,4 +55,33 @@ public record ArticleDTO(
                 a.getStock() == null ? 0 : a.getStock().getCurrentQuantity()
         );
     }
+
+    /**
+     * Converts an {@link ArticleSummaryProjection} into an {@link ArticleDTO} instance.
+     *
+     * @param p The {@link ArticleSummaryProjection} to convert.
+     * @return An {@link ArticleDTO} with data populated from the given projection.
+     */
+    public static ArticleDTO fromProjection(ArticleSummaryProjection p) {
+        return fromProjection(p, 0);
+    }
+
+    /**
+     * Converts an {@link ArticleSummaryProjection} into an {@link ArticleDTO} instance, adding the stock change not yet flushed
+     * by the write-behind buffer to the persisted quantity.
+     *
+     * @param p The {@link ArticleSummaryProjection} to convert.
+     * @param pendingQuantity The signed stock change pending for the article.
+     * @return An {@link ArticleDTO} with data populated from the given projection.
+     */
+    public static ArticleDTO fromProjection(ArticleSummaryProjection p, int pendingQuantity) {
+        return new ArticleDTO(
+                p.id(),
+                p.designation(),
+                p.unitPriceExcludingTax() / 100D,
+                p.vat().priceIncludingTax(p.unitPriceExcludingTax()) / 100D,
+                p.category(),
+                p.quantity() + pendingQuantity
+        );
+    }
 }
@@ -1,5 +1,6 @@
 package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article;
 
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDetailsProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
 import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
 
@@ -26,6 +27,8 @@ import java.util.UUID;
  * <p>Methods:
  * <ul>
  * <li>{@link #fromArticle(Article)} - Converts an {@link Article} entity into an {@link ArticleDetailsDTO}.</li>
+ * <li>{@link #fromProjection(ArticleDetailsProjection)} - Converts an {@link ArticleDetailsProjection} into an {@link ArticleDetailsDTO}.</li>
+ * <li>{@link #fromProjection(ArticleDetailsProjection, int)} - Converts an {@link ArticleDetailsProjection} into an {@link ArticleDetailsDTO}, adding a pending stock change.</li>
  * </ul>
  * </p>
  *
@@ -62,4 +65,36 @@ public record ArticleDetailsDTO(
                 a.getStock() == null ? 0 : a.getStock().getCurrentQuantity()
         );
     }
+
+    /**
+     * Converts an {@link ArticleDetailsProjection} into an {@link ArticleDetailsDTO} instance.
+     *
+     * @param p The {@link ArticleDetailsProjection} to convert.
+     * @return An {@link ArticleDetailsDTO} with data populated from the given projection.
+     */
+    public static ArticleDetailsDTO fromProjection(ArticleDetailsProjection p) {
+        return fromProjection(p, 0);
+    }
+
+    /**
+     * Converts an {@link ArticleDetailsProjection} into an {@link ArticleDetailsDTO} instance, adding the stock change
+     * not yet flushed by the write-behind buffer to the persisted quantity.
+     *
+     * @param p The {@link ArticleDetailsProjection} to convert.
+     * @param pendingQuantity The signed stock change pending for the article.
+     * @return An {@link ArticleDetailsDTO} with data populated from the given projection.
+     */
+    public static ArticleDetailsDTO fromProjection(ArticleDetailsProjection p, int pendingQuantity) {
+        return new ArticleDetailsDTO(
+                p.id(),
+                p.designation(),
+                p.unitPriceExcludingTax() / 100D,
+                p.vat().priceIncludingTax(p.unitPriceExcludingTax()) / 100D,
+                p.vat().addedValue(p.unitPriceExcludingTax()) / 100D,
+                p.vat(),
+                p.picture(),
+                p.category(),
+                p.quantity() + pendingQuantity
+        );
+    }
 }
@@ -0,0 +1,26 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of a keyset-paginated list of articles.
+ * The cursor is opaque to clients: they only pass it back, or follow the {@code next} link, to fetch the following page.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code content} - The articles of the current page.</li>
+ * <li>{@code size} - The requested page size.</li>
+ * <li>{@code nextCursor} - The opaque cursor of the next page, or {@code null} if this is the last page.</li>
+ * <li>{@code next} - The URL of the next page, or {@code null} if this is the last page.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ArticleDTO
+ */
+public record ArticlePageDTO(
+        List<ArticleDTO> content,
+        int size,
+        String nextCursor,
+        String next
+) {
+}
@@ -0,0 +1,15 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.article;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a bulk repricing of articles.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code affected} - The number of articles changed by the repricing.</li>
+ * </ul>
+ * </p>
+ */
+public record ArticleRepricingDTO(
+        int affected
+) {
+}
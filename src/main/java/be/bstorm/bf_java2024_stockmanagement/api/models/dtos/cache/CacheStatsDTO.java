@@ -0,0 +1,53 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Data Transfer Object (DTO) for the statistics of an in-process cache.
+ * Used to size caches in production from their hit, miss and eviction counters.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code name} - The name of the cache.</li>
+ * <li>{@code size} - The approximate number of entries currently held.</li>
+ * <li>{@code hitCount} - The number of lookups that found a cached entry.</li>
+ * <li>{@code missCount} - The number of lookups that had to load the entry.</li>
+ * <li>{@code hitRate} - The ratio of hits over all lookups.</li>
+ * <li>{@code evictionCount} - The number of entries evicted because of size or expiration.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromStats(String, long, CacheStats)} - Builds a {@link CacheStatsDTO} from Caffeine statistics.</li>
+ * </ul>
+ * </p>
+ */
+public record CacheStatsDTO(
+        String name,
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount
+) {
+
+    /**
+     * Builds a {@link CacheStatsDTO} from Caffeine statistics.
+     *
+     * @param name The name of the cache.
+     * @param size The approximate number of entries of the cache.
+     * @param stats The {@link CacheStats} snapshot of the cache.
+     * @return A {@link CacheStatsDTO} with data populated from the statistics.
+     */
+    public static CacheStatsDTO fromStats(String name, long size, CacheStats stats) {
+        return new CacheStatsDTO(
+                name,
+                size,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for a stock change refused because an article did not have enough stock.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the first article found lacking stock.</li>
+ * <li>{@code requested} - The quantity requested out of the stock of that article.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromResult(StockWithdrawal.InsufficientStock)} - Converts an {@link StockWithdrawal.InsufficientStock} into an {@link InsufficientStockDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockWithdrawal.InsufficientStock
+ */
+public record InsufficientStockDTO(
+        UUID articleId,
+        int requested
+) {
+
+    /**
+     * Converts an {@link StockWithdrawal.InsufficientStock} into an {@link InsufficientStockDTO} instance.
+     *
+     * @param result The {@link StockWithdrawal.InsufficientStock} to convert.
+     * @return An {@link InsufficientStockDTO} with data populated from the given result.
+     */
+    public static InsufficientStockDTO fromResult(StockWithdrawal.InsufficientStock result) {
+        return new InsufficientStockDTO(
+                result.articleId(),
+                result.requested()
+        );
+    }
+}
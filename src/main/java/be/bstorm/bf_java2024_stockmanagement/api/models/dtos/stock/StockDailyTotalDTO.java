@@ -0,0 +1,49 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object (DTO) for the total of the stock movements of one type on one day.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code day} - The day the movements occurred.</li>
+ * <li>{@code movementType} - The type of the movements.</li>
+ * <li>{@code quantity} - The total quantity moved, unsigned.</li>
+ * <li>{@code movementCount} - The number of movements.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromProjection(StockDailyTotalProjection)} - Converts a {@link StockDailyTotalProjection} into a {@link StockDailyTotalDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyTotalProjection
+ */
+public record StockDailyTotalDTO(
+        LocalDate day,
+        StockMovementType movementType,
+        long quantity,
+        long movementCount
+) {
+
+    /**
+     * Converts a {@link StockDailyTotalProjection} into a {@link StockDailyTotalDTO} instance.
+     *
+     * @param p The {@link StockDailyTotalProjection} to convert.
+     * @return A {@link StockDailyTotalDTO} with data populated from the given projection.
+     */
+    public static StockDailyTotalDTO fromProjection(StockDailyTotalProjection p) {
+        return new StockDailyTotalDTO(
+                p.day(),
+                p.movementType(),
+                p.quantity(),
+                p.movementCount()
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for a drift found by the stock reconciliation.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code stockQuantity} - The quantity of the stock when checked.</li>
+ * <li>{@code movementQuantity} - The signed sum of the movements of the article when checked.</li>
+ * <li>{@code difference} - The quantity missing from the stock, negative when the stock holds too much.</li>
+ * <li>{@code repaired} - Whether the stock was corrected by the difference.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromProjection(StockDriftProjection)} - Converts a {@link StockDriftProjection} into a {@link StockDriftDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDriftProjection
+ */
+public record StockDriftDTO(
+        UUID articleId,
+        int stockQuantity,
+        long movementQuantity,
+        long difference,
+        boolean repaired
+) {
+
+    /**
+     * Converts a {@link StockDriftProjection} into a {@link StockDriftDTO} instance.
+     *
+     * @param p The {@link StockDriftProjection} to convert.
+     * @return A {@link StockDriftDTO} with data populated from the given projection.
+     */
+    public static StockDriftDTO fromProjection(StockDriftProjection p) {
+        return new StockDriftDTO(
+                p.articleId(),
+                p.stockQuantity(),
+                p.movementQuantity(),
+                p.movementQuantity() - p.stockQuantity(),
+                p.repaired()
+        );
+    }
+}
@@ -0,0 +1,42 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for the stock level of an article.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code quantity} - The current quantity of the article in stock.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromProjection(StockLevelProjection)} - Converts a {@link StockLevelProjection} into a {@link StockLevelDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockLevelProjection
+ */
+public record StockLevelDTO(
+        UUID articleId,
+        int quantity
+) {
+
+    /**
+     * Converts a {@link StockLevelProjection} into a {@link StockLevelDTO} instance.
+     *
+     * @param p The {@link StockLevelProjection} to convert.
+     * @return A {@link StockLevelDTO} with data populated from the given projection.
+     */
+    public static StockLevelDTO fromProjection(StockLevelProjection p) {
+        return new StockLevelDTO(
+                p.articleId(),
+                p.quantity()
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for a stock movement of the history.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the movement.</li>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code movementType} - The type of the movement.</li>
+ * <li>{@code quantity} - The quantity of items moved.</li>
+ * <li>{@code movementDate} - The date and time of the movement.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromProjection(StockMovementProjection)} - Converts a {@link StockMovementProjection} into a {@link StockMovementDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovementProjection
+ */
+public record StockMovementDTO(
+        UUID id,
+        UUID articleId,
+        StockMovementType movementType,
+        int quantity,
+        LocalDateTime movementDate
+) {
+
+    /**
+     * Converts a {@link StockMovementProjection} into a {@link StockMovementDTO} instance.
+     *
+     * @param p The {@link StockMovementProjection} to convert.
+     * @return A {@link StockMovementDTO} with data populated from the given projection.
+     */
+    public static StockMovementDTO fromProjection(StockMovementProjection p) {
+        return new StockMovementDTO(
+                p.id(),
+                p.articleId(),
+                p.movementType(),
+                p.quantity(),
+                p.movementDate()
+        );
+    }
+}
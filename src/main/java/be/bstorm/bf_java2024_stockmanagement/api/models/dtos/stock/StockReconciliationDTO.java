@@ -0,0 +1,71 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) for a run of the stock reconciliation and its progress.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the run.</li>
+ * <li>{@code startedAt} - The date and time the run was first started.</li>
+ * <li>{@code finishedAt} - The date and time the run finished, or {@code null} while running or interrupted.</li>
+ * <li>{@code failedAt} - The date and time the run stopped on an error, or {@code null}; a failed run can be resumed.</li>
+ * <li>{@code error} - The error that stopped the run, or {@code null}.</li>
+ * <li>{@code repair} - Whether the drifts found are repaired.</li>
+ * <li>{@code partitionCount} - The number of partitions of the run.</li>
+ * <li>{@code completedPartitions} - The number of partitions done.</li>
+ * <li>{@code checkedArticles} - The number of articles checked so far.</li>
+ * <li>{@code driftedArticles} - The number of articles whose stock drifted from their movements.</li>
+ * <li>{@code repairedArticles} - The number of drifted articles repaired.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #fromReconciliation(StockReconciliation)} - Converts a {@link StockReconciliation} entity into a {@link StockReconciliationDTO}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockReconciliation
+ */
+public record StockReconciliationDTO(
+        UUID id,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        LocalDateTime failedAt,
+        String error,
+        boolean repair,
+        int partitionCount,
+        int completedPartitions,
+        long checkedArticles,
+        long driftedArticles,
+        long repairedArticles
+) {
+
+    /**
+     * Converts a {@link StockReconciliation} entity into a {@link StockReconciliationDTO} instance.
+     *
+     * @param r The {@link StockReconciliation} entity to convert.
+     * @return A {@link StockReconciliationDTO} with data populated from the given entity.
+     */
+    public static StockReconciliationDTO fromReconciliation(StockReconciliation r) {
+        return new StockReconciliationDTO(
+                r.getId(),
+                r.getCreatedAt(),
+                r.getFinishedAt(),
+                r.getFailedAt(),
+                r.getError(),
+                r.isRepair(),
+                r.getPartitionCount(),
+                BitSet.valueOf(r.getCompletedPartitions()).cardinality(),
+                r.getCheckedArticles(),
+                r.getDriftedArticles(),
+                r.getRepairedArticles()
+        );
+    }
+}
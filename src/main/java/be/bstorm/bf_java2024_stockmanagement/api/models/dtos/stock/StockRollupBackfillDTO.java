@@ -0,0 +1,15 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.dtos.stock;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a backfill of the daily stock rollups.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code rollups} - The number of rollups written.</li>
+ * </ul>
+ * </p>
+ */
+public record StockRollupBackfillDTO(
+        int rollups
+) {
+}
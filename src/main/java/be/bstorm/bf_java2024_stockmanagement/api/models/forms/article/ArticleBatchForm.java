@@ -0,0 +1,56 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.forms.article;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.UUID;
+
+/**
+ * Form Data Transfer Object (DTO) for one item of an article batch import.
+ * An item without ID creates a new article; an item with an ID updates the existing article.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the article to update, or {@code null} to create a new article.</li>
+ * <li>{@code designation} - The name or designation of the article, required and cannot be blank.</li>
+ * <li>{@code unitPriceExcludingTax} - The unit price of the article, excluding tax, must be zero or positive.</li>
+ * <li>{@code vat} - The VAT rate applied to the article, required.</li>
+ * <li>{@code categoryId} - The UUID of the category to which the article belongs, required.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #toArticle()} - Converts this form into an {@link Article} entity.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Article
+ */
+public record ArticleBatchForm(
+
+        UUID id,
+        @NotBlank(message = "Required field") @Size(max = 80) String designation,
+        @Min(0) double unitPriceExcludingTax,
+        @NotNull(message = "Required field") VAT vat,
+        @NotNull(message = "Required field") UUID categoryId
+) {
+
+    /**
+     * Converts this form data into an {@link Article} entity.
+     *
+     * @return A new {@link Article} populated with data from this form.
+     */
+    public Article toArticle() {
+        return new Article(
+                this.id,
+                this.designation,
+                (long) (this.unitPriceExcludingTax * 100),
+                this.vat
+        );
+    }
+}
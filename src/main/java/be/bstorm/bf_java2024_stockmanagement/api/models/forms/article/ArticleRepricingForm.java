@@ -0,0 +1,49 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.forms.article;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMin;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Form Data Transfer Object (DTO) for a bulk repricing of articles.
+ * The filter fields select the active articles to change; exactly one of the operation fields must be provided.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code categoryId} - Only reprice articles of this category; all categories if {@code null}.</li>
+ * <li>{@code vat} - Only reprice articles with this VAT rate; all rates if {@code null}.</li>
+ * <li>{@code percentage} - Changes the unit price excluding tax by this percentage (e.g. {@code 5} or {@code -10}), not below -100.</li>
+ * <li>{@code amount} - Adds this amount (possibly negative) to the unit price excluding tax; prices never go below zero.</li>
+ * <li>{@code newVat} - Reassigns the matching articles to this VAT rate.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #isSingleOperation()} - Checks that exactly one operation is requested.</li>
+ * </ul>
+ * </p>
+ */
+public record ArticleRepricingForm(
+
+        UUID categoryId,
+        VAT vat,
+        @DecimalMin("-100") Double percentage,
+        Double amount,
+        VAT newVat
+) {
+
+    /**
+     * Checks that exactly one of {@code percentage}, {@code amount} and {@code newVat} is provided.
+     *
+     * @return {@code true} if exactly one operation is requested; {@code false} otherwise.
+     */
+    @AssertTrue(message = "Exactly one of percentage, amount or newVat is required")
+    public boolean isSingleOperation() {
+        return Stream.of(percentage, amount, newVat).filter(Objects::nonNull).count() == 1;
+    }
+}
@@ -0,0 +1,48 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.forms.stock;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Form Data Transfer Object (DTO) for one stock movement of a batch.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The UUID of the article whose stock moves, required.</li>
+ * <li>{@code movementType} - The type of the movement, required.</li>
+ * <li>{@code quantity} - The quantity of items moved, at least 1.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #toLine()} - Converts this form into a {@link StockMovementLine}.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovementLine
+ */
+public record StockMovementForm(
+
+        @NotNull(message = "Required field") UUID articleId,
+        @NotNull(message = "Required field") StockMovementType movementType,
+        @Min(1) int quantity
+) {
+
+    /**
+     * Converts this form data into a {@link StockMovementLine}.
+     *
+     * @return A new {@link StockMovementLine} populated with data from this form.
+     */
+    public StockMovementLine toLine() {
+        return new StockMovementLine(
+                this.articleId,
+                this.movementType,
+                this.quantity
+        );
+    }
+}
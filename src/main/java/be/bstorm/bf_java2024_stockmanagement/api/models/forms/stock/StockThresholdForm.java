@@ -0,0 +1,19 @@
+package be.bstorm.bf_java2024_stockmanagement.api.models.forms.stock;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Form Data Transfer Object (DTO) for the reorder threshold of an article.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code threshold} - The quantity below which the article must be reordered, at least 0;
+ * {@code null} to stop monitoring the article.</li>
+ * </ul>
+ * </p>
+ */
+public record StockThresholdForm(
+
+        @Min(0) Integer threshold
+) {
+}
@@ -1,38 +1,95 @@
 package be.bstorm.bf_java2024_stockmanagement.api.validators;
 
 import be.bstorm.bf_java2024_stockmanagement.api.validators.annotations.ImageFormat;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.ImageSniffer;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.ImageSniffer.ImageHeader;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
- * Validator class for checking the format of image files. Ensures that the file extension is one of the allowed types: .jpg, .jpeg, or .png.
+ * Validator class for checking the format of image files. Ensures that the content is a JPEG or PNG image,
+ * identified from its magic number, and that its size and pixel dimensions stay within the limits of the annotation.
+ * Only the header of the file is read, through {@link ImageSniffer}: the image is never decoded nor read in full,
+ * so an invalid upload is refused after a few bytes.
  * Implements {@link ConstraintValidator} to integrate with the {@link ImageFormat} custom annotation.
  *
  * <p>Methods:
  * <ul>
- * <li>{@link #isValid(MultipartFile, ConstraintValidatorContext)} - Validates that the provided file is either empty or has an allowed image format.</li>
+ * <li>{@link #initialize(ImageFormat)} - Reads the limits of the annotation.</li>
+ * <li>{@link #isValid(MultipartFile, ConstraintValidatorContext)} - Validates that the provided file is either empty or an image within the limits.</li>
+ * <li>{@link #reject(ConstraintValidatorContext, String)} - Replaces the default violation with a more precise message.</li>
  * </ul>
  * </p>
  *
  * @see ImageFormat
+ * @see ImageSniffer
  * @see MultipartFile
  */
 public class ImageFormatValidator implements ConstraintValidator<ImageFormat, MultipartFile> {
 
+    private int maxWidth;
+    private int maxHeight;
+    private long maxSize;
+
     /**
-     * Validates the format of the provided image file. Returns {@code true} if the file is null, empty, or has a valid extension.
+     * Reads the limits of the annotation.
+     *
+     * @param constraintAnnotation The {@link ImageFormat} annotation of the validated element.
+     */
+    @Override
+    public void initialize(ImageFormat constraintAnnotation) {
+        this.maxWidth = constraintAnnotation.maxWidth();
+        this.maxHeight = constraintAnnotation.maxHeight();
+        this.maxSize = constraintAnnotation.maxSize();
+    }
+
+    /**
+     * Validates the format of the provided image file. Returns {@code true} if the file is null, empty, or a JPEG or PNG
+     * image within the limits. The declared size is checked first, then the header is read from the stream of the file.
      *
      * @param value The {@link MultipartFile} to validate.
      * @param constraintValidatorContext The context in which the constraint is evaluated.
-     * @return {@code true} if the file is null, empty, or has an allowed extension (.jpg, .jpeg, .png); {@code false} otherwise.
+     * @return {@code true} if the file is null, empty, or a JPEG or PNG image within the size and dimension limits; {@code false} otherwise.
      */
     @Override
     public boolean isValid(MultipartFile value, ConstraintValidatorContext constraintValidatorContext) {
         if (value == null || value.isEmpty()) {
             return true;
         }
-        String imageName = value.getOriginalFilename();
-        return imageName != null && (imageName.endsWith(".jpg") || imageName.endsWith(".jpeg") || imageName.endsWith(".png"));
+        if (value.getSize() > maxSize) {
+            return reject(constraintValidatorContext, "Image exceeds " + maxSize + " bytes");
+        }
+
+        ImageHeader header;
+        try (InputStream in = new BufferedInputStream(ImageSniffer.limit(value.getInputStream(), maxSize))) {
+            header = ImageSniffer.sniff(in);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+        if (header == null) {
+            return false;
+        }
+        if (header.width() > maxWidth || header.height() > maxHeight) {
+            return reject(constraintValidatorContext, "Image exceeds " + maxWidth + "x" + maxHeight + " pixels");
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the default violation with a more precise message.
+     *
+     * @param context The context in which the constraint is evaluated.
+     * @param message The message of the violation.
+     * @return {@code false}, for convenience.
+     */
+    private static boolean reject(ConstraintValidatorContext context, String message) {
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        return false;
     }
 }
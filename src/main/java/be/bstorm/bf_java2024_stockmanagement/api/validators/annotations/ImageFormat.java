@@ -11,17 +11,21 @@ import java.lang.annotation.Target;
 
 /**
  * Custom validation annotation to check if an image file has a valid format.
- * Supports image formats .jpg, .jpeg, and .png.
+ * Supports JPEG and PNG images, recognized from their content rather than their extension,
+ * and bounds their size in bytes and their dimensions in pixels.
  *
  * <p>Usage:</p>
  * <pre>
- * {@code @ImageFormat(message = "Only JPG, JPEG, and PNG formats are allowed")}
+ * {@code @ImageFormat(message = "Only JPG, JPEG, and PNG formats are allowed", maxWidth = 1920, maxHeight = 1080)}
  * private MultipartFile imageFile;
  * </pre>
  *
  * <p>Fields:
  * <ul>
  * <li>{@code message} - Custom error message if the format is invalid.</li>
+ * <li>{@code maxWidth} - The maximum width of the image, in pixels.</li>
+ * <li>{@code maxHeight} - The maximum height of the image, in pixels.</li>
+ * <li>{@code maxSize} - The maximum size of the image, in bytes.</li>
  * <li>{@code groups} - Allows grouping of constraints.</li>
  * <li>{@code payload} - Can be used to provide additional metadata.</li>
  * </ul>
@@ -29,7 +33,7 @@ import java.lang.annotation.Target;
  *
  * @see ImageFormatValidator
  */
-@Target({ElementType.FIELD})
+@Target({ElementType.FIELD, ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
 @Constraint(validatedBy = {ImageFormatValidator.class})
 public @interface ImageFormat {
@@ -41,6 +45,27 @@ public @interface ImageFormat {
      */
     String message() default "Invalid image format";
 
+    /**
+     * The maximum width of the image, in pixels.
+     *
+     * @return The maximum width.
+     */
+    int maxWidth() default 4096;
+
+    /**
+     * The maximum height of the image, in pixels.
+     *
+     * @return The maximum height.
+     */
+    int maxHeight() default 4096;
+
+    /**
+     * The maximum size of the image, in bytes; defaults to the multipart limit of 10MB.
+     *
+     * @return The maximum size.
+     */
+    long maxSize() default 10L * 1024 * 1024;
+
     /**
      * Allows grouping of constraints.
      *
@@ -0,0 +1,19 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.events;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Application event published whenever the stock of one or more articles changes.
+ * Listeners use it to invalidate state derived from the stock, such as cached articles.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleIds} - The IDs of the articles whose stock changed.</li>
+ * </ul>
+ * </p>
+ */
+public record StockChangedEvent(
+        Collection<UUID> articleIds
+) {
+}
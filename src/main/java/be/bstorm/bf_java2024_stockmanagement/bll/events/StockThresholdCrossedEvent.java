@@ -0,0 +1,22 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.events;
+
+import java.util.UUID;
+
+/**
+ * Application event published when the stock of an article drops below its reorder threshold.
+ * Handled once the transaction that moved the stock commits, so rolled back movements never raise an alert.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The ID of the article.</li>
+ * <li>{@code threshold} - The reorder threshold of the article.</li>
+ * <li>{@code quantity} - The quantity in stock after the movement.</li>
+ * </ul>
+ * </p>
+ */
+public record StockThresholdCrossedEvent(
+        UUID articleId,
+        int threshold,
+        int quantity
+) {
+}
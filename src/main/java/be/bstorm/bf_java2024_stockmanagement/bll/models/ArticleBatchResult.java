@@ -0,0 +1,74 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.models;
+
+import java.util.UUID;
+
+/**
+ * The outcome of one item of an article batch import.
+ * Each item is reported on its own, so that one invalid row does not fail the whole batch.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code index} - The position of the item in the submitted batch.</li>
+ * <li>{@code id} - The ID of the created or updated article, or {@code null} if the item was rejected.</li>
+ * <li>{@code status} - Whether the item was created, updated or rejected.</li>
+ * <li>{@code message} - The reason of the rejection, or {@code null} otherwise.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #created(int, UUID)} - Builds the result of a created article.</li>
+ * <li>{@link #updated(int, UUID)} - Builds the result of an updated article.</li>
+ * <li>{@link #rejected(int, String)} - Builds the result of a rejected item.</li>
+ * </ul>
+ * </p>
+ */
+public record ArticleBatchResult(
+        int index,
+        UUID id,
+        Status status,
+        String message
+) {
+
+    /**
+     * The possible outcomes of a batch item.
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        REJECTED
+    }
+
+    /**
+     * Builds the result of an item that created a new article.
+     *
+     * @param index The position of the item in the batch.
+     * @param id The ID of the created article.
+     * @return An {@link ArticleBatchResult} with the {@link Status#CREATED} status.
+     */
+    public static ArticleBatchResult created(int index, UUID id) {
+        return new ArticleBatchResult(index, id, Status.CREATED, null);
+    }
+
+    /**
+     * Builds the result of an item that updated an existing article.
+     *
+     * @param index The position of the item in the batch.
+     * @param id The ID of the updated article.
+     * @return An {@link ArticleBatchResult} with the {@link Status#UPDATED} status.
+     */
+    public static ArticleBatchResult updated(int index, UUID id) {
+        return new ArticleBatchResult(index, id, Status.UPDATED, null);
+    }
+
+    /**
+     * Builds the result of an item that was rejected.
+     *
+     * @param index The position of the item in the batch.
+     * @param message The reason of the rejection.
+     * @return An {@link ArticleBatchResult} with the {@link Status#REJECTED} status.
+     */
+    public static ArticleBatchResult rejected(int index, String message) {
+        return new ArticleBatchResult(index, null, Status.REJECTED, message);
+    }
+}
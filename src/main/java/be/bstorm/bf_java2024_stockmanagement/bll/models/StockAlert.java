@@ -0,0 +1,24 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A low-stock alert waiting to be notified.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The ID of the article.</li>
+ * <li>{@code threshold} - The reorder threshold of the article.</li>
+ * <li>{@code quantity} - The quantity in stock when the threshold was crossed.</li>
+ * <li>{@code raisedAt} - The date and time the alert was raised.</li>
+ * </ul>
+ * </p>
+ */
+public record StockAlert(
+        UUID articleId,
+        int threshold,
+        int quantity,
+        LocalDateTime raisedAt
+) {
+}
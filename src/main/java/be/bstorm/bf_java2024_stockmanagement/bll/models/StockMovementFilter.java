@@ -0,0 +1,28 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.models;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The criteria selecting stock movements from the history. Every criterion is optional.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The ID of the article whose movements are wanted, or {@code null} for all articles.</li>
+ * <li>{@code movementType} - The type of the movements wanted, or {@code null} for all types.</li>
+ * <li>{@code from} - The earliest movement date, inclusive, or {@code null} for the beginning of the history.</li>
+ * <li>{@code to} - The latest movement date, inclusive, or {@code null} for the end of the history.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovementType
+ */
+public record StockMovementFilter(
+        UUID articleId,
+        StockMovementType movementType,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
@@ -0,0 +1,40 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.models;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.util.UUID;
+
+/**
+ * One movement of a batch of stock movements, as submitted by a warehouse scanner.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The ID of the article whose stock moves.</li>
+ * <li>{@code movementType} - The type of the movement, which decides whether it adds to or subtracts from the stock.</li>
+ * <li>{@code quantity} - The quantity of items moved, positive.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #delta()} - Computes the signed change of stock caused by the movement.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovementType
+ */
+public record StockMovementLine(
+        UUID articleId,
+        StockMovementType movementType,
+        int quantity
+) {
+
+    /**
+     * Computes the signed change of stock caused by the movement.
+     *
+     * @return The quantity, negated if the movement subtracts from the stock.
+     */
+    public int delta() {
+        return movementType.delta(quantity);
+    }
+}
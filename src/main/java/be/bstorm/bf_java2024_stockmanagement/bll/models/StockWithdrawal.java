@@ -0,0 +1,43 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.models;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The outcome of a guarded stock change, such as a withdrawal or a batch of movements: either every change was applied
+ * to the stock, or nothing was because one article did not have enough. Running out of stock is an expected outcome
+ * rather than an error, so it is returned as a value that callers handle with a {@code switch} over the permitted types.
+ *
+ * <p>Outcomes:
+ * <ul>
+ * <li>{@link Withdrawn} - The changes were applied.</li>
+ * <li>{@link InsufficientStock} - Nothing was withdrawn because an article lacked stock.</li>
+ * </ul>
+ * </p>
+ */
+public sealed interface StockWithdrawal {
+
+    /**
+     * Every requested change was applied.
+     *
+     * @param levels The stock level of each article after the change.
+     */
+    record Withdrawn(
+            List<StockLevelProjection> levels
+    ) implements StockWithdrawal {
+    }
+
+    /**
+     * Nothing was applied because an article did not have the requested quantity in stock.
+     *
+     * @param articleId The ID of the first article found lacking stock.
+     * @param requested The quantity requested out of the stock of that article.
+     */
+    record InsufficientStock(
+            UUID articleId,
+            int requested
+    ) implements StockWithdrawal {
+    }
+}
@@ -1,21 +1,39 @@
 package be.bstorm.bf_java2024_stockmanagement.bll.services;
 
+import be.bstorm.bf_java2024_stockmanagement.bll.models.ArticleBatchResult;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDetailsProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Interface for managing {@link Article} entities, providing CRUD operations and additional business logic.
  * This service includes methods for saving images, validating uniqueness, and retrieving only active articles.
+ * Reads return read-only projections instead of managed entities.
  *
  * <p>Methods:
  * <ul>
- * <li>{@link #findAll()} - Retrieves a list of all active articles.</li>
- * <li>{@link #findById(UUID)} - Finds an article by its unique identifier (UUID), ensuring it is active.</li>
+ * <li>{@link #forEachActive(Consumer)} - Streams the summary of every active article to a consumer with constant memory.</li>
+ * <li>{@link #findPage(CursorUtils.Position, int)} - Retrieves one keyset page of active article summaries.</li>
+ * <li>{@link #findVersion()} - Returns the version of the set of active articles, for conditional requests.</li>
+ * <li>{@link #findVersionById(UUID)} - Computes the version of one article, for conditional requests.</li>
+ * <li>{@link #findById(UUID)} - Finds the details of an article by its unique identifier (UUID), ensuring it is active.</li>
  * <li>{@link #save(Article, MultipartFile)} - Saves a new article, with optional image storage, ensuring unique designation.</li>
  * <li>{@link #update(Article, MultipartFile)} - Updates an article's values, with optional image replacement, ensuring unique designation.</li>
+ * <li>{@link #updateImage(UUID, MultipartFile)} - Replaces the picture of an article with a streamed upload.</li>
+ * <li>{@link #saveAll(Map)} - Creates or updates a batch of articles, reporting the outcome of each one.</li>
+ * <li>{@link #repriceByPercentage(UUID, VAT, BigDecimal)} - Changes the price of matching articles by a percentage.</li>
+ * <li>{@link #repriceByAmount(UUID, VAT, long)} - Changes the price of matching articles by an amount.</li>
+ * <li>{@link #reassignVat(UUID, VAT, VAT)} - Reassigns matching articles to another VAT rate.</li>
  * <li>{@link #delete(UUID)} - Marks an article as deleted by its ID.</li>
  * </ul>
  * </p>
@@ -25,21 +43,46 @@ import java.util.UUID;
 public interface ArticleService {
 
     /**
-     * Retrieves a list of all active articles from the repository.
+     * Streams the summary of every active article to the given consumer, one at a time, without materializing the full list.
+     * Summaries are plain projections that never enter the persistence context, so memory use stays flat whatever the size of the catalog.
      *
-     * @return A {@link List} of active {@link Article} objects.
+     * @param consumer The consumer receiving each {@link ArticleSummaryProjection}.
      */
-    List<Article> findAll();
+    void forEachActive(Consumer<ArticleSummaryProjection> consumer);
 
     /**
-     * Retrieves an article by its unique identifier (UUID).
-     * If the article is marked as deleted, a {@link RuntimeException} is thrown.
+     * Retrieves one page of active article summaries ordered by designation then ID, starting right after the given position.
+     *
+     * @param after The position of the last article of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of articles to return.
+     * @return A {@link List} of at most {@code size} {@link ArticleSummaryProjection}.
+     */
+    List<ArticleSummaryProjection> findPage(CursorUtils.Position after, int size);
+
+    /**
+     * Returns the version of the set of active articles without loading them; it changes with every write or stock change.
+     *
+     * @return The {@link ArticleVersionProjection} of the active articles.
+     */
+    ArticleVersionProjection findVersion();
+
+    /**
+     * Computes the version of one article without loading it.
+     *
+     * @param id The UUID of the article.
+     * @return The {@link ArticleVersionProjection} of the article, with a count of {@code 0} if it is not found or deleted.
+     */
+    ArticleVersionProjection findVersionById(UUID id);
+
+    /**
+     * Retrieves the details of an article by its unique identifier (UUID).
+     * If the article does not exist or is marked as deleted, a {@link RuntimeException} is thrown.
      *
      * @param id The UUID of the article to retrieve.
-     * @return The {@link Article} if found and active.
-     * @throws RuntimeException If the article is marked as deleted.
+     * @return The {@link ArticleDetailsProjection} of the article if found and active.
+     * @throws RuntimeException If the article does not exist or is marked as deleted.
      */
-    Article findById(UUID id);
+    ArticleDetailsProjection findById(UUID id);
 
     /**
      * Saves a new article entity with a unique identifier. If an image is provided, it is stored on the server.
@@ -62,6 +105,57 @@ public interface ArticleService {
      */
     void update(Article article, MultipartFile image);
 
+    /**
+     * Replaces the picture of an active article with a new image, streamed to disk without being buffered in memory.
+     *
+     * @param id The UUID of the article.
+     * @param image A {@link MultipartFile} representing the new image.
+     * @return The path of the stored image, relative to the images directory.
+     * @throws IllegalArgumentException If the article does not exist, or the image is empty or too large.
+     * @throws IllegalStateException If too many uploads are already in progress.
+     */
+    String updateImage(UUID id, MultipartFile image);
+
+    /**
+     * Creates or updates a batch of articles in a single transaction, using JDBC batching.
+     * Articles without ID are created; articles with an ID update the existing article.
+     * An article whose designation is already used, or that targets an unknown article, is rejected without failing the others.
+     *
+     * @param articles The articles to save, keyed by their position in the submitted batch.
+     * @return A {@link List} of {@link ArticleBatchResult}, one per article, in batch order.
+     */
+    List<ArticleBatchResult> saveAll(Map<Integer, Article> articles);
+
+    /**
+     * Changes the unit price excluding tax of every active article matching the filter by a percentage, in a single statement.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param percentage The percentage to apply (e.g. {@code 5} for +5%, {@code -10} for -10%).
+     * @return The number of articles repriced.
+     */
+    int repriceByPercentage(UUID categoryId, VAT vat, BigDecimal percentage);
+
+    /**
+     * Adds an amount to the unit price excluding tax of every active article matching the filter, in a single statement.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param amount The amount to add in cents, possibly negative.
+     * @return The number of articles repriced.
+     */
+    int repriceByAmount(UUID categoryId, VAT vat, long amount);
+
+    /**
+     * Reassigns every active article matching the filter to another VAT rate, in a single statement.
+     *
+     * @param categoryId The category of the articles to change, or {@code null} for all categories.
+     * @param vat The current VAT rate of the articles to change, or {@code null} for all rates.
+     * @param newVat The VAT rate to assign.
+     * @return The number of articles changed.
+     */
+    int reassignVat(UUID categoryId, VAT vat, VAT newVat);
+
     /**
      * Marks an article as deleted by its ID.
      *
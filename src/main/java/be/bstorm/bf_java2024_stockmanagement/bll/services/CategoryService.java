@@ -2,6 +2,7 @@ package be.bstorm.bf_java2024_stockmanagement.bll.services;
 
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Category;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +13,7 @@ import java.util.UUID;
  * <ul>
  * <li>{@link #findAll()} - Retrieves a list of all categories.</li>
  * <li>{@link #findById(UUID)} - Finds a category by its unique identifier (UUID).</li>
+ * <li>{@link #findAllById(Collection)} - Finds the categories matching a set of identifiers in one query.</li>
  * </ul>
  * </p>
  *
@@ -34,4 +36,13 @@ public interface CategoryService {
      * @throws RuntimeException If the category is not found.
      */
     Category findById(UUID id);
+
+    /**
+     * Finds all categories matching the given identifiers in a single query.
+     * Identifiers that match no category are ignored.
+     *
+     * @param ids The UUIDs of the categories to retrieve.
+     * @return A {@link List} of the {@link Category} objects found.
+     */
+    List<Category> findAllById(Collection<UUID> ids);
 }
@@ -0,0 +1,66 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+
+/**
+ * Interface for the content-addressed image store, whose files are served under {@code /images/**}.
+ * Identical images are stored once and reference counted: storing an image does not reference it, the caller
+ * acquires and releases references in the transaction that assigns or replaces the picture of an article.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #store(MultipartFile)} - Streams an uploaded image to the store and returns its path.</li>
+ * <li>{@link #acquire(String)} - Records one reference to a stored image.</li>
+ * <li>{@link #release(String)} - Drops one reference to a stored image.</li>
+ * <li>{@link #resolve(String)} - Resolves the file of a stored image, refusing paths outside the store.</li>
+ * </ul>
+ * </p>
+ */
+public interface ImageService {
+
+    /**
+     * The directory holding the stored images, served under {@code /images/**}.
+     */
+    Path IMAGES_DIRECTORY = Path.of(System.getProperty("user.dir"), "images");
+
+    /**
+     * Streams an uploaded image to the store without buffering it in memory. The image is registered without any
+     * reference; until one is acquired, the grace period of the sweeper keeps it.
+     * If an identical image is already stored, the upload is discarded and the existing file is reused.
+     *
+     * @param image A {@link MultipartFile} representing the image to store.
+     * @return The path of the stored image, relative to the images directory.
+     * @throws IllegalArgumentException If the image is empty, larger than the configured limit, or not a JPEG or PNG image.
+     * @throws IllegalStateException If too many uploads are already in progress.
+     * @throws RuntimeException If an error occurs while writing the file.
+     */
+    String store(MultipartFile image);
+
+    /**
+     * Records one reference to a stored image, once an article uses it. Joins the current transaction, so the
+     * reference is only kept if the article is saved.
+     *
+     * @param path The path of the image, relative to the images directory; ignored if {@code null}.
+     */
+    void acquire(String path);
+
+    /**
+     * Drops one reference to a stored image, once an article no longer uses it. Joins the current transaction.
+     * Paths that are not part of the store (e.g. older flat file names) are ignored.
+     *
+     * @param path The path of the image, relative to the images directory; ignored if {@code null}.
+     */
+    void release(String path);
+
+    /**
+     * Resolves the file of a stored image from its path, as found in {@code Article.picture} or an {@code /images/**} URL.
+     * Paths escaping the images directory or going through a hidden directory (such as uploads in progress) are refused.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @return The {@link Path} of the image file.
+     * @throws IllegalArgumentException If the image does not exist or the path is not allowed.
+     */
+    Path resolve(String path);
+}
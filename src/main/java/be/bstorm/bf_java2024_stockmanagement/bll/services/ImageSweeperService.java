@@ -0,0 +1,22 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+/**
+ * Interface for the background cleanup of the image store, removing files no active article references anymore:
+ * pictures replaced by a newer upload, and pictures of deleted articles.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #sweep()} - Checks the next chunk of stored images and removes the orphans.</li>
+ * </ul>
+ * </p>
+ */
+public interface ImageSweeperService {
+
+    /**
+     * Checks the next chunk of files of the image store, resuming where the previous call stopped,
+     * and removes the ones that are not referenced by any active article and are older than the grace period.
+     *
+     * @return The number of orphaned images removed.
+     */
+    int sweep();
+}
@@ -0,0 +1,72 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockThresholdCrossedEvent;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interface for the low-stock alerts: the reorder thresholds of the articles, the detection of the movements crossing
+ * them, and the notification of the resulting alerts.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #setThreshold(UUID, Integer)} - Sets or clears the reorder threshold of an article.</li>
+ * <li>{@link #check(UUID, int, int)} - Checks whether a movement made the stock of an article cross its threshold.</li>
+ * <li>{@link #checkAll(Map, List)} - Checks the movements of several articles.</li>
+ * <li>{@link #onThresholdCrossed(StockThresholdCrossedEvent)} - Queues an alert once the crossing movement is committed.</li>
+ * <li>{@link #notifyAlerts()} - Sends the queued alerts.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Stock
+ */
+public interface StockAlertService {
+
+    /**
+     * Sets or clears the reorder threshold of an article. If the stock is already below the new threshold,
+     * an alert is raised right away.
+     *
+     * @param articleId The ID of the article.
+     * @param threshold The quantity below which the article must be reordered, or {@code null} to stop monitoring it.
+     * @throws IllegalArgumentException If the threshold is negative or the article does not exist.
+     */
+    void setThreshold(UUID articleId, Integer threshold);
+
+    /**
+     * Checks whether a movement made the stock of an article drop below its reorder threshold, from the quantity
+     * returned by the statement that applied it. Must be called within the transaction of the movement.
+     *
+     * @param articleId The ID of the article.
+     * @param delta The signed change of the stock caused by the movement.
+     * @param quantity The quantity in stock after the movement.
+     */
+    void check(UUID articleId, int delta, int quantity);
+
+    /**
+     * Checks whether movements made the stock of several articles drop below their reorder thresholds.
+     * Must be called within the transaction of the movements.
+     *
+     * @param deltas The net signed change of the stock of each article.
+     * @param levels The stock level of each article after the movements.
+     */
+    void checkAll(Map<UUID, Integer> deltas, List<StockLevelProjection> levels);
+
+    /**
+     * Queues an alert for an article whose stock dropped below its threshold, once the movement is committed,
+     * unless an alert was already raised for it recently.
+     *
+     * @param event The {@link StockThresholdCrossedEvent} describing the crossing.
+     */
+    void onThresholdCrossed(StockThresholdCrossedEvent event);
+
+    /**
+     * Sends the queued alerts as a single notification.
+     *
+     * @return The number of alerts sent.
+     */
+    int notifyAlerts();
+}
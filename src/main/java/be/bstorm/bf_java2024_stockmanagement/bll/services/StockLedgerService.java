@@ -0,0 +1,38 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.util.UUID;
+
+/**
+ * Interface for the stock ledger, applying single stock movements atomically.
+ * It replaces the {@code InsertStockMovement} stored procedure.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #apply(UUID, StockMovementType, int)} - Records one stock movement and applies it to the stock of its article.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Stock
+ * @see StockMovement
+ */
+public interface StockLedgerService {
+
+    /**
+     * Records one stock movement and applies it to the stock of its article, creating the stock if needed.
+     * Concurrent movements of the same article are serialized by the database, so none of them is lost, and a movement
+     * taking out more than the stock holds is refused rather than taking it below zero.
+     *
+     * @param articleId The ID of the article whose stock moves.
+     * @param movementType The type of the movement, which decides whether it adds to or subtracts from the stock.
+     * @param quantity The quantity of items moved, positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the quantity in stock after the movement,
+     *         or {@link StockWithdrawal.InsufficientStock} if the stock does not hold the quantity taken out.
+     * @throws IllegalArgumentException If the quantity is not positive or the article does not exist.
+     */
+    StockWithdrawal apply(UUID articleId, StockMovementType movementType, int quantity);
+}
@@ -0,0 +1,42 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+
+/**
+ * Interface for the management of the monthly partitions of the {@link StockMovement} table: partitions are created
+ * before their month starts, and partitions past the retention period are detached from the table.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #createPartitions()} - Creates the partitions of the current and next months.</li>
+ * <li>{@link #detachExpiredPartitions()} - Detaches the partitions past the retention period.</li>
+ * <li>{@link #maintainPartitions()} - Creates the upcoming partitions, then detaches the expired ones.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovement
+ */
+public interface StockPartitionService {
+
+    /**
+     * Creates the missing partitions, from the current month to {@code app.stock.partitions.months-ahead} months later.
+     * Does nothing if the movements are not partitioned.
+     *
+     * @return The number of partitions created.
+     */
+    int createPartitions();
+
+    /**
+     * Detaches the partitions whose month ended more than {@code app.stock.partitions.retention} months ago.
+     * The partitions are kept as standalone tables, so they can be archived or dropped later.
+     * Does nothing if the movements are not partitioned, or if the retention is {@code 0}.
+     *
+     * @return The number of partitions detached.
+     */
+    int detachExpiredPartitions();
+
+    /**
+     * Creates the upcoming partitions, then detaches the expired ones.
+     */
+    void maintainPartitions();
+}
@@ -0,0 +1,53 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface for the reconciliation of the {@link Stock} of the articles, a running total, with the sum of their
+ * movements, which is the reference: drifts are reported and can be repaired.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #start(boolean)} - Starts a reconciliation in the background, or resumes the interrupted one.</li>
+ * <li>{@link #findById(UUID)} - Finds a reconciliation run by its ID.</li>
+ * <li>{@link #findDrifts(UUID)} - Finds the drifts found by a run.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockReconciliation
+ */
+public interface StockReconciliationService {
+
+    /**
+     * Starts a reconciliation in the background, or resumes the latest run that did not finish, with its own settings.
+     * If a partition fails, the error is recorded on the run, which stays unfinished so it can be resumed.
+     *
+     * @param repair Whether the drifts found are repaired; ignored when a run is resumed.
+     * @return The run started or resumed.
+     * @throws IllegalStateException If a reconciliation is already running.
+     */
+    StockReconciliation start(boolean repair);
+
+    /**
+     * Finds a reconciliation run by its ID, with its progress.
+     *
+     * @param id The ID of the run.
+     * @return The {@link StockReconciliation}.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    StockReconciliation findById(UUID id);
+
+    /**
+     * Finds the drifts found by a run so far.
+     *
+     * @param id The ID of the run.
+     * @return A list of {@link StockDriftProjection}, ordered by article.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    List<StockDriftProjection> findDrifts(UUID id);
+}
@@ -0,0 +1,54 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDailyRollup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface for the daily rollups of stock movements: totals per article, day and movement type,
+ * used by dashboards instead of grouping the whole movement history.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #findDailyTotals(UUID, LocalDate, LocalDate)} - Totals the movements per day and type over a date range.</li>
+ * <li>{@link #backfill(LocalDate, LocalDate)} - Rebuilds the rollups of past days from the movement history.</li>
+ * <li>{@link #rebuildPreviousDay()} - Rebuilds the rollups of the previous day.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyRollup
+ */
+public interface StockRollupService {
+
+    /**
+     * Totals the movements per day and type over a date range, from the rollups only.
+     *
+     * @param articleId The ID of the article, or {@code null} for all articles.
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return A list of {@link StockDailyTotalProjection}, ordered by day then type; days without movements are absent.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    List<StockDailyTotalProjection> findDailyTotals(UUID articleId, LocalDate from, LocalDate to);
+
+    /**
+     * Rebuilds the rollups of past days from the movement history, one day at a time, replacing existing rollups.
+     * The current day is never rebuilt, as it still receives movements.
+     *
+     * @param from The first day, inclusive, or {@code null} for the day of the oldest movement.
+     * @param to The last day, inclusive, or {@code null} for the previous day; capped at the previous day.
+     * @return The number of rollups written.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    int backfill(LocalDate from, LocalDate to);
+
+    /**
+     * Rebuilds the rollups of the previous day, so that it is complete even if it started before the rollups existed.
+     *
+     * @return The number of rollups written.
+     */
+    int rebuildPreviousDay();
+}
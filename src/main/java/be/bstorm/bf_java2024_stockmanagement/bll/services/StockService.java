@@ -0,0 +1,79 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementFilter;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interface for managing the {@link Stock} of articles and their {@link StockMovement} history.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #recordMovements(List)} - Records a batch of stock movements and applies them to the stocks.</li>
+ * <li>{@link #withdraw(UUID, int)} - Takes a quantity out of the stock of an article, only if it has enough.</li>
+ * <li>{@link #withdrawAll(Map)} - Takes quantities out of the stock of several articles, all or nothing.</li>
+ * <li>{@link #findMovements(StockMovementFilter, CursorUtils.Position, int)} - Retrieves one keyset page of the stock movement history.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Stock
+ * @see StockMovement
+ */
+public interface StockService {
+
+    /**
+     * Records a batch of stock movements and applies their net effect to the stock of each article, in one transaction:
+     * either every movement is recorded, or none is, such as when the batch would take a stock below zero.
+     * In write-behind mode, batches that take nothing out of any stock are buffered and written by a later flush instead.
+     *
+     * @param movements The movements to record, in the order they occurred.
+     * @return {@link StockWithdrawal.Withdrawn} with the stock level of each article concerned, after the movements,
+     *         or {@link StockWithdrawal.InsufficientStock} naming the first article lacking stock.
+     * @throws IllegalArgumentException If a movement refers to an article that does not exist or is deleted.
+     */
+    StockWithdrawal recordMovements(List<StockMovementLine> movements);
+
+    /**
+     * Takes a quantity out of the stock of an article, only if the stock holds at least that quantity, and records
+     * the {@code STOCK_OUT} movement. Concurrent withdrawals never drive the stock below zero.
+     *
+     * @param articleId The ID of the article.
+     * @param quantity The quantity to withdraw, positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the new stock level, or {@link StockWithdrawal.InsufficientStock}.
+     * @throws IllegalArgumentException If the quantity is not positive.
+     */
+    StockWithdrawal withdraw(UUID articleId, int quantity);
+
+    /**
+     * Takes quantities out of the stock of several articles, such as the lines of an order, all or nothing:
+     * if any article does not hold its quantity, no stock is changed. The {@code STOCK_OUT} movements are recorded
+     * on success. Concurrent withdrawals never drive a stock below zero.
+     *
+     * @param quantities The quantity to withdraw by article ID, each positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the new stock levels, or {@link StockWithdrawal.InsufficientStock}
+     *         naming the first article lacking stock.
+     * @throws IllegalArgumentException If the map is empty or a quantity is not positive.
+     */
+    StockWithdrawal withdrawAll(Map<UUID, Integer> quantities);
+
+    /**
+     * Retrieves one page of the stock movement history matching a filter, most recent first,
+     * starting right after the given position.
+     *
+     * @param filter The criteria of the movements.
+     * @param after The position of the last movement of the previous page, or {@code null} for the first page.
+     *              Its key is the movement date in ISO format.
+     * @param size The maximum number of movements to return.
+     * @return A list of {@link StockMovementProjection}, ordered by date then ID, descending.
+     * @throws IllegalArgumentException If the date range is reversed or the position is malformed.
+     */
+    List<StockMovementProjection> findMovements(StockMovementFilter filter, CursorUtils.Position after, int size);
+}
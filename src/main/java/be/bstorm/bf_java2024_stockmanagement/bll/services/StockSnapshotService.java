@@ -0,0 +1,55 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockSnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Interface for the history of the stock: daily {@link StockSnapshot} of every article that moved,
+ * and the stock of articles at any past date, rebuilt from a snapshot and the {@link StockMovement} after it.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #takeSnapshots()} - Writes the snapshots of the current day.</li>
+ * <li>{@link #takeSnapshots(LocalDate)} - Writes the snapshots of a day.</li>
+ * <li>{@link #findLevelsAsOf(Collection, LocalDateTime)} - Computes the stock of articles at a past date.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockSnapshot
+ */
+public interface StockSnapshotService {
+
+    /**
+     * Writes the snapshots of the current day, holding the stock of each article at the start of the day.
+     *
+     * @return The number of snapshots written.
+     */
+    int takeSnapshots();
+
+    /**
+     * Writes the snapshots of a day, for the articles that moved since their previous snapshot.
+     * Snapshots already written for that day are kept.
+     *
+     * @param day The day of the snapshots.
+     * @return The number of snapshots written.
+     */
+    int takeSnapshots(LocalDate day);
+
+    /**
+     * Computes the stock of articles at a date, starting from the latest snapshot taken before that date and replaying
+     * only the movements recorded after it, so the cost does not grow with the length of the history.
+     *
+     * @param articleIds The IDs of the articles, deleted ones included.
+     * @param asOf The date and time at which the stock is wanted, inclusive.
+     * @return The stock level of each article at that date, in the order of the given IDs.
+     * @throws IllegalArgumentException If an article does not exist.
+     */
+    List<StockLevelProjection> findLevelsAsOf(Collection<UUID> articleIds, LocalDateTime asOf);
+}
@@ -0,0 +1,71 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Interface for the optional write-behind buffer of stock movements.
+ * When enabled, movements are accumulated in memory and written to the stocks and their history in periodic batches,
+ * so that a burst of movements on a few hot articles does not serialize on their stock row locks.
+ * Until they are flushed, the buffered movements are added to the persisted quantities served by the API.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #isEnabled()} - Checks whether movements are buffered.</li>
+ * <li>{@link #record(List)} - Buffers a batch of stock movements.</li>
+ * <li>{@link #pendingDelta(UUID)} - Returns the net change of the stock of an article not yet flushed.</li>
+ * <li>{@link #pendingDeltas()} - Returns the net changes of all stocks not yet flushed.</li>
+ * <li>{@link #version()} - Returns a counter changing whenever a movement is buffered.</li>
+ * <li>{@link #flush()} - Writes the buffered movements to the database.</li>
+ * </ul>
+ * </p>
+ */
+public interface StockWriteBehindService {
+
+    /**
+     * Checks whether the write-behind mode is enabled, i.e. whether movements should be buffered by {@link #record(List)}
+     * rather than written right away.
+     *
+     * @return {@code true} if movements are buffered.
+     */
+    boolean isEnabled();
+
+    /**
+     * Buffers a batch of stock movements, to be written by the next flush. The articles must have been checked beforehand.
+     *
+     * @param movements The movements to buffer.
+     */
+    void record(List<StockMovementLine> movements);
+
+    /**
+     * Returns the net change of the stock of an article buffered and not yet flushed, to be added to its persisted
+     * quantity so that clients read their own writes.
+     *
+     * @param articleId The ID of the article.
+     * @return The signed pending change, {@code 0} if nothing is pending.
+     */
+    int pendingDelta(UUID articleId);
+
+    /**
+     * Returns the net changes of all stocks buffered and not yet flushed, to be added to a listing of persisted quantities.
+     *
+     * @return A {@link Map} of the signed pending change by article ID, without the articles with nothing pending.
+     */
+    Map<UUID, Integer> pendingDeltas();
+
+    /**
+     * Returns a counter that changes whenever a movement is buffered, to be mixed into the validators of
+     * conditional requests, since buffered movements do not change any update time in the database.
+     *
+     * @return The number of movements buffered since startup.
+     */
+    long version();
+
+    /**
+     * Writes the buffered movements to the stocks and their history, in one transaction.
+     */
+    void flush();
+}
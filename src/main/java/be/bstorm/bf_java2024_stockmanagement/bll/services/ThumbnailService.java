@@ -0,0 +1,29 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import java.nio.file.Path;
+
+/**
+ * Interface for producing resized variants (thumbnails) of the stored images.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #getVariant(String, int, Integer)} - Returns the file of a resized variant of an image, generating it if needed.</li>
+ * </ul>
+ * </p>
+ */
+public interface ThumbnailService {
+
+    /**
+     * Returns the file of a resized and recompressed variant of a stored image, generating and caching it on first request.
+     * The image is scaled down to fit within the requested box, keeping its aspect ratio; it is never scaled up.
+     * The file returned is kept from cache eviction for a grace period, long enough for the caller to stream it.
+     *
+     * @param path The path of the original image, relative to the images directory.
+     * @param width The maximum width of the variant, in pixels.
+     * @param height The maximum height of the variant, in pixels, or {@code null} to only bound the width.
+     * @return The {@link Path} of the variant file.
+     * @throws IllegalArgumentException If the image does not exist, is not a readable image, or the size is out of range.
+     * @throws IllegalStateException If the resize workers are saturated or the variant is not ready in time.
+     */
+    Path getVariant(String path, int width, Integer height);
+}
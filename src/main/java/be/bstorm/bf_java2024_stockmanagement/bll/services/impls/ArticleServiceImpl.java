@@ -1,31 +1,71 @@
 package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
 
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockChangedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.ArticleBatchResult;
 import be.bstorm.bf_java2024_stockmanagement.bll.services.ArticleService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDesignationProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDetailsProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection;
 import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import be.bstorm.bf_java2024_stockmanagement.il.configs.CacheConfig;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.BloomFilter;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.DesignationUtils;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.List;
-import java.util.UUID;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link ArticleService} interface that provides CRUD operations for {@link Article} entities.
  * This service includes business logic related to articles, such as image storage, validation checks, and retrieval of active articles only.
+ * Designation uniqueness is checked on the normalized designation key, and an in-memory {@link BloomFilter} of all keys
+ * skips the database probe when a designation is definitely new.
+ * Reads go through projection queries, and article details by ID and the pages of active articles are cached (see {@link CacheConfig}); writes and stock changes invalidate them.
  *
  * <p>Methods:
  * <ul>
- * <li>{@link #findAll()} - Retrieves a list of all active articles.</li>
- * <li>{@link #findById(UUID)} - Finds an article by its unique identifier, ensuring it is not marked as deleted.</li>
+ * <li>{@link #forEachActive(Consumer)} - Streams the summary of every active article to a consumer with constant memory.</li>
+ * <li>{@link #findPage(CursorUtils.Position, int)} - Retrieves one keyset page of active article summaries.</li>
+ * <li>{@link #findVersion()} - Returns the cached version of the set of active articles.</li>
+ * <li>{@link #findVersionById(UUID)} - Computes the version of one article with one aggregate query.</li>
+ * <li>{@link #findById(UUID)} - Finds the details of an article by its unique identifier, ensuring it is not marked as deleted.</li>
  * <li>{@link #save(Article, MultipartFile)} - Saves a new article with optional image storage, ensuring a unique designation.</li>
  * <li>{@link #update(Article, MultipartFile)} - Updates an article's details and optionally replaces its image.</li>
+ * <li>{@link #updateImage(UUID, MultipartFile)} - Streams a new image for an article and replaces its picture.</li>
+ * <li>{@link #saveAll(Map)} - Creates or updates a batch of articles through JDBC batching, with per-item results.</li>
+ * <li>{@link #repriceByPercentage(UUID, VAT, BigDecimal)} - Changes the price of matching articles by a percentage in one statement.</li>
+ * <li>{@link #repriceByAmount(UUID, VAT, long)} - Changes the price of matching articles by an amount in one statement.</li>
+ * <li>{@link #reassignVat(UUID, VAT, VAT)} - Reassigns matching articles to another VAT rate in one statement.</li>
  * <li>{@link #delete(UUID)} - Marks an article as deleted by its ID.</li>
- * <li>{@link #saveImage(MultipartFile)} - Stores an image on the server and returns its file name.</li>
+ * <li>{@link #onStockChanged(StockChangedEvent)} - Invalidates the cached articles whose stock changed.</li>
+ * <li>{@link #saveBatchItem(int, Article, Map, Set, Map)} - Creates or updates one article of a batch.</li>
+ * <li>{@link #findDesignationOwners(Collection)} - Maps the designation keys of a batch to the articles already using them.</li>
+ * <li>{@link #designationFilter()} - Returns the Bloom filter of designation keys, building it on first use.</li>
+ * <li>{@link #isDesignationConflict(DataIntegrityViolationException)} - Checks whether a write failed on the uniqueness of the designation.</li>
  * </ul>
  * </p>
  *
@@ -37,37 +77,121 @@ import java.util.UUID;
 public class ArticleServiceImpl implements ArticleService {
 
     private final ArticleRepository articleRepository;
+    private final ImageService imageService;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Retrieves a list of all active articles from the repository.
+     * The maximum number of designations bound to a single uniqueness query, to stay below the driver's parameter limit.
+     */
+    private static final int DESIGNATION_CHUNK_SIZE = 10_000;
+
+    /**
+     * The number of rows sent per JDBC batch; the persistence context is flushed and cleared after each batch.
+     */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int batchSize;
+
+    /**
+     * The minimum number of designation keys the Bloom filter is sized for.
+     */
+    @Value("${app.article.bloom.expected-insertions:1000000}")
+    private long bloomExpectedInsertions;
+
+    /**
+     * The target false positive probability of the Bloom filter.
+     */
+    @Value("${app.article.bloom.false-positive-probability:0.01}")
+    private double bloomFalsePositiveProbability;
+
+    /**
+     * The Bloom filter of the designation keys of all articles, deleted or not; built lazily.
+     */
+    private volatile BloomFilter designationFilter;
+
+    /**
+     * Streams the summary of every active article to the given consumer through a database cursor.
+     * Summaries are not managed by the persistence context, so consumed rows can be garbage collected right away.
      *
-     * @return A {@link List} of active {@link Article} objects.
+     * @param consumer The consumer receiving each {@link ArticleSummaryProjection}.
      */
+    @Transactional
     @Override
-    public List<Article> findAll() {
-        return articleRepository.findAllActive();
+    public void forEachActive(Consumer<ArticleSummaryProjection> consumer) {
+        try (Stream<ArticleSummaryProjection> articles = articleRepository.streamAllActive()) {
+            articles.forEach(consumer);
+        }
     }
 
     /**
-     * Retrieves an article by its unique identifier (UUID).
-     * If the article is marked as deleted, a {@link RuntimeException} is thrown.
+     * Retrieves one page of active article summaries ordered by designation then ID, starting right after the given position.
+     * Uses a keyset query, so each page is a bounded index range scan whatever its depth.
+     * Pages are cached by position and size.
      *
-     * @param id The UUID of the article to retrieve.
-     * @return The {@link Article} if found and active.
-     * @throws RuntimeException If the article is marked as deleted.
+     * @param after The position of the last article of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of articles to return.
+     * @return A {@link List} of at most {@code size} {@link ArticleSummaryProjection}.
      */
     @Override
-    public Article findById(UUID id) {
-        Article article = articleRepository.findById(id).orElseThrow();
-        if (article.isDeleted()) {
-            throw new RuntimeException("Article deleted");
+    @Cacheable(cacheNames = CacheConfig.ACTIVE_ARTICLES)
+    public List<ArticleSummaryProjection> findPage(CursorUtils.Position after, int size) {
+        PageRequest page = PageRequest.ofSize(size);
+        if (after == null) {
+            return articleRepository.findActiveFirstPage(page);
         }
-        return article;
+        return articleRepository.findActivePageAfter(after.key(), after.id(), page);
+    }
+
+    /**
+     * Returns the version of the set of active articles. The aggregate query only runs on a cache miss: the version
+     * is cached next to the pages it describes, in the {@link CacheConfig#ACTIVE_ARTICLES} cache, so every write or
+     * stock change that evicts the pages evicts the version as well, and polling clients do not reach the database.
+     * The cache is transaction-aware, so the version is only evicted once the write has committed: an eviction running
+     * before the commit could let a version read from the data before the write be cached again, answering conditional
+     * requests with {@code 304 Not Modified} until it expires.
+     *
+     * @return The {@link ArticleVersionProjection} of the active articles.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ACTIVE_ARTICLES, key = "'version'")
+    public ArticleVersionProjection findVersion() {
+        return articleRepository.findActiveVersion();
+    }
+
+    /**
+     * Computes the version of one article with one aggregate query, without loading it.
+     *
+     * @param id The UUID of the article.
+     * @return The {@link ArticleVersionProjection} of the article, with a count of {@code 0} if it is not found or deleted.
+     */
+    @Override
+    public ArticleVersionProjection findVersionById(UUID id) {
+        return articleRepository.findVersionById(id);
+    }
+
+    /**
+     * Retrieves the details of an article by its unique identifier (UUID), in a single SQL statement.
+     * If the article does not exist or is marked as deleted, a {@link RuntimeException} is thrown.
+     *
+     * @param id The UUID of the article to retrieve.
+     * @return The {@link ArticleDetailsProjection} of the article if found and active.
+     * @throws RuntimeException If the article does not exist or is marked as deleted.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ARTICLES, key = "#id")
+    public ArticleDetailsProjection findById(UUID id) {
+        return articleRepository.findActiveDetailsById(id)
+                .orElseThrow(() -> new RuntimeException("Article not found"));
     }
 
     /**
-     * Saves a new article entity with a unique identifier. If an image is provided, it is stored on the server.
-     * Validates that the article designation is unique before saving.
+     * Saves a new article entity with a unique identifier. If an image is provided, it is stored on the server first,
+     * then the article is saved and a reference to its picture acquired in the same transaction.
+     * Validates that the article designation key is unique before saving; the database is only probed when the
+     * Bloom filter reports the key as possibly present. The filter only knows the keys of this instance, and the check
+     * races with concurrent inserts, so the unique constraints are the final say: the article is flushed within the
+     * transaction, and a violation of them is reported like the check.
      *
      * @param article The {@link Article} entity to save.
      * @param image A {@link MultipartFile} representing the article's image (optional).
@@ -75,76 +199,359 @@ public class ArticleServiceImpl implements ArticleService {
      * @throws IllegalArgumentException If an article with the same designation already exists.
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ACTIVE_ARTICLES, allEntries = true)
     public Article save(Article article, MultipartFile image) {
-        if (articleRepository.existsByDesignation(article.getDesignation())) {
+        String designationKey = DesignationUtils.toKey(article.getDesignation());
+        if (designationFilter().mightContain(designationKey) && articleRepository.existsByDesignationKey(designationKey)) {
             throw new IllegalArgumentException("Designation already exists");
         }
         article.setId(UUID.randomUUID());
 
         if (image != null && !image.isEmpty()) {
-            article.setPicture(saveImage(image));
+            article.setPicture(imageService.store(image));
+        }
+        Article savedArticle;
+        try {
+            savedArticle = transactionTemplate.execute(status -> {
+                imageService.acquire(article.getPicture());
+                return articleRepository.saveAndFlush(article);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw isDesignationConflict(e) ? new IllegalArgumentException("Designation already exists", e) : e;
         }
-        return articleRepository.save(article);
+        designationFilter().put(designationKey);
+        return savedArticle;
     }
 
     /**
-     * Updates an existing article entity with new values. If an image is provided, it replaces the existing one.
-     * Validates that no other article with the same designation exists before updating.
+     * Updates an existing article entity with new values. If an image is provided, it replaces the existing one:
+     * the image is stored first, then the reference to the new picture is acquired and the one to the previous picture
+     * released in the transaction saving the article.
+     * Validates that no other article with the same designation key exists before updating; as in
+     * {@link #save(Article, MultipartFile)}, a concurrent update to the same designation is caught by the unique
+     * constraints when the article is flushed.
      *
      * @param article The {@link Article} entity with updated values.
      * @param image A {@link MultipartFile} representing the new article's image (optional).
      * @throws IllegalArgumentException If another article with the same designation already exists.
      */
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ARTICLES, key = "#article.id"),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_ARTICLES, allEntries = true)
+    })
     public void update(Article article, MultipartFile image) {
-        Article existingArticle = articleRepository.findById(article.getId()).orElseThrow();
+        if (!articleRepository.existsById(article.getId())) {
+            throw new NoSuchElementException("Article does not exist");
+        }
 
-        if (articleRepository.existsInOtherArticleByDesignation(article.getId(), article.getDesignation())) {
+        String designationKey = DesignationUtils.toKey(article.getDesignation());
+        if (designationFilter().mightContain(designationKey)
+                && articleRepository.existsByDesignationKeyAndIdNot(designationKey, article.getId())) {
             throw new IllegalArgumentException("Designation already exists");
         }
 
-        existingArticle.setDesignation(article.getDesignation());
-        existingArticle.setUnitPriceExcludingTax(article.getUnitPriceExcludingTax());
-        existingArticle.setVat(article.getVat());
-        existingArticle.setCategory(article.getCategory());
+        String imagePath = image != null && !image.isEmpty() ? imageService.store(image) : null;
 
-        if (image != null && !image.isEmpty()) {
-            existingArticle.setPicture(saveImage(image));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Article existingArticle = articleRepository.findById(article.getId()).orElseThrow();
+                existingArticle.setDesignation(article.getDesignation());
+                existingArticle.setUnitPriceExcludingTax(article.getUnitPriceExcludingTax());
+                existingArticle.setVat(article.getVat());
+                existingArticle.setCategory(article.getCategory());
+                if (imagePath != null) {
+                    imageService.release(existingArticle.getPicture());
+                    imageService.acquire(imagePath);
+                    existingArticle.setPicture(imagePath);
+                }
+                articleRepository.saveAndFlush(existingArticle);
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw isDesignationConflict(e) ? new IllegalArgumentException("Designation already exists", e) : e;
         }
+        designationFilter().put(designationKey);
+    }
 
-        articleRepository.save(existingArticle);
+    /**
+     * Replaces the picture of an active article with a new image, streamed to the content-addressed store by the
+     * {@link ImageService}; the reference to the new picture is acquired and the one to the previous picture released
+     * in the transaction saving the article.
+     * The article must be active; it is checked before the upload is written and again in that transaction, and no
+     * transaction is held while the file is copied.
+     *
+     * @param id The UUID of the article.
+     * @param image A {@link MultipartFile} representing the new image.
+     * @return The path of the stored image.
+     * @throws IllegalArgumentException If the article does not exist or is deleted, or the image is empty or too large.
+     * @throws IllegalStateException If too many uploads are already in progress.
+     */
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ARTICLES, key = "#id")
+    public String updateImage(UUID id, MultipartFile image) {
+        if (articleRepository.findActiveById(id).isEmpty()) {
+            throw new IllegalArgumentException("Article does not exist");
+        }
+
+        String imagePath = imageService.store(image);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Article existingArticle = articleRepository.findActiveById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Article does not exist"));
+            imageService.release(existingArticle.getPicture());
+            imageService.acquire(imagePath);
+            existingArticle.setPicture(imagePath);
+            articleRepository.save(existingArticle);
+        });
+        return imagePath;
     }
 
     /**
-     * Marks an article as deleted by its ID.
+     * Creates or updates a batch of articles in a single transaction.
+     * All designations are checked against the database up front with set-based queries, and existing active articles are loaded
+     * one batch at a time. New articles are persisted directly (their ID is assigned here, so no merge select is needed),
+     * and the persistence context is flushed and cleared every {@code batchSize} articles so that Hibernate sends
+     * the inserts and updates as JDBC batches while memory use stays bounded.
+     *
+     * @param articles The articles to save, keyed by their position in the submitted batch.
+     * @return A {@link List} of {@link ArticleBatchResult}, one per article, in batch order.
+     */
+    @Transactional
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ARTICLES, CacheConfig.ACTIVE_ARTICLES}, allEntries = true)
+    public List<ArticleBatchResult> saveAll(Map<Integer, Article> articles) {
+        Map<String, UUID> designationOwners = findDesignationOwners(articles.values());
+        Set<String> batchDesignations = new HashSet<>();
+        List<ArticleBatchResult> results = new ArrayList<>(articles.size());
+
+        List<Map.Entry<Integer, Article>> entries = new ArrayList<>(articles.entrySet());
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Integer, Article>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            List<UUID> ids = batch.stream()
+                    .map(entry -> entry.getValue().getId())
+                    .filter(Objects::nonNull)
+                    .toList();
+            Map<UUID, Article> existingArticles = ids.isEmpty()
+                    ? Map.of()
+                    : articleRepository.findAllActiveWithDetailsByIdIn(ids).stream()
+                            .collect(Collectors.toMap(Article::getId, Function.identity()));
+
+            for (Map.Entry<Integer, Article> entry : batch) {
+                results.add(saveBatchItem(entry.getKey(), entry.getValue(), designationOwners, batchDesignations, existingArticles));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return results;
+    }
+
+    /**
+     * Changes the unit price excluding tax of every active article matching the filter by a percentage, in a single
+     * {@code UPDATE}. The new price is rounded half up to the cent and never goes below zero.
+     * Every cached article is evicted, since any of them may have changed.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param percentage The percentage to apply (e.g. {@code 5} for +5%, {@code -10} for -10%).
+     * @return The number of articles repriced.
+     */
+    @Transactional
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ARTICLES, CacheConfig.ACTIVE_ARTICLES}, allEntries = true)
+    public int repriceByPercentage(UUID categoryId, VAT vat, BigDecimal percentage) {
+        return articleRepository.repriceByFactor(categoryId, vat, BigDecimal.ONE.add(percentage.movePointLeft(2)));
+    }
+
+    /**
+     * Adds an amount to the unit price excluding tax of every active article matching the filter, in a single
+     * {@code UPDATE}. The new price never goes below zero.
+     * Every cached article is evicted, since any of them may have changed.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param amount The amount to add in cents, possibly negative.
+     * @return The number of articles repriced.
+     */
+    @Transactional
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ARTICLES, CacheConfig.ACTIVE_ARTICLES}, allEntries = true)
+    public int repriceByAmount(UUID categoryId, VAT vat, long amount) {
+        return articleRepository.repriceByAmount(categoryId, vat, amount);
+    }
+
+    /**
+     * Reassigns every active article matching the filter to another VAT rate, in a single {@code UPDATE}.
+     * Every cached article is evicted, since any of them may have changed.
+     *
+     * @param categoryId The category of the articles to change, or {@code null} for all categories.
+     * @param vat The current VAT rate of the articles to change, or {@code null} for all rates.
+     * @param newVat The VAT rate to assign.
+     * @return The number of articles changed.
+     */
+    @Transactional
+    @Override
+    @CacheEvict(cacheNames = {CacheConfig.ARTICLES, CacheConfig.ACTIVE_ARTICLES}, allEntries = true)
+    public int reassignVat(UUID categoryId, VAT vat, VAT newVat) {
+        return articleRepository.reassignVat(categoryId, vat, newVat);
+    }
+
+    /**
+     * Marks an article as deleted by its ID, and releases the reference to its picture in the same transaction.
      *
      * @param id The UUID of the article to delete.
      * @throws IllegalArgumentException If the article does not exist.
      */
     @Transactional
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.ARTICLES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.ACTIVE_ARTICLES, allEntries = true)
+    })
     public void delete(UUID id) {
         if (!articleRepository.existsById(id)) {
             throw new IllegalArgumentException("Article does not exist");
         }
+        articleRepository.findActiveById(id).ifPresent(article -> imageService.release(article.getPicture()));
         articleRepository.deleteById(id);
     }
 
     /**
-     * Stores the provided image on the server and returns the image name for future retrieval.
+     * Invalidates the cached articles whose stock changed, once the change has been committed.
+     * The cached pages of active articles are cleared as well, since they carry the stock quantities.
      *
-     * @param image A {@link MultipartFile} representing the image to be saved.
-     * @return The saved image name as a {@link String}.
-     * @throws RuntimeException If an error occurs during the file save operation.
+     * @param event The {@link StockChangedEvent} listing the affected articles.
      */
-    private String saveImage(MultipartFile image) {
-        String imageName = UUID.randomUUID() + "_" + image.getOriginalFilename();
-        Path imagePath = Path.of(System.getProperty("user.dir"), "images", imageName);
-        try {
-            Files.write(imagePath, image.getBytes());
-            return imageName;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        Cache articles = cacheManager.getCache(CacheConfig.ARTICLES);
+        if (articles != null) {
+            event.articleIds().forEach(articles::evict);
+        }
+        Cache activeArticles = cacheManager.getCache(CacheConfig.ACTIVE_ARTICLES);
+        if (activeArticles != null) {
+            activeArticles.clear();
+        }
+    }
+
+    /**
+     * Creates or updates one article of a batch, without flushing.
+     *
+     * @param index The position of the article in the submitted batch.
+     * @param article The article to save; created if it has no ID, updated otherwise.
+     * @param designationOwners The IDs of the articles already using each designation key of the batch.
+     * @param batchDesignations The designation keys already claimed by previous articles of the batch.
+     * @param existingArticles The active articles targeted by the current JDBC batch, by ID; deleted articles are absent.
+     * @return The {@link ArticleBatchResult} of the article.
+     */
+    private ArticleBatchResult saveBatchItem(
+            int index,
+            Article article,
+            Map<String, UUID> designationOwners,
+            Set<String> batchDesignations,
+            Map<UUID, Article> existingArticles
+    ) {
+        Article existingArticle = null;
+        if (article.getId() != null) {
+            existingArticle = existingArticles.get(article.getId());
+            if (existingArticle == null) {
+                return ArticleBatchResult.rejected(index, "Article does not exist");
+            }
+        }
+
+        String designationKey = DesignationUtils.toKey(article.getDesignation());
+        UUID owner = designationOwners.get(designationKey);
+        if (owner != null && !owner.equals(article.getId())) {
+            return ArticleBatchResult.rejected(index, "Designation already exists");
+        }
+        if (!batchDesignations.add(designationKey)) {
+            return ArticleBatchResult.rejected(index, "Designation duplicated in batch");
+        }
+        designationFilter().put(designationKey);
+
+        if (existingArticle == null) {
+            article.setId(UUID.randomUUID());
+            entityManager.persist(article);
+            return ArticleBatchResult.created(index, article.getId());
+        }
+
+        existingArticle.setDesignation(article.getDesignation());
+        existingArticle.setUnitPriceExcludingTax(article.getUnitPriceExcludingTax());
+        existingArticle.setVat(article.getVat());
+        existingArticle.setCategory(article.getCategory());
+        return ArticleBatchResult.updated(index, existingArticle.getId());
+    }
+
+    /**
+     * Maps the designation keys of the given articles to the IDs of the articles already using them.
+     * Keys the Bloom filter reports as definitely absent are not sent to the database; the others are checked
+     * with one set-based query per {@value #DESIGNATION_CHUNK_SIZE} keys.
+     *
+     * @param articles The articles whose designations to check.
+     * @return A {@link Map} from designation key to the ID of the article owning it.
+     */
+    private Map<String, UUID> findDesignationOwners(Collection<Article> articles) {
+        BloomFilter filter = designationFilter();
+        List<String> designationKeys = articles.stream()
+                .map(article -> DesignationUtils.toKey(article.getDesignation()))
+                .filter(filter::mightContain)
+                .distinct()
+                .toList();
+
+        Map<String, UUID> owners = new HashMap<>();
+        for (int from = 0; from < designationKeys.size(); from += DESIGNATION_CHUNK_SIZE) {
+            List<String> chunk = designationKeys.subList(from, Math.min(from + DESIGNATION_CHUNK_SIZE, designationKeys.size()));
+            for (ArticleDesignationProjection p : articleRepository.findAllByDesignationKeyIn(chunk)) {
+                owners.put(p.designationKey(), p.id());
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Returns the Bloom filter of the designation keys of all articles, building it from the database on first use,
+     * and rebuilding it with a larger size once it holds more keys than it was sized for.
+     * Keys are only ever added, and deleted articles keep their key, so the filter never gives a false "absent" answer
+     * for this instance; a key inserted by another instance is still caught by the unique index.
+     *
+     * @return The current {@link BloomFilter} of designation keys.
+     */
+    private BloomFilter designationFilter() {
+        BloomFilter filter = designationFilter;
+        if (filter == null || filter.isSaturated()) {
+            synchronized (this) {
+                filter = designationFilter;
+                if (filter == null || filter.isSaturated()) {
+                    filter = transactionTemplate.execute(status -> {
+                        BloomFilter built = new BloomFilter(
+                                Math.max(bloomExpectedInsertions, articleRepository.count() * 2),
+                                bloomFalsePositiveProbability
+                        );
+                        try (Stream<String> keys = articleRepository.streamAllDesignationKeys()) {
+                            keys.forEach(built::put);
+                        }
+                        return built;
+                    });
+                    designationFilter = filter;
+                }
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * Checks whether a write failed on one of the unique constraints of the designation, rather than on another
+     * constraint such as the foreign key to the category.
+     *
+     * @param e The exception thrown by the write.
+     * @return {@code true} if the violated constraint is {@link Article#DESIGNATION_UNIQUE} or {@link Article#DESIGNATION_KEY_UNIQUE}.
+     */
+    private static boolean isDesignationConflict(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String name = violation.getConstraintName();
+                return name.equalsIgnoreCase(Article.DESIGNATION_UNIQUE) || name.equalsIgnoreCase(Article.DESIGNATION_KEY_UNIQUE);
+            }
         }
+        return false;
     }
 }
@@ -6,6 +6,7 @@ import be.bstorm.bf_java2024_stockmanagement.dl.entities.Category;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,6 +18,7 @@ import java.util.UUID;
  * <ul>
  * <li>{@link #findAll()} - Retrieves a list of all categories.</li>
  * <li>{@link #findById(UUID)} - Finds a category by its unique identifier (UUID).</li>
+ * <li>{@link #findAllById(Collection)} - Finds the categories matching a set of identifiers in one query.</li>
  * </ul>
  * </p>
  *
@@ -50,4 +52,16 @@ public class CategoryServiceImpl implements CategoryService {
     public Category findById(UUID id) {
         return categoryRepository.findById(id).orElseThrow();
     }
+
+    /**
+     * Finds all categories matching the given identifiers in a single query.
+     * Identifiers that match no category are ignored.
+     *
+     * @param ids The UUIDs of the categories to retrieve.
+     * @return A {@link List} of the {@link Category} objects found.
+     */
+    @Override
+    public List<Category> findAllById(Collection<UUID> ids) {
+        return categoryRepository.findAllById(ids);
+    }
 }
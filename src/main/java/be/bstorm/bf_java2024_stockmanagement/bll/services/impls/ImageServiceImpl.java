@@ -0,0 +1,223 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StoredImageRepository;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.ImageSniffer;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.ImageSniffer.ImageHeader;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of the {@link ImageService} interface that keeps images in a content-addressed store on the local file system.
+ * Each image is named after the SHA-256 hash of its content, computed while the upload streams to a temporary file,
+ * and stored under a two-level fan-out such as {@code ab/cd/abcd....jpg}, so no directory grows too large.
+ * Identical uploads resolve to the same file, which is written once and registered in {@code stored_image}, where
+ * the articles using it are counted.
+ * Files are moved into place atomically, so a partially written image is never served, and the number of uploads
+ * written at the same time is bounded. The format, and so the extension of the stored file, is read from the header
+ * of the content rather than from the client's file name, and the size limit is enforced while the upload streams.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #init()} - Creates the temporary upload directory and the upload permits.</li>
+ * <li>{@link #store(MultipartFile)} - Streams an uploaded image to the store and returns its path.</li>
+ * <li>{@link #acquire(String)} - Records one reference to a stored image.</li>
+ * <li>{@link #release(String)} - Drops one reference to a stored image.</li>
+ * <li>{@link #resolve(String)} - Resolves the file of a stored image, refusing paths outside the store.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ImageService
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageServiceImpl implements ImageService {
+
+    private final StoredImageRepository storedImageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The directory receiving uploads in progress; on the same file system as the images so the final move is atomic.
+     */
+    private static final Path TEMP_DIRECTORY = IMAGES_DIRECTORY.resolve(".tmp");
+
+    /**
+     * The largest image accepted, shared with the multipart limit of the servlet container.
+     */
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    /**
+     * The maximum number of uploads written to disk at the same time.
+     */
+    @Value("${app.images.max-concurrent-uploads:4}")
+    private int maxConcurrentUploads;
+
+    /**
+     * How long an upload waits for a free slot before being refused.
+     */
+    @Value("${app.images.upload-wait:5s}")
+    private Duration uploadWait;
+
+    private Semaphore uploads;
+
+    /**
+     * Creates the temporary upload directory and the permits bounding concurrent uploads.
+     *
+     * @throws IOException If the directory cannot be created.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(TEMP_DIRECTORY);
+        uploads = new Semaphore(maxConcurrentUploads, true);
+    }
+
+    /**
+     * Streams an uploaded image to a temporary file through a {@link DigestInputStream}, so the SHA-256 hash is computed
+     * in the same pass and the file is never held in memory. The format is first sniffed from the header, and the copy
+     * fails as soon as it goes past the size limit. The image is then registered without any reference, which locks
+     * its {@code stored_image} row, and while the lock is held the file is atomically moved to its content address,
+     * or discarded if an identical image is already stored. The sweeper takes the same lock before removing a file,
+     * so a file being reused is never removed under the upload.
+     *
+     * @param image A {@link MultipartFile} representing the image to store.
+     * @return The path of the stored image, relative to the images directory, e.g. {@code ab/cd/abcd....jpg}.
+     * @throws IllegalArgumentException If the image is empty, larger than the configured limit, or not a JPEG or PNG image.
+     * @throws IllegalStateException If no upload slot frees up in time.
+     * @throws RuntimeException If an error occurs while writing the file.
+     */
+    @Override
+    public String store(MultipartFile image) {
+        if (image.isEmpty()) {
+            throw new IllegalArgumentException("Image is empty");
+        }
+        if (image.getSize() > maxFileSize.toBytes()) {
+            throw new IllegalArgumentException("Image exceeds " + maxFileSize);
+        }
+        ImageHeader header;
+        try (InputStream in = new BufferedInputStream(image.getInputStream())) {
+            header = ImageSniffer.sniff(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (header == null) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+
+        try {
+            if (!uploads.tryAcquire(uploadWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Too many concurrent uploads");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upload slot", e);
+        }
+
+        Path tempFile = TEMP_DIRECTORY.resolve(UUID.randomUUID() + ".part");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(ImageSniffer.limit(image.getInputStream(), maxFileSize.toBytes()), digest)) {
+                size = Files.copy(in, tempFile);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String imagePath = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + header.extension();
+            Path target = IMAGES_DIRECTORY.resolve(imagePath);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Restarts the grace period of a reused file, and holds the row until the file is in place
+                storedImageRepository.register(imagePath, size);
+                if (!Files.exists(target)) {
+                    try {
+                        Files.createDirectories(target.getParent());
+                        // Identical content under the same name, so a concurrent move of the same image is harmless
+                        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            return imagePath;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // Leftovers in the temporary directory are harmless
+            }
+            uploads.release();
+        }
+    }
+
+    /**
+     * Records one reference to a stored image, in the current transaction if there is one.
+     *
+     * @param path The path of the image, relative to the images directory; ignored if {@code null}.
+     */
+    @Override
+    public void acquire(String path) {
+        if (path != null) {
+            storedImageRepository.acquire(path);
+        }
+    }
+
+    /**
+     * Drops one reference to a stored image, in the current transaction if there is one.
+     * The file itself is kept; unreferenced files are left to the
+     * {@link be.bstorm.bf_java2024_stockmanagement.bll.services.ImageSweeperService}.
+     *
+     * @param path The path of the image, relative to the images directory; ignored if {@code null}.
+     */
+    @Override
+    public void release(String path) {
+        if (path != null) {
+            storedImageRepository.release(path);
+        }
+    }
+
+    /**
+     * Resolves the file of a stored image from its path. The path is normalized, then refused if it escapes the images
+     * directory, goes through a hidden directory (such as {@code .tmp}), or does not denote a regular file.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @return The {@link Path} of the image file.
+     * @throws IllegalArgumentException If the image does not exist or the path is not allowed.
+     */
+    @Override
+    public Path resolve(String path) {
+        Path file = IMAGES_DIRECTORY.resolve(path).normalize();
+        if (!file.startsWith(IMAGES_DIRECTORY) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Image does not exist");
+        }
+        for (Path name : IMAGES_DIRECTORY.relativize(file)) {
+            if (name.toString().startsWith(".")) {
+                throw new IllegalArgumentException("Image does not exist");
+            }
+        }
+        return file;
+    }
+}
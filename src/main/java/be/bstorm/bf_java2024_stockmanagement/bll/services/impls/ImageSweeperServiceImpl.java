@@ -0,0 +1,264 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageSweeperService;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StoredImageRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StoredImage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService.IMAGES_DIRECTORY;
+
+/**
+ * Implementation of the {@link ImageSweeperService} interface, run periodically by the scheduler.
+ * The image store is walked in name order, one chunk of files per run, resuming after the last file checked, so a run
+ * never lists the whole store. The {@code stored_image} rows of a chunk are loaded with one query: a file whose row
+ * counts no reference and was last updated before the grace period is moved to a quarantine directory (or deleted)
+ * and forgotten. The row is deleted first, on the condition that it is still unreferenced, and the file moved before
+ * the deletion commits: an upload reusing the image locks the same row, so it either restarts the grace period before
+ * the sweeper gets there, or waits and writes the file again. Files without a row, written before images were reference counted, are checked against the pictures
+ * of active articles instead. Runs pause between files, so the sweeper does not compete with request I/O.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #sweep()} - Checks the next chunk of stored images and removes the orphans.</li>
+ * <li>{@link #collect(Path, int, Path, List)} - Lists the next files of the store after the cursor, in name order.</li>
+ * <li>{@link #isOrphan(Path, String, StoredImage, Instant)} - Checks whether a file is unreferenced and past its grace period.</li>
+ * <li>{@link #remove(Path, String, boolean, Instant)} - Forgets an orphaned image and removes its file, under the lock of its row.</li>
+ * <li>{@link #discard(Path, String)} - Moves a file to the quarantine directory, or deletes it.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ImageSweeperService
+ */
+@Service
+@RequiredArgsConstructor
+public class ImageSweeperServiceImpl implements ImageSweeperService {
+
+    private final ArticleRepository articleRepository;
+    private final StoredImageRepository storedImageRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The directory receiving quarantined images, keeping their path so they can be moved back by hand.
+     * Hidden, so it is neither served nor swept.
+     */
+    private static final Path QUARANTINE_DIRECTORY = IMAGES_DIRECTORY.resolve(".trash");
+
+    /**
+     * The maximum number of files checked per run.
+     */
+    @Value("${app.images.sweeper.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * How long an image is kept after its last upload or release, so uploads not yet assigned to an article are never removed.
+     */
+    @Value("${app.images.sweeper.grace-period:24h}")
+    private Duration gracePeriod;
+
+    /**
+     * Whether orphans are moved to the quarantine directory rather than deleted.
+     */
+    @Value("${app.images.sweeper.quarantine:true}")
+    private boolean quarantine;
+
+    /**
+     * The pause between two orphans removed, throttling the I/O of a run.
+     */
+    @Value("${app.images.sweeper.pause:10ms}")
+    private Duration pause;
+
+    /**
+     * The path of the last file checked, relative to the images directory, or {@code null} to start a new pass.
+     */
+    private Path cursor;
+
+    /**
+     * Checks the next chunk of files of the image store against their reference counts and removes the orphans.
+     * A pass over the whole store ends when a chunk comes back short; the next run starts a new pass.
+     *
+     * @return The number of orphaned images removed.
+     * @throws UncheckedIOException If the store cannot be listed.
+     */
+    @Override
+    @Scheduled(
+            initialDelayString = "${app.images.sweeper.interval:10m}",
+            fixedDelayString = "${app.images.sweeper.interval:10m}"
+    )
+    public synchronized int sweep() {
+        if (!Files.isDirectory(IMAGES_DIRECTORY)) {
+            return 0;
+        }
+        List<Path> files = new ArrayList<>(chunkSize);
+        try {
+            collect(IMAGES_DIRECTORY, 0, cursor, files);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cursor = files.size() < chunkSize ? null : IMAGES_DIRECTORY.relativize(files.get(files.size() - 1));
+
+        List<String> paths = files.stream()
+                .map(file -> IMAGES_DIRECTORY.relativize(file).toString().replace(File.separatorChar, '/'))
+                .toList();
+        Map<String, StoredImage> images = paths.isEmpty()
+                ? Map.of()
+                : storedImageRepository.findAllByPathIn(paths).stream()
+                        .collect(Collectors.toMap(StoredImage::getPath, Function.identity()));
+
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int removed = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String path = paths.get(i);
+            StoredImage image = images.get(path);
+            if (!isOrphan(file, path, image, cutoff) || !remove(file, path, image != null, cutoff)) {
+                continue;
+            }
+            removed++;
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Lists the files of a directory of the store in name order, depth first, skipping hidden entries (uploads in
+     * progress, quarantine) and everything up to the cursor, until the chunk is full. Directories entirely before
+     * the cursor are not opened.
+     *
+     * @param directory The directory to list.
+     * @param depth The depth of the directory below the images directory, {@code 0} for the images directory itself.
+     * @param bound The cursor if the directory is one of its ancestors, {@code null} if the whole directory is after it.
+     * @param files The files collected so far, appended to.
+     * @throws IOException If a directory cannot be listed.
+     */
+    private void collect(Path directory, int depth, Path bound, List<Path> files) throws IOException {
+        List<Path> children;
+        try (Stream<Path> stream = Files.list(directory)) {
+            children = stream
+                    .filter(child -> !child.getFileName().toString().startsWith("."))
+                    .sorted(Comparator.comparing(child -> child.getFileName().toString()))
+                    .toList();
+        }
+        String boundName = bound != null && bound.getNameCount() > depth ? bound.getName(depth).toString() : null;
+        for (Path child : children) {
+            if (files.size() >= chunkSize) {
+                return;
+            }
+            int comparison = boundName == null ? 1 : child.getFileName().toString().compareTo(boundName);
+            if (comparison < 0) {
+                continue;
+            }
+            if (Files.isDirectory(child)) {
+                collect(child, depth + 1, comparison == 0 ? bound : null, files);
+            } else if (comparison > 0 && Files.isRegularFile(child)) {
+                files.add(child);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a file is an orphan. A file with a {@code stored_image} row is one if no article references it
+     * and the row was last updated before the cutoff. A file without a row, stored before images were reference
+     * counted, is one if it was last written before the cutoff and no active article has it as picture.
+     *
+     * @param file The file to check.
+     * @param path The path of the file, relative to the images directory, as stored in {@code Article.picture}.
+     * @param image The {@code stored_image} row of the file, or {@code null} if it has none.
+     * @param cutoff The instant before which an image is past its grace period.
+     * @return {@code true} if the file can be removed.
+     */
+    private boolean isOrphan(Path file, String path, StoredImage image, Instant cutoff) {
+        if (image != null) {
+            return image.getReferenceCount() == 0
+                    && image.getUpdatedAt().isBefore(LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault()));
+        }
+        try {
+            if (!Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return !articleRepository.existsActiveByPicture(path);
+    }
+
+    /**
+     * Removes an orphaned image. A registered image is forgotten with a conditional delete, which locks its row and
+     * checks again that it is unreferenced and past the cutoff; only then is the file removed, in the same transaction,
+     * which is rolled back if the file cannot be. An image without a row only has its file removed.
+     *
+     * @param file The file of the image.
+     * @param path The path of the image, relative to the images directory.
+     * @param registered Whether the image has a {@code stored_image} row.
+     * @param cutoff The instant before which an image is past its grace period.
+     * @return {@code true} if the image was removed; {@code false} if it was referenced or uploaded again in the
+     *         meantime, or if the file could not be removed, in which case it is retried on the next pass.
+     */
+    private boolean remove(Path file, String path, boolean registered, Instant cutoff) {
+        try {
+            if (!registered) {
+                discard(file, path);
+                return true;
+            }
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                LocalDateTime registeredBefore = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+                if (storedImageRepository.deleteUnreferenced(path, registeredBefore) == 0) {
+                    return false;
+                }
+                try {
+                    discard(file, path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            }));
+        } catch (IOException | UncheckedIOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Moves a file to the quarantine directory, keeping its path, or deletes it if quarantine is disabled.
+     *
+     * @param file The file to remove.
+     * @param path The path of the file, relative to the images directory.
+     * @throws IOException If the file cannot be moved or deleted.
+     */
+    private void discard(Path file, String path) throws IOException {
+        if (quarantine) {
+            Path target = QUARANTINE_DIRECTORY.resolve(path);
+            Files.createDirectories(target.getParent());
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockThresholdCrossedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockAlert;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockAlertService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.MailerUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the {@link StockAlertService} interface.
+ * The thresholds of the monitored articles are kept in memory, loaded at startup and updated when set, so checking
+ * a movement is a map lookup and never queries the database: the statements applying movements already return the new
+ * quantity, and a crossing is a previous quantity at or above the threshold followed by a new one below it.
+ * Crossings are published as {@link StockThresholdCrossedEvent} and only queued once the movement commits.
+ * Alerts are de-duplicated per article: after an alert, the article is disarmed until its stock climbs back to the
+ * threshold plus a hysteresis margin, and it never raises two alerts within the cooldown, so a stock flapping around
+ * its threshold is reported once. The queue is bounded and drained periodically into one email.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #init()} - Creates the alert queue and loads the thresholds.</li>
+ * <li>{@link #setThreshold(UUID, Integer)} - Sets or clears the reorder threshold of an article.</li>
+ * <li>{@link #check(UUID, int, int)} - Checks whether a movement made the stock of an article cross its threshold.</li>
+ * <li>{@link #checkAll(Map, List)} - Checks the movements of several articles.</li>
+ * <li>{@link #onThresholdCrossed(StockThresholdCrossedEvent)} - Queues an alert once the crossing movement is committed.</li>
+ * <li>{@link #notifyAlerts()} - Sends the queued alerts.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockAlertService
+ * @see MailerUtils
+ */
+@Service
+@RequiredArgsConstructor
+public class StockAlertServiceImpl implements StockAlertService {
+
+    private final StockRepository stockRepository;
+    private final ArticleRepository articleRepository;
+    private final MailerUtils mailerUtils;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The email addresses receiving the alerts; alerts are discarded when empty.
+     */
+    @Value("${app.stock.alerts.recipients:}")
+    private String[] recipients;
+
+    /**
+     * How far above its threshold the stock of an article must climb before a new alert can be raised for it.
+     */
+    @Value("${app.stock.alerts.hysteresis:1}")
+    private int hysteresis;
+
+    /**
+     * The minimum time between two alerts for the same article.
+     */
+    @Value("${app.stock.alerts.cooldown:1h}")
+    private Duration cooldown;
+
+    /**
+     * The maximum number of alerts waiting to be sent; further alerts are dropped until the queue is drained.
+     */
+    @Value("${app.stock.alerts.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * The reorder threshold of each monitored article.
+     */
+    private final Map<UUID, Integer> thresholds = new ConcurrentHashMap<>();
+
+    /**
+     * The alert state of each article that raised an alert.
+     */
+    private final Map<UUID, AlertState> states = new ConcurrentHashMap<>();
+
+    /**
+     * The alerts waiting to be sent.
+     */
+    private BlockingQueue<StockAlert> queue;
+
+    /**
+     * Creates the alert queue and loads the thresholds of the monitored articles.
+     */
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        stockRepository.findAllThresholds().forEach(t -> thresholds.put(t.articleId(), t.threshold()));
+    }
+
+    /**
+     * Sets or clears the reorder threshold of an article, in the database then in memory, and resets its alert state.
+     * If the stock is already below the new threshold, an alert is raised right away.
+     *
+     * @param articleId The ID of the article.
+     * @param threshold The quantity below which the article must be reordered, or {@code null} to stop monitoring it.
+     * @throws IllegalArgumentException If the threshold is negative or the article does not exist.
+     */
+    @Override
+    public void setThreshold(UUID articleId, Integer threshold) {
+        if (threshold != null && threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        int quantity;
+        try {
+            quantity = stockRepository.upsertThreshold(articleId, threshold);
+        } catch (DataIntegrityViolationException e) {
+            // Only the foreign key to the article can fail, the conflict on article_id being handled by the upsert
+            throw new IllegalArgumentException("Article does not exist: " + articleId, e);
+        }
+
+        states.remove(articleId);
+        if (threshold == null) {
+            thresholds.remove(articleId);
+            return;
+        }
+        thresholds.put(articleId, threshold);
+        if (quantity < threshold) {
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(articleId, threshold, quantity));
+        }
+    }
+
+    /**
+     * Checks whether a movement made the stock of an article drop below its reorder threshold, without any query.
+     * A movement bringing the stock back to the threshold plus the hysteresis margin re-arms a disarmed article.
+     *
+     * @param articleId The ID of the article.
+     * @param delta The signed change of the stock caused by the movement.
+     * @param quantity The quantity in stock after the movement.
+     */
+    @Override
+    public void check(UUID articleId, int delta, int quantity) {
+        Integer threshold = thresholds.get(articleId);
+        if (threshold == null) {
+            return;
+        }
+        int previous = quantity - delta;
+        if (previous >= threshold && quantity < threshold) {
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(articleId, threshold, quantity));
+        } else if (quantity >= threshold + hysteresis) {
+            states.computeIfPresent(articleId, (id, state) -> state.rearmed());
+        }
+    }
+
+    /**
+     * Checks whether movements made the stock of several articles drop below their reorder thresholds,
+     * through {@link #check(UUID, int, int)}.
+     *
+     * @param deltas The net signed change of the stock of each article.
+     * @param levels The stock level of each article after the movements.
+     */
+    @Override
+    public void checkAll(Map<UUID, Integer> deltas, List<StockLevelProjection> levels) {
+        if (thresholds.isEmpty()) {
+            return;
+        }
+        for (StockLevelProjection level : levels) {
+            Integer delta = deltas.get(level.articleId());
+            if (delta != null) {
+                check(level.articleId(), delta, level.quantity());
+            }
+        }
+    }
+
+    /**
+     * Queues an alert once the crossing movement is committed, or right away outside a transaction, if the article is
+     * armed and out of its cooldown; the article is then disarmed. Alerts are dropped when the queue is full.
+     *
+     * @param event The {@link StockThresholdCrossedEvent} describing the crossing.
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThresholdCrossed(StockThresholdCrossedEvent event) {
+        Instant now = Instant.now();
+        AlertState raised = new AlertState(false, now);
+        AlertState state = states.compute(
+                event.articleId(),
+                (id, current) -> current == null || current.canAlert(now, cooldown) ? raised : current
+        );
+        if (state == raised) {
+            queue.offer(new StockAlert(event.articleId(), event.threshold(), event.quantity(), LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Sends the queued alerts as one email to {@code app.stock.alerts.recipients}, run by the scheduler on
+     * {@code app.stock.alerts.interval}. If the email cannot be sent, the alerts are queued again for the next run.
+     *
+     * @return The number of alerts sent.
+     * @throws RuntimeException If the email cannot be sent.
+     */
+    @Override
+    @Scheduled(
+            initialDelayString = "${app.stock.alerts.interval:1m}",
+            fixedDelayString = "${app.stock.alerts.interval:1m}"
+    )
+    public int notifyAlerts() {
+        List<StockAlert> alerts = new ArrayList<>();
+        queue.drainTo(alerts);
+        if (alerts.isEmpty() || recipients.length == 0) {
+            return 0;
+        }
+
+        Set<UUID> articleIds = alerts.stream().map(StockAlert::articleId).collect(Collectors.toSet());
+        Map<UUID, String> designations = articleRepository.findAllWithDetailsByIdIn(articleIds).stream()
+                .collect(Collectors.toMap(Article::getId, Article::getDesignation));
+
+        Context context = new Context();
+        context.setVariable("alerts", alerts);
+        context.setVariable("designations", designations);
+        try {
+            mailerUtils.send("Stock bas", "lowStock", context, recipients);
+        } catch (RuntimeException e) {
+            alerts.forEach(queue::offer);
+            throw e;
+        }
+        return alerts.size();
+    }
+
+    /**
+     * The alert state of an article.
+     *
+     * @param armed Whether the stock climbed back above its threshold plus the hysteresis margin since the last alert.
+     * @param lastAlert When the last alert was raised.
+     */
+    private record AlertState(boolean armed, Instant lastAlert) {
+
+        /**
+         * Checks whether a new crossing may raise an alert: the article must be armed again and out of its cooldown.
+         *
+         * @param now The current instant.
+         * @param cooldown The minimum time between two alerts.
+         * @return {@code true} if an alert may be raised.
+         */
+        boolean canAlert(Instant now, Duration cooldown) {
+            return armed && !lastAlert.plus(cooldown).isAfter(now);
+        }
+
+        /**
+         * Re-arms the article, keeping the time of its last alert for the cooldown.
+         *
+         * @return The re-armed state.
+         */
+        AlertState rearmed() {
+            return armed ? this : new AlertState(true, lastAlert);
+        }
+    }
+}
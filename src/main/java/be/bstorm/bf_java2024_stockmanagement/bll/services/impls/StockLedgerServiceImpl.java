@@ -0,0 +1,87 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockChangedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockAlertService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockLedgerService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of the {@link StockLedgerService} interface.
+ * A movement costs two statements in one transaction: an {@code insert ... on conflict (article_id) do update ...
+ * returning current_quantity} that creates or adjusts the stock atomically and returns the new quantity, and the insert
+ * of the movement row. This replaces the four statements of the {@code InsertStockMovement} procedure
+ * (count, select, update, insert), whose read-modify-write could lose concurrent updates of the same article.
+ * The sign of a movement comes from {@link StockMovementType#delta(int)}, no longer from plpgsql. A movement taking
+ * items out goes through the guarded {@code update ... where current_quantity >= :quantity} instead of the upsert,
+ * so it can never take the stock below zero.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #apply(UUID, StockMovementType, int)} - Records one stock movement and applies it to the stock of its article.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockLedgerService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockLedgerServiceImpl implements StockLedgerService {
+
+    private final StockRepository stockRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockAlertService stockAlertService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Records one stock movement and applies it to the stock of its article, in one transaction.
+     * A {@link StockChangedEvent} is published so that the cached article is refreshed once the transaction commits,
+     * and the returned quantity is checked against the reorder threshold of the article.
+     * A movement taking items out of an article without stock, or without enough, is refused and nothing is recorded.
+     *
+     * @param articleId The ID of the article whose stock moves.
+     * @param movementType The type of the movement, which decides whether it adds to or subtracts from the stock.
+     * @param quantity The quantity of items moved, positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the quantity in stock after the movement,
+     *         or {@link StockWithdrawal.InsufficientStock}.
+     * @throws IllegalArgumentException If the quantity is not positive or the article does not exist.
+     */
+    @Override
+    @Transactional
+    public StockWithdrawal apply(UUID articleId, StockMovementType movementType, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        int delta = movementType.delta(quantity);
+        int currentQuantity;
+        if (delta < 0) {
+            Integer remaining = stockRepository.decrementIfAvailable(articleId, -delta);
+            if (remaining == null) {
+                return new StockWithdrawal.InsufficientStock(articleId, -delta);
+            }
+            currentQuantity = remaining;
+        } else {
+            try {
+                currentQuantity = stockRepository.upsertDelta(articleId, delta);
+            } catch (DataIntegrityViolationException e) {
+                // Only the foreign key to the article can fail, the conflict on article_id being handled by the upsert
+                throw new IllegalArgumentException("Article does not exist: " + articleId, e);
+            }
+        }
+        stockMovementRepository.insertOne(articleId, movementType.name(), quantity);
+        eventPublisher.publishEvent(new StockChangedEvent(List.of(articleId)));
+        stockAlertService.check(articleId, delta, currentQuantity);
+        return new StockWithdrawal.Withdrawn(List.of(new StockLevelProjection(articleId, currentQuantity)));
+    }
+}
@@ -0,0 +1,199 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockPartitionService;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Implementation of the {@link StockPartitionService} interface.
+ * The monthly partitions of {@code stock_movement} are named {@code stock_movement_pYYYY_MM}, and movements outside
+ * of them land in {@code stock_movement_default}, as set up by {@code sql/StockMovementPartitioning.sql}.
+ * A partition is created as a standalone table, filled with the movements of its month that landed in the default
+ * partition, if any, then attached, all in one transaction: creation never fails because the default partition
+ * already holds rows of that month, such as after the application was stopped over a month change.
+ * Partitions are checked at startup and every night on {@code app.stock.partitions.cron}.
+ *
+ * <p>Detaching is disabled by default ({@code app.stock.partitions.retention} set to {@code 0}): detached movements
+ * no longer count in the history, the as-of queries and the reconciliation, so a reconciliation run with repair after
+ * a detach would reset the stocks. Enable it only where the stock is never reconciled.</p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #createPartitions()} - Creates the partitions of the current and next months.</li>
+ * <li>{@link #detachExpiredPartitions()} - Detaches the partitions past the retention period.</li>
+ * <li>{@link #maintainPartitions()} - Creates the upcoming partitions, then detaches the expired ones.</li>
+ * <li>{@link #createPartition(YearMonth, boolean)} - Creates and attaches the partition of a month.</li>
+ * <li>{@link #partitionName(YearMonth)} - Computes the name of the partition of a month.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockPartitionService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockPartitionServiceImpl implements StockPartitionService {
+
+    /**
+     * The prefix of the name of the monthly partitions, followed by {@link #PARTITION_SUFFIX}.
+     */
+    private static final String PARTITION_PREFIX = "stock_movement_p";
+
+    /**
+     * The format of the month in the name of the monthly partitions.
+     */
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /**
+     * The name of the partition receiving the movements outside of the monthly partitions.
+     */
+    private static final String DEFAULT_PARTITION = "stock_movement_default";
+
+    private final StockMovementRepository stockMovementRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The number of months after the current one whose partitions are created in advance.
+     */
+    @Value("${app.stock.partitions.months-ahead:2}")
+    private int monthsAhead;
+
+    /**
+     * The number of full months of movements kept attached, or {@code 0} to never detach partitions.
+     */
+    @Value("${app.stock.partitions.retention:0}")
+    private int retention;
+
+    /**
+     * Creates the missing partitions at startup, so movements of the current month never land in the default partition.
+     */
+    @PostConstruct
+    public void init() {
+        createPartitions();
+    }
+
+    /**
+     * Creates the missing partitions, from the current month to {@code app.stock.partitions.months-ahead} months later,
+     * one transaction per partition. Does nothing if the movements are not partitioned.
+     *
+     * @return The number of partitions created.
+     */
+    @Override
+    public int createPartitions() {
+        if (!stockMovementRepository.isPartitioned()) {
+            return 0;
+        }
+
+        Set<String> partitions = new HashSet<>(stockMovementRepository.findPartitionNames());
+        boolean hasDefault = partitions.contains(DEFAULT_PARTITION);
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            if (!partitions.contains(partitionName(month))) {
+                createPartition(month, hasDefault);
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Detaches the partitions whose month ended more than {@code app.stock.partitions.retention} months ago,
+     * one transaction per partition. Detaching briefly locks the table, and rewrites nothing.
+     * Does nothing if the movements are not partitioned, or if the retention is {@code 0}.
+     *
+     * @return The number of partitions detached.
+     */
+    @Override
+    public int detachExpiredPartitions() {
+        if (retention <= 0 || !stockMovementRepository.isPartitioned()) {
+            return 0;
+        }
+
+        YearMonth oldestKept = YearMonth.now().minusMonths(retention);
+        int detached = 0;
+        for (String partition : stockMovementRepository.findPartitionNames()) {
+            if (!partition.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            YearMonth month;
+            try {
+                month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            } catch (DateTimeParseException e) {
+                // Not a monthly partition of this service
+                continue;
+            }
+            if (month.isBefore(oldestKept)) {
+                transactionTemplate.executeWithoutResult(status -> entityManager
+                        .createNativeQuery("alter table stock_movement detach partition " + partition)
+                        .executeUpdate());
+                detached++;
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Creates the upcoming partitions, then detaches the expired ones. Run by the scheduler every night,
+     * on {@code app.stock.partitions.cron}.
+     */
+    @Override
+    @Scheduled(cron = "${app.stock.partitions.cron:0 30 0 * * *}")
+    public void maintainPartitions() {
+        createPartitions();
+        detachExpiredPartitions();
+    }
+
+    /**
+     * Creates the partition of a month, moves the movements of that month out of the default partition, and attaches
+     * the partition, in one transaction. The table is created like {@code stock_movement}, so its columns line up;
+     * attaching it creates its indexes and checks that it only holds movements of its month.
+     * The statements are built from the month only, never from user input.
+     *
+     * @param month The month of the partition.
+     * @param hasDefault Whether {@code stock_movement} has a default partition.
+     */
+    private void createPartition(YearMonth month, boolean hasDefault) {
+        String partition = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("create table " + partition +
+                    " (like stock_movement including defaults including constraints)").executeUpdate();
+            if (hasDefault) {
+                entityManager.createNativeQuery("with moved as (delete from " + DEFAULT_PARTITION + " " +
+                                "where movement_date >= :from and movement_date < :to returning *) " +
+                                "insert into " + partition + " select * from moved")
+                        .setParameter("from", from.atStartOfDay())
+                        .setParameter("to", to.atStartOfDay())
+                        .executeUpdate();
+            }
+            entityManager.createNativeQuery("alter table stock_movement attach partition " + partition +
+                    " for values from ('" + from + "') to ('" + to + "')").executeUpdate();
+        });
+    }
+
+    /**
+     * Computes the name of the partition of a month, such as {@code stock_movement_p2024_10}.
+     *
+     * @param month The month of the partition.
+     * @return The name of the partition.
+     */
+    private static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
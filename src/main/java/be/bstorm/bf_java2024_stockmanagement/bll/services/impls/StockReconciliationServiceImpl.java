@@ -0,0 +1,404 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockChangedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockAlertService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockReconciliationService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockDriftRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockReconciliationRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils.toArrayLiteral;
+
+/**
+ * Implementation of the {@link StockReconciliationService} interface.
+ * The UUID space of the articles is split into a power of two of contiguous ranges, processed in parallel by the tasks
+ * of a dedicated {@link ForkJoinPool}, whose parallelism bounds the connections used. For each partition, the stocks and
+ * the movement totals per article and type are read in one short read-only transaction at {@code REPEATABLE READ},
+ * so both come from the same snapshot and a movement committed meanwhile can never look like a drift; the sums are
+ * computed by the database. Drifts are then recorded, and optionally repaired, in a second short transaction that also
+ * marks the partition as done: repairs add the difference to the stock rather than overwrite it, so movements
+ * committed since the snapshot are kept, and a repair that would take a stock below zero is skipped and its drift
+ * recorded as unrepaired. An interrupted run resumes with the partitions it has not done.
+ * Each worker pauses after a partition, throttling the load on the database.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #init()} - Checks the settings and creates the worker pool.</li>
+ * <li>{@link #shutdown()} - Stops the worker pool, interrupting the running reconciliation.</li>
+ * <li>{@link #start(boolean)} - Starts a reconciliation in the background, or resumes the interrupted one.</li>
+ * <li>{@link #findById(UUID)} - Finds a reconciliation run by its ID.</li>
+ * <li>{@link #findDrifts(UUID)} - Finds the drifts found by a run.</li>
+ * <li>{@link #reconcile(StockReconciliation, int)} - Compares, records and optionally repairs one partition.</li>
+ * <li>{@link #insertDrifts(StockReconciliation, List, List, List, Set, boolean)} - Inserts the repaired, or unrepaired, drifts of a partition.</li>
+ * <li>{@link #describe(RuntimeException)} - Describes the error that stopped a run.</li>
+ * <li>{@link #lowerBound(int, int)} - Computes the first UUID of a partition.</li>
+ * <li>{@link #upperBound(int, int)} - Computes the last UUID of a partition.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockReconciliationService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReconciliationServiceImpl implements StockReconciliationService {
+
+    private final StockRepository stockRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockReconciliationRepository stockReconciliationRepository;
+    private final StockDriftRepository stockDriftRepository;
+    private final StockAlertService stockAlertService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * The number of partitions of a new run, a power of two.
+     */
+    @Value("${app.stock.reconciliation.partitions:256}")
+    private int partitions;
+
+    /**
+     * The number of partitions processed at the same time.
+     */
+    @Value("${app.stock.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * The pause of a worker after each partition.
+     */
+    @Value("${app.stock.reconciliation.pause:50ms}")
+    private Duration pause;
+
+    private ForkJoinPool pool;
+
+    /**
+     * The transaction reading a partition: read-only, on a single snapshot.
+     */
+    private TransactionTemplate snapshotTemplate;
+
+    /**
+     * The transaction recording a partition.
+     */
+    private TransactionTemplate writeTemplate;
+
+    /**
+     * Whether a reconciliation is running.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Checks the settings and creates the worker pool and the transaction templates.
+     *
+     * @throws IllegalStateException If the number of partitions is not a power of two between 1 and 65536.
+     */
+    @PostConstruct
+    public void init() {
+        if (Integer.bitCount(partitions) != 1 || partitions > 1 << 16) {
+            throw new IllegalStateException("app.stock.reconciliation.partitions must be a power of two up to 65536");
+        }
+        pool = new ForkJoinPool(parallelism);
+
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+        writeTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Stops the worker pool. The partitions in progress are rolled back, so the run can be resumed after a restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Starts a reconciliation on the worker pool and returns at once. The latest unfinished run is resumed if there is
+     * one, clearing the error that stopped it; otherwise a new run is created with the configured number of partitions.
+     * The run is marked as finished once every partition is done; if a partition fails, the error is recorded on the
+     * run, which stays unfinished, so clients polling it see the failure and can resume it.
+     *
+     * @param repair Whether the drifts found are repaired; ignored when a run is resumed.
+     * @return The run started or resumed.
+     * @throws IllegalStateException If a reconciliation is already running.
+     */
+    @Override
+    public StockReconciliation start(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already running");
+        }
+        try {
+            StockReconciliation unfinished = stockReconciliationRepository.findFirstByFinishedAtIsNullOrderByCreatedAtDesc()
+                    .orElseGet(() -> stockReconciliationRepository.save(
+                            new StockReconciliation(UUID.randomUUID(), partitions, repair)
+                    ));
+            if (unfinished.getFailedAt() != null) {
+                stockReconciliationRepository.clearFailure(unfinished.getId());
+                unfinished = stockReconciliationRepository.findById(unfinished.getId()).orElseThrow();
+            }
+            StockReconciliation run = unfinished;
+            BitSet completed = BitSet.valueOf(run.getCompletedPartitions());
+            int bits = Integer.numberOfTrailingZeros(run.getPartitionCount());
+
+            pool.execute(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    try {
+                        new PartitionTask(run, bits, completed, 0, run.getPartitionCount()).invoke();
+                        stockReconciliationRepository.markFinished(run.getId(), LocalDateTime.now());
+                    } catch (RuntimeException e) {
+                        // The pool drops the exception, so the run is the only place a client can see it
+                        stockReconciliationRepository.markFailed(run.getId(), LocalDateTime.now(), describe(e));
+                    } finally {
+                        running.set(false);
+                    }
+                }
+            });
+            return run;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Finds a reconciliation run by its ID, with its progress.
+     *
+     * @param id The ID of the run.
+     * @return The {@link StockReconciliation}.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    @Override
+    public StockReconciliation findById(UUID id) {
+        return stockReconciliationRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Reconciliation does not exist: " + id));
+    }
+
+    /**
+     * Finds the drifts found by a run so far.
+     *
+     * @param id The ID of the run.
+     * @return A list of {@link StockDriftProjection}, ordered by article.
+     * @throws IllegalArgumentException If the run does not exist.
+     */
+    @Override
+    public List<StockDriftProjection> findDrifts(UUID id) {
+        if (!stockReconciliationRepository.existsById(id)) {
+            throw new IllegalArgumentException("Reconciliation does not exist: " + id);
+        }
+        return stockDriftRepository.findAllByReconciliationId(id);
+    }
+
+    /**
+     * Compares the stocks of one partition with the sums of their movements, then records the drifts, repairs them
+     * if the run says so, and marks the partition as done, in one short transaction. An article drifts when its stock,
+     * {@code 0} if it has none, differs from the signed sum of its movements.
+     *
+     * @param run The run.
+     * @param partition The index of the partition.
+     */
+    private void reconcile(StockReconciliation run, int partition) {
+        int bits = Integer.numberOfTrailingZeros(run.getPartitionCount());
+        UUID from = lowerBound(partition, bits);
+        UUID to = upperBound(partition, bits);
+
+        Map<UUID, Integer> stocks = new HashMap<>();
+        Map<UUID, Long> expected = new HashMap<>();
+        snapshotTemplate.executeWithoutResult(status -> {
+            for (StockLevelProjection level : stockRepository.findLevelsByArticleIdBetween(from, to)) {
+                stocks.put(level.articleId(), level.quantity());
+            }
+            for (StockMovementTotalProjection total : stockMovementRepository.sumByArticleIdBetween(from, to)) {
+                expected.merge(total.articleId(), total.delta(), Long::sum);
+            }
+        });
+
+        Set<UUID> articleIds = new HashSet<>(stocks.keySet());
+        articleIds.addAll(expected.keySet());
+        List<UUID> driftedIds = new ArrayList<>();
+        List<Integer> stockQuantities = new ArrayList<>();
+        List<Long> movementQuantities = new ArrayList<>();
+        Map<UUID, Integer> corrections = new LinkedHashMap<>();
+        for (UUID articleId : articleIds.stream().sorted().toList()) {
+            int stock = stocks.getOrDefault(articleId, 0);
+            long movements = expected.getOrDefault(articleId, 0L);
+            if (stock != movements) {
+                driftedIds.add(articleId);
+                stockQuantities.add(stock);
+                movementQuantities.add(movements);
+                corrections.put(articleId, Math.toIntExact(movements - stock));
+            }
+        }
+
+        boolean repair = run.isRepair() && !corrections.isEmpty();
+        writeTemplate.executeWithoutResult(status -> {
+            // A correction is added to the locked stock, so one that would now take it below zero, because movements
+            // committed since the snapshot took it lower, is skipped and its drift recorded as unrepaired
+            Set<UUID> repairedIds = repair
+                    ? new HashSet<>(stockRepository.upsertDeltas(
+                            toArrayLiteral(corrections.keySet()), toArrayLiteral(corrections.values())
+                    ))
+                    : Set.of();
+            insertDrifts(run, driftedIds, stockQuantities, movementQuantities, repairedIds, true);
+            insertDrifts(run, driftedIds, stockQuantities, movementQuantities, repairedIds, false);
+            if (!repairedIds.isEmpty()) {
+                Map<UUID, Integer> repairs = new LinkedHashMap<>(corrections);
+                repairs.keySet().retainAll(repairedIds);
+                eventPublisher.publishEvent(new StockChangedEvent(List.copyOf(repairs.keySet())));
+                stockAlertService.checkAll(repairs, stockRepository.findLevelsByArticleIdIn(repairs.keySet()));
+            }
+            stockReconciliationRepository.markPartitionDone(
+                    run.getId(), partition, articleIds.size(), driftedIds.size(), repairedIds.size()
+            );
+        });
+    }
+
+    /**
+     * Inserts the drifts of a partition that were repaired, or the ones that were not, with one statement.
+     *
+     * @param run The run.
+     * @param driftedIds The IDs of the drifted articles.
+     * @param stockQuantities The quantity of each stock, in the order of {@code driftedIds}.
+     * @param movementQuantities The signed sum of the movements of each article, in the same order.
+     * @param repairedIds The IDs of the articles whose stock was corrected.
+     * @param repaired Whether to insert the repaired drifts, or the others.
+     */
+    private void insertDrifts(
+            StockReconciliation run,
+            List<UUID> driftedIds,
+            List<Integer> stockQuantities,
+            List<Long> movementQuantities,
+            Set<UUID> repairedIds,
+            boolean repaired
+    ) {
+        List<UUID> ids = new ArrayList<>();
+        List<Integer> stocks = new ArrayList<>();
+        List<Long> movements = new ArrayList<>();
+        for (int i = 0; i < driftedIds.size(); i++) {
+            if (repairedIds.contains(driftedIds.get(i)) == repaired) {
+                ids.add(driftedIds.get(i));
+                stocks.add(stockQuantities.get(i));
+                movements.add(movementQuantities.get(i));
+            }
+        }
+        if (!ids.isEmpty()) {
+            stockDriftRepository.insertAll(
+                    run.getId(), toArrayLiteral(ids), toArrayLiteral(stocks), toArrayLiteral(movements), repaired
+            );
+        }
+    }
+
+    /**
+     * Describes the error that stopped a run, as recorded on it: the type of the root cause and its message,
+     * truncated to the length of the column.
+     *
+     * @param e The exception thrown by the run.
+     * @return The description of the error.
+     */
+    private static String describe(RuntimeException e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        String error = cause.getClass().getName() + (cause.getMessage() == null ? "" : ": " + cause.getMessage());
+        return error.length() <= StockReconciliation.ERROR_LENGTH ? error : error.substring(0, StockReconciliation.ERROR_LENGTH);
+    }
+
+    /**
+     * Computes the first UUID of a partition: its index in the leading bits, all other bits cleared.
+     * PostgreSQL orders UUIDs as unsigned bytes, so the partitions are contiguous, ordered ranges.
+     *
+     * @param partition The index of the partition.
+     * @param bits The number of leading bits holding the partition index.
+     * @return The first UUID of the partition.
+     */
+    static UUID lowerBound(int partition, int bits) {
+        return new UUID(bits == 0 ? 0L : (long) partition << (64 - bits), 0L);
+    }
+
+    /**
+     * Computes the last UUID of a partition: its index in the leading bits, all other bits set.
+     *
+     * @param partition The index of the partition.
+     * @param bits The number of leading bits holding the partition index.
+     * @return The last UUID of the partition.
+     */
+    static UUID upperBound(int partition, int bits) {
+        return new UUID(lowerBound(partition, bits).getMostSignificantBits() | -1L >>> bits, -1L);
+    }
+
+    /**
+     * A fork-join task reconciling a range of partitions: split in halves until a single partition is left.
+     * Partitions already done by a previous attempt of the run are skipped.
+     */
+    private final class PartitionTask extends RecursiveAction {
+
+        private final StockReconciliation run;
+        private final int bits;
+        private final BitSet completed;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructs a task reconciling the partitions from {@code from}, inclusive, to {@code to}, exclusive.
+         *
+         * @param run The run.
+         * @param bits The number of leading bits holding the partition index.
+         * @param completed The partitions done when the run was started; never modified.
+         * @param from The first partition, inclusive.
+         * @param to The last partition, exclusive.
+         */
+        PartitionTask(StockReconciliation run, int bits, BitSet completed, int from, int to) {
+            this.run = run;
+            this.bits = bits;
+            this.completed = completed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Reconciles the single partition of the task, then pauses, or forks one task per half of the range.
+         */
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new PartitionTask(run, bits, completed, from, middle),
+                        new PartitionTask(run, bits, completed, middle, to)
+                );
+                return;
+            }
+            if (completed.get(from)) {
+                return;
+            }
+            reconcile(run, from);
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+    }
+}
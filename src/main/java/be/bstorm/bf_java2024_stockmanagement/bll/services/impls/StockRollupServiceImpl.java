@@ -0,0 +1,102 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockRollupService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockDailyRollupRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of the {@link StockRollupService} interface.
+ * Rollups are maintained by the statements inserting the movements; this service only reads them and rebuilds past
+ * days. A rebuild runs one statement per day, each in its own transaction, so a backfill of the whole history never
+ * holds a long transaction, and reads the movements of that day through the BRIN index on {@code movement_date}.
+ * The previous day is rebuilt every night, which completes the day the rollups were deployed.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #findDailyTotals(UUID, LocalDate, LocalDate)} - Totals the movements per day and type over a date range.</li>
+ * <li>{@link #backfill(LocalDate, LocalDate)} - Rebuilds the rollups of past days from the movement history.</li>
+ * <li>{@link #rebuildPreviousDay()} - Rebuilds the rollups of the previous day.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockRollupService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockRollupServiceImpl implements StockRollupService {
+
+    private final StockDailyRollupRepository stockDailyRollupRepository;
+    private final StockMovementRepository stockMovementRepository;
+
+    /**
+     * Totals the movements per day and type over a date range with one aggregate query over the rollups,
+     * whose cost grows with the number of days, not of movements.
+     *
+     * @param articleId The ID of the article, or {@code null} for all articles.
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return A list of {@link StockDailyTotalProjection}, ordered by day then type; days without movements are absent.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    @Override
+    public List<StockDailyTotalProjection> findDailyTotals(UUID articleId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the range is after its end");
+        }
+        if (articleId == null) {
+            return stockDailyRollupRepository.findDailyTotals(from, to);
+        }
+        return stockDailyRollupRepository.findDailyTotalsByArticleId(articleId, from, to);
+    }
+
+    /**
+     * Rebuilds the rollups of past days from the movement history, one day and one transaction at a time.
+     *
+     * @param from The first day, inclusive, or {@code null} for the day of the oldest movement.
+     * @param to The last day, inclusive, or {@code null} for the previous day; capped at the previous day.
+     * @return The number of rollups written.
+     * @throws IllegalArgumentException If {@code from} is after {@code to}.
+     */
+    @Override
+    public int backfill(LocalDate from, LocalDate to) {
+        LocalDate previousDay = LocalDate.now().minusDays(1);
+        LocalDate last = to == null || to.isAfter(previousDay) ? previousDay : to;
+        if (from == null) {
+            LocalDateTime firstMovementDate = stockMovementRepository.findFirstMovementDate();
+            if (firstMovementDate == null) {
+                return 0;
+            }
+            from = firstMovementDate.toLocalDate();
+        } else if (to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the range is after its end");
+        }
+
+        int rollups = 0;
+        for (LocalDate day = from; !day.isAfter(last); day = day.plusDays(1)) {
+            rollups += stockDailyRollupRepository.rebuild(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        }
+        return rollups;
+    }
+
+    /**
+     * Rebuilds the rollups of the previous day. Run by the scheduler shortly after midnight,
+     * on {@code app.stock.rollups.cron}, once the movements of the previous day are committed.
+     *
+     * @return The number of rollups written.
+     */
+    @Override
+    @Scheduled(cron = "${app.stock.rollups.cron:0 15 0 * * *}")
+    public int rebuildPreviousDay() {
+        LocalDate previousDay = LocalDate.now().minusDays(1);
+        return backfill(previousDay, previousDay);
+    }
+}
@@ -0,0 +1,286 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockChangedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementFilter;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockAlertService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockWriteBehindService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.CursorUtils;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+import static be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils.toArrayLiteral;
+
+/**
+ * Implementation of the {@link StockService} interface, applying stock movements with set-based statements.
+ * A batch costs a fixed number of statements whatever its size: movements are grouped by article, the net delta of
+ * every article is applied by one {@code insert ... on conflict (article_id) do update}, and all movement rows are
+ * inserted by one {@code insert ... select from unnest(...)}, instead of one stored procedure call per movement.
+ * In write-behind mode, the checked movements are handed to the {@link StockWriteBehindService} instead,
+ * and written by its next flush.
+ * Withdrawals are guarded by the database: each stock is decremented by an {@code update ... where current_quantity >= :q}
+ * that only matches when enough stock is left, so they need no lock beyond the row being updated. The stocks of
+ * a multi-article withdrawal are updated in article ID order, so two concurrent orders never wait on each other in a cycle.
+ * Withdrawals always go to the database and do not see movements still in the write-behind buffer.
+ * The stock levels resulting from every change are handed to the {@link StockAlertService}, which detects the articles
+ * dropping below their reorder threshold without querying again.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #recordMovements(List)} - Records a batch of stock movements and applies them to the stocks.</li>
+ * <li>{@link #withdraw(UUID, int)} - Takes a quantity out of the stock of an article, only if it has enough.</li>
+ * <li>{@link #withdrawAll(Map)} - Takes quantities out of the stock of several articles, all or nothing.</li>
+ * <li>{@link #findMovements(StockMovementFilter, CursorUtils.Position, int)} - Retrieves one keyset page of the stock movement history.</li>
+ * <li>{@link #applyMovements(List, TransactionStatus)} - Records a batch of stock movements in the current transaction.</li>
+ * <li>{@link #withPendingDeltas(Collection)} - Adds the changes pending in the write-behind buffer to the persisted stock levels.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockServiceImpl implements StockService {
+
+    private final ArticleRepository articleRepository;
+    private final StockRepository stockRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockWriteBehindService stockWriteBehindService;
+    private final StockAlertService stockAlertService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The lower bound of the history when a filter has none; every movement is dated after it.
+     */
+    private static final LocalDateTime HISTORY_START = LocalDate.of(1970, 1, 1).atStartOfDay();
+
+    /**
+     * The upper bound of the history when a filter has none; every movement is dated before it.
+     */
+    private static final LocalDateTime HISTORY_END = LocalDate.of(9999, 12, 31).atStartOfDay();
+
+    /**
+     * The greatest UUID in database order, so that a page starting before {@code (to, LAST_ID)} includes
+     * every movement dated {@code to}.
+     */
+    private static final UUID LAST_ID = new UUID(-1L, -1L);
+
+    /**
+     * Records a batch of stock movements in one transaction. The movements are grouped by article to compute the net
+     * delta of each stock; the articles are checked with one query, the deltas are applied (creating missing stocks)
+     * and the movements inserted, each with one statement. The deltas are applied by a guarded upsert that skips any
+     * stock lacking the quantity taken out; if one is skipped, the transaction is rolled back and the first such
+     * article, in article ID order, is reported as {@link StockWithdrawal.InsufficientStock}.
+     * A {@link StockChangedEvent} is published for the articles concerned, so that cached articles are refreshed once
+     * the transaction commits, and the new levels are checked against the reorder thresholds.
+     * In write-behind mode, a batch that takes nothing out of any stock is buffered once the articles are checked, and
+     * the returned levels add the pending changes to the persisted quantities; the thresholds are checked against those
+     * levels. A batch decreasing a stock is written right away through the guarded upsert, so the buffer only ever
+     * holds increases and a flush can never take a stock below zero; stock still in the buffer is not counted yet.
+     *
+     * @param movements The movements to record, in the order they occurred.
+     * @return {@link StockWithdrawal.Withdrawn} with the stock level of each article concerned, after the movements,
+     *         or {@link StockWithdrawal.InsufficientStock}.
+     * @throws IllegalArgumentException If a movement refers to an article that does not exist or is deleted.
+     * @throws ArithmeticException If the net delta of an article overflows an {@code int}.
+     */
+    @Override
+    public StockWithdrawal recordMovements(List<StockMovementLine> movements) {
+        if (movements.isEmpty()) {
+            return new StockWithdrawal.Withdrawn(List.of());
+        }
+        return transactionTemplate.execute(status -> applyMovements(movements, status));
+    }
+
+    /**
+     * Records a batch of stock movements in the current transaction, as described by {@link #recordMovements(List)}.
+     *
+     * @param movements The movements to record, in the order they occurred.
+     * @param status The current transaction, marked for rollback if a stock lacks the quantity taken out.
+     * @return {@link StockWithdrawal.Withdrawn} with the new stock levels, or {@link StockWithdrawal.InsufficientStock}.
+     */
+    private StockWithdrawal applyMovements(List<StockMovementLine> movements, TransactionStatus status) {
+        Map<UUID, Integer> deltas = new LinkedHashMap<>();
+        for (StockMovementLine movement : movements) {
+            deltas.merge(movement.articleId(), movement.delta(), Math::addExact);
+        }
+        Set<UUID> activeIds = new HashSet<>(articleRepository.findActiveIdsByIdIn(deltas.keySet()));
+        for (UUID articleId : deltas.keySet()) {
+            if (!activeIds.contains(articleId)) {
+                throw new IllegalArgumentException("Article does not exist: " + articleId);
+            }
+        }
+
+        if (stockWriteBehindService.isEnabled() && deltas.values().stream().allMatch(delta -> delta >= 0)) {
+            stockWriteBehindService.record(movements);
+            List<StockLevelProjection> levels = withPendingDeltas(deltas.keySet());
+            stockAlertService.checkAll(deltas, levels);
+            return new StockWithdrawal.Withdrawn(levels);
+        }
+
+        Set<UUID> applied = new HashSet<>(
+                stockRepository.upsertDeltas(toArrayLiteral(deltas.keySet()), toArrayLiteral(deltas.values()))
+        );
+        if (applied.size() < deltas.size()) {
+            status.setRollbackOnly();
+            UUID articleId = deltas.keySet().stream()
+                    .filter(id -> !applied.contains(id))
+                    .min(SqlArrayUtils::compareUuids)
+                    .orElseThrow();
+            return new StockWithdrawal.InsufficientStock(articleId, -deltas.get(articleId));
+        }
+
+        List<UUID> movementArticleIds = new ArrayList<>(movements.size());
+        List<String> movementTypes = new ArrayList<>(movements.size());
+        List<Integer> quantities = new ArrayList<>(movements.size());
+        for (StockMovementLine movement : movements) {
+            movementArticleIds.add(movement.articleId());
+            movementTypes.add(movement.movementType().name());
+            quantities.add(movement.quantity());
+        }
+        stockMovementRepository.insertAll(
+                toArrayLiteral(movementArticleIds),
+                toArrayLiteral(movementTypes),
+                toArrayLiteral(quantities)
+        );
+
+        eventPublisher.publishEvent(new StockChangedEvent(List.copyOf(deltas.keySet())));
+        List<StockLevelProjection> levels = stockRepository.findLevelsByArticleIdIn(deltas.keySet());
+        stockAlertService.checkAll(deltas, levels);
+        return new StockWithdrawal.Withdrawn(levels);
+    }
+
+    /**
+     * Takes a quantity out of the stock of an article, only if it has enough, through {@link #withdrawAll(Map)}.
+     *
+     * @param articleId The ID of the article.
+     * @param quantity The quantity to withdraw, positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the new stock level, or {@link StockWithdrawal.InsufficientStock}.
+     * @throws IllegalArgumentException If the quantity is not positive.
+     */
+    @Override
+    public StockWithdrawal withdraw(UUID articleId, int quantity) {
+        return withdrawAll(Map.of(articleId, quantity));
+    }
+
+    /**
+     * Takes quantities out of the stock of several articles, all or nothing, in one transaction. Each stock is
+     * decremented with a guarded update, in the article ID order of the database, as {@link StockRepository#upsertDeltas}
+     * does, so concurrent batches cannot deadlock; the first one that does not match marks the transaction for rollback,
+     * undoing the previous decrements, and is reported as {@link StockWithdrawal.InsufficientStock}.
+     * On success, the {@code STOCK_OUT} movements are inserted with one statement and a {@link StockChangedEvent} is published.
+     *
+     * @param quantities The quantity to withdraw by article ID, each positive.
+     * @return {@link StockWithdrawal.Withdrawn} with the new stock levels, or {@link StockWithdrawal.InsufficientStock}
+     *         naming the first article lacking stock.
+     * @throws IllegalArgumentException If the map is empty or a quantity is not positive.
+     */
+    @Override
+    public StockWithdrawal withdrawAll(Map<UUID, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to withdraw");
+        }
+        if (quantities.values().stream().anyMatch(quantity -> quantity == null || quantity <= 0)) {
+            throw new IllegalArgumentException("Quantities must be positive");
+        }
+
+        List<UUID> articleIds = quantities.keySet().stream().sorted(SqlArrayUtils::compareUuids).toList();
+        return transactionTemplate.execute(status -> {
+            List<StockLevelProjection> levels = new ArrayList<>(articleIds.size());
+            for (UUID articleId : articleIds) {
+                int quantity = quantities.get(articleId);
+                Integer remaining = stockRepository.decrementIfAvailable(articleId, quantity);
+                if (remaining == null) {
+                    status.setRollbackOnly();
+                    return new StockWithdrawal.InsufficientStock(articleId, quantity);
+                }
+                levels.add(new StockLevelProjection(articleId, remaining));
+                stockAlertService.check(articleId, -quantity, remaining);
+            }
+
+            stockMovementRepository.insertAll(
+                    toArrayLiteral(articleIds),
+                    toArrayLiteral(Collections.nCopies(articleIds.size(), StockMovementType.STOCK_OUT.name())),
+                    toArrayLiteral(articleIds.stream().map(quantities::get).toList())
+            );
+            eventPublisher.publishEvent(new StockChangedEvent(articleIds));
+            return new StockWithdrawal.Withdrawn(levels);
+        });
+    }
+
+    /**
+     * Retrieves one page of the stock movement history with one query. The first page starts before the end of the
+     * date range, the next ones right before the position of the cursor; the optional bounds are replaced by the limits
+     * of the history, so the range predicates always apply.
+     *
+     * @param filter The criteria of the movements.
+     * @param after The position of the last movement of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of movements to return.
+     * @return A list of {@link StockMovementProjection}, ordered by date then ID, descending.
+     * @throws IllegalArgumentException If the date range is reversed or the position is malformed.
+     */
+    @Override
+    public List<StockMovementProjection> findMovements(StockMovementFilter filter, CursorUtils.Position after, int size) {
+        LocalDateTime from = filter.from() == null ? HISTORY_START : filter.from();
+        LocalDateTime beforeDate = filter.to() == null ? HISTORY_END : filter.to();
+        UUID beforeId = LAST_ID;
+        if (from.isAfter(beforeDate)) {
+            throw new IllegalArgumentException("The start of the range is after its end");
+        }
+        if (after != null) {
+            try {
+                beforeDate = LocalDateTime.parse(after.key());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+            beforeId = after.id();
+        }
+
+        PageRequest page = PageRequest.ofSize(size);
+        if (filter.articleId() == null) {
+            return stockMovementRepository.findPageBefore(filter.movementType(), from, beforeDate, beforeId, page);
+        }
+        return stockMovementRepository.findPageByArticleIdBefore(
+                filter.articleId(), filter.movementType(), from, beforeDate, beforeId, page
+        );
+    }
+
+    /**
+     * Computes the stock levels of articles as their persisted quantities plus their changes pending in the
+     * write-behind buffer. The pending changes are read first, so a concurrent flush never hides a movement.
+     *
+     * @param articleIds The IDs of the articles.
+     * @return The stock level of each article, {@code 0} plus its pending change if it has no stock yet.
+     */
+    private List<StockLevelProjection> withPendingDeltas(Collection<UUID> articleIds) {
+        Map<UUID, Integer> levels = new LinkedHashMap<>();
+        for (UUID articleId : articleIds) {
+            levels.put(articleId, stockWriteBehindService.pendingDelta(articleId));
+        }
+        for (StockLevelProjection persisted : stockRepository.findLevelsByArticleIdIn(articleIds)) {
+            levels.merge(persisted.articleId(), persisted.quantity(), Integer::sum);
+        }
+        return levels.entrySet().stream()
+                .map(level -> new StockLevelProjection(level.getKey(), level.getValue()))
+                .toList();
+    }
+}
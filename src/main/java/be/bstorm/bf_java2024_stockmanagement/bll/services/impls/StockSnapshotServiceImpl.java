@@ -0,0 +1,125 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockSnapshotService;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockSnapshotProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockSnapshotRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Implementation of the {@link StockSnapshotService} interface.
+ * Snapshots are written once a day by the scheduler, in a single statement, each from the previous snapshot of the
+ * article and the movements since; articles that did not move are skipped. The stock at a past date is then rebuilt
+ * from the latest snapshot before that date and the movements after it, read from the {@code (article_id, movement_date)}
+ * index and totalled by type in the database: the replay covers at most the movements of the days since that snapshot,
+ * whatever the length of the history.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #takeSnapshots()} - Writes the snapshots of the current day.</li>
+ * <li>{@link #takeSnapshots(LocalDate)} - Writes the snapshots of a day.</li>
+ * <li>{@link #findLevelsAsOf(Collection, LocalDateTime)} - Computes the stock of articles at a past date.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockSnapshotService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockSnapshotServiceImpl implements StockSnapshotService {
+
+    private final ArticleRepository articleRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+
+    /**
+     * The names of the movement types adding to the stock, as an array literal for the snapshot statement.
+     */
+    private static final String POSITIVE_TYPES = SqlArrayUtils.toArrayLiteral(
+            Arrays.stream(StockMovementType.values())
+                    .filter(type -> type.sign() > 0)
+                    .map(StockMovementType::name)
+                    .toList()
+    );
+
+    /**
+     * Writes the snapshots of the current day. Run by the scheduler shortly after midnight, on {@code app.stock.snapshots.cron},
+     * leaving time for the movements of the previous day to be committed.
+     *
+     * @return The number of snapshots written.
+     */
+    @Override
+    @Scheduled(cron = "${app.stock.snapshots.cron:0 5 0 * * *}")
+    public int takeSnapshots() {
+        return takeSnapshots(LocalDate.now());
+    }
+
+    /**
+     * Writes the snapshots of a day, in one statement. The signs of the movements are decided by {@link StockMovementType}.
+     *
+     * @param day The day of the snapshots.
+     * @return The number of snapshots written.
+     */
+    @Override
+    public int takeSnapshots(LocalDate day) {
+        return stockSnapshotRepository.insertSnapshots(day, POSITIVE_TYPES);
+    }
+
+    /**
+     * Computes the stock of articles at a date, in at most one query for the snapshots, one per distinct snapshot day
+     * (a single one in the usual case), and one for the articles that have no snapshot yet.
+     *
+     * @param articleIds The IDs of the articles, deleted ones included.
+     * @param asOf The date and time at which the stock is wanted, inclusive.
+     * @return The stock level of each article at that date, in the order of the given IDs.
+     * @throws IllegalArgumentException If an article does not exist.
+     */
+    @Override
+    @Transactional
+    public List<StockLevelProjection> findLevelsAsOf(Collection<UUID> articleIds, LocalDateTime asOf) {
+        Set<UUID> ids = new LinkedHashSet<>(articleIds);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<UUID> missing = new LinkedHashSet<>(ids);
+        articleRepository.findIdsByIdIn(ids).forEach(missing::remove);
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Articles do not exist: " + missing);
+        }
+
+        Map<UUID, Long> quantities = new LinkedHashMap<>();
+        ids.forEach(id -> quantities.put(id, 0L));
+        Map<LocalDate, List<UUID>> bySnapshotDate = new HashMap<>();
+        for (StockSnapshotProjection snapshot : stockSnapshotRepository.findLatestByArticleIdIn(ids, asOf.toLocalDate())) {
+            quantities.put(snapshot.articleId(), (long) snapshot.quantity());
+            bySnapshotDate.computeIfAbsent(snapshot.snapshotDate(), date -> new ArrayList<>()).add(snapshot.articleId());
+        }
+
+        List<StockMovementTotalProjection> totals = new ArrayList<>();
+        bySnapshotDate.forEach((date, snapshotted) -> totals.addAll(
+                stockMovementRepository.sumByArticleIdInBetween(snapshotted, date.atStartOfDay(), asOf)
+        ));
+        Set<UUID> unsnapshotted = new HashSet<>(ids);
+        bySnapshotDate.values().forEach(unsnapshotted::removeAll);
+        if (!unsnapshotted.isEmpty()) {
+            totals.addAll(stockMovementRepository.sumByArticleIdInUntil(unsnapshotted, asOf));
+        }
+        totals.forEach(total -> quantities.merge(total.articleId(), total.delta(), Long::sum));
+
+        return quantities.entrySet().stream()
+                .map(e -> new StockLevelProjection(e.getKey(), Math.toIntExact(e.getValue())))
+                .toList();
+    }
+}
@@ -0,0 +1,359 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.events.StockChangedEvent;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockWriteBehindService;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockMovementRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils.toArrayLiteral;
+
+/**
+ * Implementation of the {@link StockWriteBehindService} interface, enabled by {@code app.stock.write-behind.enabled}.
+ * Each article with movements not yet flushed has a {@link Counter}, holding the quantities recorded per day and
+ * movement type. A counter is only changed within {@link ConcurrentMap#compute} on its article, so recording a movement
+ * holds the lock of that map entry for a few additions, and a counter is never removed while a movement is being added
+ * to it. A flush copies the counters, then subtracts the copy once its transaction has committed, so a movement
+ * recorded during a flush is neither lost nor written twice; a counter left empty is removed, so the map only holds
+ * the articles moved since the previous flush.
+ * A flush writes the net delta of every article with one upsert and one consolidated movement row per article, day
+ * and movement type with one insert, in one transaction. A consolidated row is dated with the last movement it sums,
+ * so movements buffered before midnight and flushed after it stay on their day in the history and the rollups.
+ * It runs every {@code app.stock.write-behind.flush-interval}, bounded by {@link #MAX_FLUSH_INTERVAL}, and once more
+ * on shutdown. The flush has a scheduler thread of its own rather than sharing the {@code @Scheduled} jobs' pool,
+ * so a long job, such as the image sweep, cannot hold it back beyond that bound.
+ * Only batches that take nothing out of any stock are buffered (see {@link StockServiceImpl#recordMovements(List)}),
+ * so the net delta of a flush is never negative and cannot take a stock below zero.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #init()} - Checks the flush interval and schedules the flushes.</li>
+ * <li>{@link #shutdown()} - Stops the flushes, then flushes once more.</li>
+ * <li>{@link #isEnabled()} - Checks whether movements are buffered.</li>
+ * <li>{@link #record(List)} - Buffers a batch of stock movements.</li>
+ * <li>{@link #pendingDelta(UUID)} - Returns the net change of the stock of an article not yet flushed.</li>
+ * <li>{@link #pendingDeltas()} - Returns the net changes of all stocks not yet flushed.</li>
+ * <li>{@link #version()} - Returns a counter changing whenever a movement is buffered.</li>
+ * <li>{@link #flush()} - Writes the buffered movements to the database.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockWriteBehindService
+ */
+@Service
+@RequiredArgsConstructor
+public class StockWriteBehindServiceImpl implements StockWriteBehindService {
+
+    private final StockRepository stockRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The longest flush interval allowed, bounding the movements lost if the process dies without shutting down.
+     */
+    private static final Duration MAX_FLUSH_INTERVAL = Duration.ofMinutes(1);
+
+    private static final StockMovementType[] TYPES = StockMovementType.values();
+
+    /**
+     * Whether movements are buffered rather than written right away.
+     */
+    @Value("${app.stock.write-behind.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * The delay between two flushes.
+     */
+    @Value("${app.stock.write-behind.flush-interval:1s}")
+    private Duration flushInterval;
+
+    private final ConcurrentMap<UUID, Counter> counters = new ConcurrentHashMap<>();
+    private final LongAdder recordedMovements = new LongAdder();
+
+    /**
+     * The thread running the periodic flushes, only created when the write-behind mode is enabled.
+     */
+    private ThreadPoolTaskScheduler scheduler;
+
+    /**
+     * Checks that the flush interval is positive and within {@link #MAX_FLUSH_INTERVAL}, then, if the write-behind
+     * mode is enabled, schedules a flush every interval, counted from the end of the previous one. A failed flush is
+     * reported by the scheduler's error handler and retried by the next one.
+     *
+     * @throws IllegalStateException If the flush interval is out of bounds.
+     */
+    @PostConstruct
+    public void init() {
+        if (flushInterval.isNegative() || flushInterval.isZero() || flushInterval.compareTo(MAX_FLUSH_INTERVAL) > 0) {
+            throw new IllegalStateException("Write-behind flush interval must be between 0 and " + MAX_FLUSH_INTERVAL);
+        }
+        if (enabled) {
+            scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setThreadNamePrefix("stock-write-behind-");
+            scheduler.setWaitForTasksToCompleteOnShutdown(true);
+            scheduler.setAwaitTerminationMillis(MAX_FLUSH_INTERVAL.toMillis());
+            scheduler.initialize();
+            scheduler.scheduleWithFixedDelay(this::flush, flushInterval);
+        }
+    }
+
+    /**
+     * Stops the periodic flushes, waiting for a running one to end, then writes what is still buffered.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Checks whether the write-behind mode is enabled.
+     *
+     * @return {@code true} if movements are buffered.
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers a batch of stock movements by adding their quantities to the counters of their article, day and type,
+     * all dated now, to the microsecond the database keeps.
+     *
+     * @param movements The movements to buffer.
+     */
+    @Override
+    public void record(List<StockMovementLine> movements) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        for (StockMovementLine movement : movements) {
+            counters.compute(movement.articleId(), (id, counter) -> {
+                Counter recording = counter == null ? new Counter() : counter;
+                recording.add(now, movement.movementType(), movement.quantity());
+                return recording;
+            });
+            recordedMovements.increment();
+        }
+    }
+
+    /**
+     * Returns the net change of the stock of an article not yet flushed. A flush only subtracts what it wrote once its
+     * transaction has committed, so a concurrent flush can make a movement count twice for a moment, never make it
+     * disappear: read this before the persisted quantity to always see one's own writes.
+     *
+     * @param articleId The ID of the article.
+     * @return The signed pending change, {@code 0} if nothing is pending.
+     */
+    @Override
+    public int pendingDelta(UUID articleId) {
+        Counter counter = counters.get(articleId);
+        return counter == null ? 0 : counter.pendingDelta();
+    }
+
+    /**
+     * Returns the net changes of all stocks not yet flushed, with the same guarantee as {@link #pendingDelta(UUID)}.
+     *
+     * @return A {@link Map} of the signed pending change by article ID, without the articles with nothing pending.
+     */
+    @Override
+    public Map<UUID, Integer> pendingDeltas() {
+        Map<UUID, Integer> deltas = new HashMap<>();
+        counters.forEach((articleId, counter) -> {
+            int delta = counter.pendingDelta();
+            if (delta != 0) {
+                deltas.put(articleId, delta);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Returns the number of movements buffered since startup.
+     *
+     * @return The counter of buffered movements.
+     */
+    @Override
+    public long version() {
+        return recordedMovements.sum();
+    }
+
+    /**
+     * Writes the movements buffered since the previous flush, in one transaction: the net delta of every article with
+     * one upsert of the stocks, and the quantity of every article, day and movement type as one movement row, dated
+     * with the last movement it sums, with one insert.
+     * The written quantities are only subtracted from the counters once the transaction has committed, so a failed
+     * flush is retried by the next one; the counters left empty are then removed.
+     */
+    @Override
+    public synchronized void flush() {
+        Map<UUID, Map<LocalDate, Bucket>> snapshots = new HashMap<>();
+        for (UUID articleId : counters.keySet()) {
+            counters.computeIfPresent(articleId, (id, counter) -> {
+                snapshots.put(id, counter.snapshot());
+                return counter;
+            });
+        }
+
+        List<UUID> articleIds = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        List<UUID> movementArticleIds = new ArrayList<>();
+        List<String> movementTypes = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        List<LocalDateTime> movementDates = new ArrayList<>();
+        snapshots.forEach((articleId, buckets) -> {
+            long delta = 0;
+            for (Bucket bucket : buckets.values()) {
+                for (StockMovementType type : TYPES) {
+                    long quantity = bucket.quantities[type.ordinal()];
+                    if (quantity > 0) {
+                        movementArticleIds.add(articleId);
+                        movementTypes.add(type.name());
+                        quantities.add(Math.toIntExact(quantity));
+                        movementDates.add(bucket.movementDate);
+                        delta += type.sign() * quantity;
+                    }
+                }
+            }
+            articleIds.add(articleId);
+            deltas.add(Math.toIntExact(delta));
+        });
+        if (movementArticleIds.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockRepository.upsertDeltas(toArrayLiteral(articleIds), toArrayLiteral(deltas));
+            stockMovementRepository.insertAllDated(
+                    toArrayLiteral(movementArticleIds),
+                    toArrayLiteral(movementTypes),
+                    toArrayLiteral(quantities),
+                    toArrayLiteral(movementDates)
+            );
+            eventPublisher.publishEvent(new StockChangedEvent(articleIds));
+        });
+        snapshots.forEach((articleId, buckets) -> counters.computeIfPresent(
+                articleId, (id, counter) -> counter.markFlushed(buckets) ? null : counter
+        ));
+    }
+
+    /**
+     * The buffered quantities of one article, by day of recording. Only changed within {@link ConcurrentMap#compute}
+     * on its article, except {@link #unflushedDelta}, which is read without locking.
+     */
+    private static final class Counter {
+
+        /**
+         * The quantities recorded and not yet flushed, by day.
+         */
+        private final Map<LocalDate, Bucket> buckets = new HashMap<>();
+
+        /**
+         * The net change of the stock recorded and not yet flushed.
+         */
+        private volatile long unflushedDelta;
+
+        /**
+         * Adds a movement to the bucket of its day.
+         *
+         * @param movementDate The date of the movement.
+         * @param type The type of the movement.
+         * @param quantity The quantity moved.
+         */
+        private void add(LocalDateTime movementDate, StockMovementType type, int quantity) {
+            Bucket bucket = buckets.computeIfAbsent(movementDate.toLocalDate(), day -> new Bucket());
+            bucket.quantities[type.ordinal()] += quantity;
+            if (bucket.movementDate == null || movementDate.isAfter(bucket.movementDate)) {
+                bucket.movementDate = movementDate;
+            }
+            unflushedDelta += type.sign() * quantity;
+        }
+
+        /**
+         * Returns the net change recorded and not yet flushed.
+         *
+         * @return The signed pending change.
+         */
+        private int pendingDelta() {
+            return Math.toIntExact(unflushedDelta);
+        }
+
+        /**
+         * Copies the buckets, for a flush to write.
+         *
+         * @return A copy of the buckets, by day.
+         */
+        private Map<LocalDate, Bucket> snapshot() {
+            Map<LocalDate, Bucket> copy = new HashMap<>();
+            buckets.forEach((day, bucket) -> copy.put(day, bucket.copy()));
+            return copy;
+        }
+
+        /**
+         * Subtracts the quantities written by a flush, removing the buckets left empty.
+         *
+         * @param flushed The copy of the buckets written by the flush.
+         * @return {@code true} if nothing is left to flush, so the counter can be removed.
+         */
+        private boolean markFlushed(Map<LocalDate, Bucket> flushed) {
+            long delta = 0;
+            for (Map.Entry<LocalDate, Bucket> entry : flushed.entrySet()) {
+                Bucket bucket = buckets.get(entry.getKey());
+                boolean empty = true;
+                for (StockMovementType type : TYPES) {
+                    long quantity = entry.getValue().quantities[type.ordinal()];
+                    bucket.quantities[type.ordinal()] -= quantity;
+                    delta += type.sign() * quantity;
+                    empty &= bucket.quantities[type.ordinal()] == 0;
+                }
+                if (empty) {
+                    buckets.remove(entry.getKey());
+                }
+            }
+            unflushedDelta -= delta;
+            return buckets.isEmpty();
+        }
+    }
+
+    /**
+     * The quantities of one article recorded on one day, indexed by {@link StockMovementType#ordinal()},
+     * and the date of the last of them.
+     */
+    private static final class Bucket {
+
+        private final long[] quantities = new long[TYPES.length];
+
+        private LocalDateTime movementDate;
+
+        /**
+         * Copies the bucket.
+         *
+         * @return A copy of the quantities and date.
+         */
+        private Bucket copy() {
+            Bucket copy = new Bucket();
+            System.arraycopy(quantities, 0, copy.quantities, 0, quantities.length);
+            copy.movementDate = movementDate;
+            return copy;
+        }
+    }
+}
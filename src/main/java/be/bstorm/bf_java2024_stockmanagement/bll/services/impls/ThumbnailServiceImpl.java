@@ -0,0 +1,368 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services.impls;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ThumbnailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the {@link ThumbnailService} interface based on the JDK {@link ImageIO} stack.
+ * Variants are generated on a bounded worker pool and cached on disk, under {@code images-cache/<w>x<h>/<path>},
+ * with least-recently-used eviction once their total size exceeds a budget. Concurrent requests for the same variant
+ * share a single in-flight future, so a given variant is only ever resized once.
+ * A variant handed out within the last {@code app.images.variants.eviction-grace} is never evicted, so its file is not
+ * deleted while the request it was returned to opens and streams it; the cache may exceed its budget meanwhile.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #init()} - Creates the worker pool and indexes the variants already on disk.</li>
+ * <li>{@link #shutdown()} - Stops the worker pool.</li>
+ * <li>{@link #getVariant(String, int, Integer)} - Returns the file of a variant, generating it if needed.</li>
+ * <li>{@link #generate(Path, Path, int, int)} - Resizes and recompresses an image into a variant file.</li>
+ * <li>{@link #touch(String, Path)} - Marks a cached variant as recently used.</li>
+ * <li>{@link #record(String, Path, boolean)} - Adds a new variant to the cache, evicting the least recently used ones if needed.</li>
+ * </ul>
+ * </p>
+ *
+ * @see ThumbnailService
+ */
+@Service
+@RequiredArgsConstructor
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private final ImageService imageService;
+
+    /**
+     * The directory holding the cached variants, kept apart from the original images.
+     */
+    private static final Path VARIANTS_DIRECTORY = Path.of(System.getProperty("user.dir"), "images-cache");
+
+    /**
+     * The largest width or height a client may request.
+     */
+    @Value("${app.images.variants.max-dimension:2048}")
+    private int maxDimension;
+
+    /**
+     * The total size of the cached variants above which the least recently used ones are deleted.
+     */
+    @Value("${app.images.variants.max-size:1GB}")
+    private DataSize maxSize;
+
+    /**
+     * The number of threads resizing images.
+     */
+    @Value("${app.images.variants.workers:2}")
+    private int workers;
+
+    /**
+     * The number of resize tasks that may wait for a worker before new ones are refused.
+     */
+    @Value("${app.images.variants.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * The JPEG compression quality of the variants, between 0 and 1.
+     */
+    @Value("${app.images.variants.quality:0.8}")
+    private float quality;
+
+    /**
+     * How long a request waits for its variant to be generated.
+     */
+    @Value("${app.images.variants.wait:10s}")
+    private Duration wait;
+
+    /**
+     * How long a variant is kept from eviction after it has been handed out, covering the time to stream it.
+     */
+    @Value("${app.images.variants.eviction-grace:1m}")
+    private Duration evictionGrace;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * The variants being generated, by cache key; concurrent requests for the same key share the same future.
+     */
+    private final ConcurrentMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The cached variants, in access order (least recently used first). Guarded by itself.
+     */
+    private final LinkedHashMap<String, CachedVariant> variants = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * Creates the bounded worker pool, and indexes the variants already on disk from the oldest to the newest.
+     *
+     * @throws IOException If the variants directory cannot be read.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Files.createDirectories(VARIANTS_DIRECTORY);
+        try (Stream<Path> files = Files.walk(VARIANTS_DIRECTORY)) {
+            files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(file -> file.toFile().lastModified()))
+                    .forEach(file -> {
+                        String key = VARIANTS_DIRECTORY.relativize(file).toString().replace('\\', '/');
+                        record(key, file, false);
+                    });
+        }
+    }
+
+    /**
+     * Stops the worker pool, letting running resizes finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the file of a resized variant of a stored image. A cached variant is returned directly; otherwise
+     * the resize is submitted to the worker pool, or joined if another request already started it.
+     *
+     * @param path The path of the original image, relative to the images directory.
+     * @param width The maximum width of the variant, in pixels.
+     * @param height The maximum height of the variant, in pixels, or {@code null} to only bound the width.
+     * @return The {@link Path} of the variant file.
+     * @throws IllegalArgumentException If the image does not exist, is not a readable image, or the size is out of range.
+     * @throws IllegalStateException If the resize workers are saturated or the variant is not ready in time.
+     */
+    @Override
+    public Path getVariant(String path, int width, Integer height) {
+        int boxHeight = height == null ? maxDimension : height;
+        if (width < 1 || width > maxDimension || boxHeight < 1 || boxHeight > maxDimension) {
+            throw new IllegalArgumentException("Size must be between 1 and " + maxDimension);
+        }
+
+        Path source = imageService.resolve(path);
+        Path relativePath = ImageService.IMAGES_DIRECTORY.relativize(source);
+
+        String key = width + "x" + (height == null ? "" : height) + "/" + relativePath.toString().replace('\\', '/');
+        Path variant = VARIANTS_DIRECTORY.resolve(key);
+        if (touch(key, variant)) {
+            return variant;
+        }
+
+        CompletableFuture<Path> future = inFlight.computeIfAbsent(key, k -> {
+            // Generated by another request between the lookup above and now
+            if (touch(k, variant)) {
+                return CompletableFuture.completedFuture(variant);
+            }
+            CompletableFuture<Path> created = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(source, variant, width, boxHeight);
+                        record(k, variant, true);
+                        created.complete(variant);
+                    } catch (Throwable e) {
+                        created.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                created.completeExceptionally(new IllegalStateException("Too many images being resized", e));
+            }
+            return created;
+        });
+        future.whenComplete((result, error) -> inFlight.remove(key, future));
+
+        try {
+            return future.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Image variant not ready in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an image variant", e);
+        }
+    }
+
+    /**
+     * Resizes an image to fit within the given box, keeping its aspect ratio and never scaling up, then writes it
+     * to a temporary file that is atomically moved to the variant path. JPEG variants are recompressed with the
+     * configured quality; other formats are rewritten in their own format.
+     *
+     * @param source The original image.
+     * @param variant The path of the variant file to produce.
+     * @param width The maximum width, in pixels.
+     * @param height The maximum height, in pixels.
+     * @throws IllegalArgumentException If the source is not a readable image.
+     * @throws UncheckedIOException If the variant cannot be written.
+     */
+    private void generate(Path source, Path variant, int width, int height) {
+        try {
+            BufferedImage original = ImageIO.read(source.toFile());
+            if (original == null) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+
+            double scale = Math.min(1.0, Math.min((double) width / original.getWidth(), (double) height / original.getHeight()));
+            int targetWidth = Math.max(1, (int) Math.round(original.getWidth() * scale));
+            int targetHeight = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+            String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+            boolean jpeg = name.endsWith(".jpg") || name.endsWith(".jpeg");
+            String format = jpeg ? "jpeg" : "png";
+
+            BufferedImage resized = new BufferedImage(targetWidth, targetHeight,
+                    jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = resized.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(original, 0, 0, targetWidth, targetHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            Files.createDirectories(variant.getParent());
+            Path tempFile = variant.resolveSibling("." + UUID.randomUUID() + ".part");
+            try {
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+                ImageWriter writer = writers.next();
+                try (ImageOutputStream out = ImageIO.createImageOutputStream(tempFile.toFile())) {
+                    writer.setOutput(out);
+                    ImageWriteParam param = writer.getDefaultWriteParam();
+                    if (jpeg) {
+                        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                        param.setCompressionQuality(quality);
+                    }
+                    writer.write(null, new IIOImage(resized, null, null), param);
+                } finally {
+                    writer.dispose();
+                }
+                Files.move(tempFile, variant, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Marks a cached variant as recently used and handed out now, if it is still on disk.
+     *
+     * @param key The cache key of the variant.
+     * @param variant The path of the variant file.
+     * @return {@code true} if the variant is cached; {@code false} if it must be generated.
+     */
+    private boolean touch(String key, Path variant) {
+        synchronized (variants) {
+            CachedVariant cached = variants.get(key);
+            if (cached == null) {
+                return false;
+            }
+            cached.handedOutAt = System.nanoTime();
+        }
+        if (Files.isRegularFile(variant)) {
+            return true;
+        }
+        // Deleted behind our back: forget it and generate it again
+        synchronized (variants) {
+            CachedVariant cached = variants.remove(key);
+            if (cached != null) {
+                totalBytes -= cached.size;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a variant to the cache as the most recently used one, then deletes the least recently used variants
+     * until the total size fits the budget again. Variants handed out within the eviction grace period are skipped,
+     * since a request may still be about to open or streaming them.
+     *
+     * @param key The cache key of the variant.
+     * @param variant The path of the variant file.
+     * @param handedOut Whether the variant is being returned to a request, rather than indexed at startup.
+     */
+    private void record(String key, Path variant, boolean handedOut) {
+        long size;
+        try {
+            size = Files.size(variant);
+        } catch (IOException e) {
+            return;
+        }
+
+        synchronized (variants) {
+            long now = System.nanoTime();
+            long grace = evictionGrace.toNanos();
+            CachedVariant previous = variants.put(key, new CachedVariant(size, handedOut ? now : now - grace));
+            totalBytes += size - (previous == null ? 0 : previous.size);
+
+            Iterator<Map.Entry<String, CachedVariant>> eldest = variants.entrySet().iterator();
+            while (totalBytes > maxSize.toBytes() && eldest.hasNext()) {
+                Map.Entry<String, CachedVariant> entry = eldest.next();
+                if (entry.getKey().equals(key) || now - entry.getValue().handedOutAt < grace) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(VARIANTS_DIRECTORY.resolve(entry.getKey()));
+                } catch (IOException ignored) {
+                    // Retried the next time the cache is over budget
+                    continue;
+                }
+                totalBytes -= entry.getValue().size;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * A cached variant: its size in bytes, and the last time it was handed out, from {@link System#nanoTime()}.
+     * Guarded by {@link #variants}.
+     */
+    private static final class CachedVariant {
+
+        private final long size;
+
+        private long handedOutAt;
+
+        private CachedVariant(long size, long handedOutAt) {
+            this.size = size;
+            this.handedOutAt = handedOutAt;
+        }
+    }
+}
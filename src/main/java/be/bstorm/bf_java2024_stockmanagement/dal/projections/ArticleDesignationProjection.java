@@ -0,0 +1,24 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of an {@link Article} holding its ID and designation key.
+ * Used to check many designations for uniqueness in a single query.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the article.</li>
+ * <li>{@code designationKey} - The normalized designation of the article.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Article
+ */
+public record ArticleDesignationProjection(
+        UUID id,
+        String designationKey
+) {
+}
@@ -0,0 +1,35 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of an {@link Article} holding exactly the columns needed by the article details view.
+ * Built directly by a JPQL constructor expression, so no entity is hydrated nor put in the persistence context.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the article.</li>
+ * <li>{@code designation} - The name or designation of the article.</li>
+ * <li>{@code unitPriceExcludingTax} - The unit price of the article, excluding tax, in cents.</li>
+ * <li>{@code vat} - The VAT rate applied to the article.</li>
+ * <li>{@code picture} - The file path of the article's picture, if any.</li>
+ * <li>{@code category} - The designation of the category of the article, or {@code null} if it has none.</li>
+ * <li>{@code quantity} - The current quantity of the article in stock, {@code 0} if it has no stock.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Article
+ */
+public record ArticleDetailsProjection(
+        UUID id,
+        String designation,
+        long unitPriceExcludingTax,
+        VAT vat,
+        String picture,
+        String category,
+        int quantity
+) {
+}
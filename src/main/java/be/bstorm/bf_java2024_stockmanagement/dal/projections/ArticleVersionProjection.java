@@ -0,0 +1,48 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Aggregate projection describing the version of a set of {@link Article}s, computed without loading them.
+ * Any insert, update or logical deletion of an article, or any change of its category or stock, changes it.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code count} - The number of active articles in the set.</li>
+ * <li>{@code articlesUpdatedAt} - The latest update time of the articles of the set, deleted ones included.</li>
+ * <li>{@code categoriesUpdatedAt} - The latest update time of the categories of the set.</li>
+ * <li>{@code stocksUpdatedAt} - The latest update time of the stocks of the set.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #lastModified()} - Returns the latest of the update times.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Article
+ */
+public record ArticleVersionProjection(
+        long count,
+        LocalDateTime articlesUpdatedAt,
+        LocalDateTime categoriesUpdatedAt,
+        LocalDateTime stocksUpdatedAt
+) {
+
+    /**
+     * Returns the latest of the article, category and stock update times.
+     *
+     * @return The latest update time, or {@code null} if the set is empty.
+     */
+    public LocalDateTime lastModified() {
+        return Stream.of(articlesUpdatedAt, categoriesUpdatedAt, stocksUpdatedAt)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,28 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDailyRollup;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of the total of the stock movements of one type on one day, summed from {@link StockDailyRollup}.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code day} - The day the movements occurred.</li>
+ * <li>{@code movementType} - The type of the movements.</li>
+ * <li>{@code quantity} - The total quantity moved, unsigned.</li>
+ * <li>{@code movementCount} - The number of movements.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyRollup
+ */
+public record StockDailyTotalProjection(
+        LocalDate day,
+        StockMovementType movementType,
+        long quantity,
+        long movementCount
+) {
+}
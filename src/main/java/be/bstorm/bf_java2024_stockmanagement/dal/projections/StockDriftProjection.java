@@ -0,0 +1,27 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDrift;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a {@link StockDrift}.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code stockQuantity} - The quantity of the stock when checked.</li>
+ * <li>{@code movementQuantity} - The signed sum of the movements of the article when checked.</li>
+ * <li>{@code repaired} - Whether the stock was corrected by the difference.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDrift
+ */
+public record StockDriftProjection(
+        UUID articleId,
+        int stockQuantity,
+        long movementQuantity,
+        boolean repaired
+) {
+}
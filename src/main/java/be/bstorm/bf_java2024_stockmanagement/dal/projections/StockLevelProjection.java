@@ -0,0 +1,23 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of a {@link Stock} holding the current quantity of one article.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code quantity} - The current quantity of the article in stock.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Stock
+ */
+public record StockLevelProjection(
+        UUID articleId,
+        int quantity
+) {
+}
@@ -0,0 +1,31 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a {@link StockMovement}, referring to its article by ID so that the article is not loaded.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The unique identifier of the movement.</li>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code movementType} - The type of the movement.</li>
+ * <li>{@code quantity} - The quantity of items moved.</li>
+ * <li>{@code movementDate} - The date and time of the movement.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovement
+ */
+public record StockMovementProjection(
+        UUID id,
+        UUID articleId,
+        StockMovementType movementType,
+        int quantity,
+        LocalDateTime movementDate
+) {
+}
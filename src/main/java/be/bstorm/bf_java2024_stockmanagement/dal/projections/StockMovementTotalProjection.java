@@ -0,0 +1,42 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of the total quantity moved by the {@link StockMovement} of one type for one article.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code movementType} - The type of the movements.</li>
+ * <li>{@code quantity} - The sum of the quantities moved, unsigned.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #delta()} - Computes the signed change of stock caused by the movements.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovement
+ * @see StockMovementType
+ */
+public record StockMovementTotalProjection(
+        UUID articleId,
+        StockMovementType movementType,
+        long quantity
+) {
+
+    /**
+     * Computes the signed change of stock caused by the movements, according to their type.
+     *
+     * @return The total quantity, positive for incoming movements and negative for outgoing ones.
+     */
+    public long delta() {
+        return movementType.sign() * quantity;
+    }
+}
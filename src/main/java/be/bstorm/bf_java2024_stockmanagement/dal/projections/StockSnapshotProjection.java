@@ -0,0 +1,26 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockSnapshot;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a {@link StockSnapshot}, holding the stock of one article at the start of a day.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code snapshotDate} - The day of the snapshot.</li>
+ * <li>{@code quantity} - The quantity of the article in stock at the start of the day.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockSnapshot
+ */
+public record StockSnapshotProjection(
+        UUID articleId,
+        LocalDate snapshotDate,
+        int quantity
+) {
+}
@@ -0,0 +1,23 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.projections;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+
+import java.util.UUID;
+
+/**
+ * Read-only projection of the reorder threshold of a {@link Stock}.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code threshold} - The quantity below which the article must be reordered.</li>
+ * </ul>
+ * </p>
+ *
+ * @see Stock
+ */
+public record StockThresholdProjection(
+        UUID articleId,
+        int threshold
+) {
+}
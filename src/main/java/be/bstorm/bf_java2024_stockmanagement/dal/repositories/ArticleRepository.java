@@ -1,22 +1,56 @@
 package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
 
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDesignationProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDetailsProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.DesignationUtils;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Article} entities in the stock management system.
  * Extends {@link JpaRepository} to provide CRUD operations and custom queries for Article entities.
+ * Read-only listings select projections through constructor expressions, so they issue a single SQL statement
+ * and leave the persistence context empty.
  *
  * <p>Methods:
  * <ul>
- * <li>{@link #existsByDesignation(String)} - Checks if an article with a specified designation exists.</li>
- * <li>{@link #existsInOtherArticleByDesignation(UUID, String)} - Checks if an article with the specified designation exists in other articles.</li>
+ * <li>{@link #existsByDesignationKey(String)} - Checks if an article with a specified designation key exists.</li>
+ * <li>{@link #existsByDesignationKeyAndIdNot(String, UUID)} - Checks if an article other than the given one has the specified designation key.</li>
+ * <li>{@link #streamAllDesignationKeys()} - Streams the designation keys of all articles through a database cursor.</li>
+ * <li>{@link #existsActiveByPicture(String)} - Checks if an active article references the specified picture.</li>
  * <li>{@link #findAllActive()} - Finds all active (non-deleted) articles.</li>
+ * <li>{@link #findActiveById(UUID)} - Finds an active article by its ID.</li>
+ * <li>{@link #findAllByDesignationKeyIn(Collection)} - Finds the articles owning any of the given designation keys.</li>
+ * <li>{@link #findAllWithDetailsByIdIn(Collection)} - Finds articles by ID with their category and stock in one query.</li>
+ * <li>{@link #findAllActiveWithDetailsByIdIn(Collection)} - Finds active articles by ID with their category and stock in one query.</li>
+ * <li>{@link #findActiveIdsByIdIn(Collection)} - Finds which of the given IDs belong to active articles.</li>
+ * <li>{@link #findIdsByIdIn(Collection)} - Finds which of the given IDs belong to articles, deleted ones included.</li>
+ * <li>{@link #streamAllActive()} - Streams the summaries of all active articles through a database cursor.</li>
+ * <li>{@link #findActiveDetailsById(UUID)} - Finds the details of an active article in one statement.</li>
+ * <li>{@link #findActiveVersion()} - Computes the version of the set of active articles with one aggregate query.</li>
+ * <li>{@link #findVersionById(UUID)} - Computes the version of one active article with one aggregate query.</li>
+ * <li>{@link #findActiveFirstPage(Pageable)} - Finds the first page of active article summaries, ordered by designation and ID.</li>
+ * <li>{@link #findActivePageAfter(String, UUID, Pageable)} - Finds the page of active article summaries following a keyset cursor.</li>
+ * <li>{@link #repriceByFactor(UUID, VAT, BigDecimal)} - Multiplies the price of the matching active articles in one statement.</li>
+ * <li>{@link #repriceByAmount(UUID, VAT, long)} - Adds an amount to the price of the matching active articles in one statement.</li>
+ * <li>{@link #reassignVat(UUID, VAT, VAT)} - Changes the VAT rate of the matching active articles in one statement.</li>
  * </ul>
  * </p>
  *
@@ -27,23 +61,64 @@ import java.util.UUID;
 public interface ArticleRepository extends JpaRepository<Article, UUID> {
 
     /**
-     * Checks if an article with the specified designation exists, ignoring case.
+     * The number of rows fetched per database round trip by {@link #streamAllActive()}.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * The constructor expression selecting the columns of an {@link ArticleSummaryProjection}.
+     */
+    String SELECT_SUMMARY = "select new be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleSummaryProjection(" +
+            "a.id, a.designation, a.unitPriceExcludingTax, a.vat, c.designation, coalesce(s.currentQuantity, 0)) ";
+
+    /**
+     * The filter shared by the bulk repricing statements: active articles, optionally of one category and one VAT rate.
+     */
+    String REPRICING_FILTER = " where a.isDeleted = false" +
+            " and (:categoryId is null or a.category.id = :categoryId) and (:vat is null or a.vat = :vat)";
+
+    /**
+     * The joins and filter shared by the projection queries: active articles with their optional category and stock.
+     */
+    String FROM_ACTIVE = "from Article a left join a.category c left join a.stock s where a.isDeleted = false";
+
+    /**
+     * Checks if an article with the specified designation key exists, deleted or not.
+     * Runs as an {@code exists}-style probe on the unique index of the key, stopping at the first match.
      *
-     * @param designation The designation to check.
-     * @return {@code true} if an article with the specified designation exists; {@code false} otherwise.
+     * @param designationKey The normalized designation to check, see {@link DesignationUtils#toKey(String)}.
+     * @return {@code true} if an article with the specified designation key exists; {@code false} otherwise.
      */
-    @Query("select count(a) > 0 from Article a where a.designation ilike :designation")
-    boolean existsByDesignation(String designation);
+    boolean existsByDesignationKey(String designationKey);
 
     /**
-     * Checks if an article with the specified designation exists in other articles (i.e., excluding the given article ID).
+     * Checks if an article other than the given one has the specified designation key, deleted or not.
+     * Runs as an {@code exists}-style probe on the unique index of the key, stopping at the first match.
      *
+     * @param designationKey The normalized designation to check, see {@link DesignationUtils#toKey(String)}.
      * @param id The ID of the article to exclude from the check.
-     * @param designation The designation to check.
-     * @return {@code true} if another article with the specified designation exists; {@code false} otherwise.
+     * @return {@code true} if another article with the specified designation key exists; {@code false} otherwise.
+     */
+    boolean existsByDesignationKeyAndIdNot(String designationKey, UUID id);
+
+    /**
+     * Streams the designation keys of all articles, deleted or not, through a server-side cursor.
+     * The returned {@link Stream} must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A {@link Stream} of designation keys.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select a.designationKey from Article a")
+    Stream<String> streamAllDesignationKeys();
+
+    /**
+     * Checks if an active article references the specified picture.
+     *
+     * @param picture The path of the picture, relative to the images directory.
+     * @return {@code true} if an active article references the picture; {@code false} otherwise.
      */
-    @Query("select count(a) > 0 from Article a where a.id != :id and a.designation = :designation")
-    boolean existsInOtherArticleByDesignation(UUID id, String designation);
+    @Query("select count(a) > 0 from Article a where a.isDeleted = false and a.picture = :picture")
+    boolean existsActiveByPicture(String picture);
 
     /**
      * Finds all active (non-deleted) articles.
@@ -53,12 +128,168 @@ public interface ArticleRepository extends JpaRepository<Article, UUID> {
     @Query("select a from Article a where a.isDeleted = false")
     List<Article> findAllActive();
 
-//    /**
-//     * Finds an active article by its ID, if it exists and is not marked as deleted.
-//     *
-//     * @param id The ID of the article to find.
-//     * @return An {@link Optional} containing the active article, if found.
-//     */
-//    @Query("select a from Article a where a.id = :id and a.isDeleted = false")
-//    Optional<Article> findActiveById(UUID id);
+    /**
+     * Finds the ID and designation key of every article, deleted or not, whose designation key is in the given collection.
+     * Checks a whole batch of designations for uniqueness in one indexed statement.
+     *
+     * @param designationKeys The designation keys to look for.
+     * @return A list of {@link ArticleDesignationProjection}, one per article owning one of the keys.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDesignationProjection(a.id, a.designationKey) " +
+            "from Article a where a.designationKey in :designationKeys")
+    List<ArticleDesignationProjection> findAllByDesignationKeyIn(Collection<String> designationKeys);
+
+    /**
+     * Finds the articles with the given IDs, fetching their category and stock in the same statement.
+     *
+     * @param ids The IDs of the articles to find.
+     * @return A list of the articles found; IDs that match no article are ignored.
+     */
+    @Query("select a from Article a left join fetch a.category left join fetch a.stock where a.id in :ids")
+    List<Article> findAllWithDetailsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Finds the active (non-deleted) articles with the given IDs, fetching their category and stock in the same statement.
+     *
+     * @param ids The IDs of the articles to find.
+     * @return A list of the active articles found; IDs that match no active article are ignored.
+     */
+    @Query("select a from Article a left join fetch a.category left join fetch a.stock where a.isDeleted = false and a.id in :ids")
+    List<Article> findAllActiveWithDetailsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Finds which of the given IDs belong to active (non-deleted) articles, without loading the articles.
+     *
+     * @param ids The IDs to check.
+     * @return A list of the IDs of the active articles among them.
+     */
+    @Query("select a.id from Article a where a.isDeleted = false and a.id in :ids")
+    List<UUID> findActiveIdsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Finds which of the given IDs belong to articles, deleted or not, without loading the articles.
+     *
+     * @param ids The IDs to check.
+     * @return A list of the IDs of the articles among them.
+     */
+    @Query("select a.id from Article a where a.id in :ids")
+    List<UUID> findIdsByIdIn(Collection<UUID> ids);
+
+    /**
+     * Streams the summaries of all active (non-deleted) articles through a server-side cursor.
+     * Rows are fetched from the database {@value #STREAM_FETCH_SIZE} at a time instead of being materialized
+     * into a single list. The returned {@link Stream} must be consumed inside a transaction and closed afterwards.
+     *
+     * @return A {@link Stream} of {@link ArticleSummaryProjection}, one per active article.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query(SELECT_SUMMARY + FROM_ACTIVE)
+    Stream<ArticleSummaryProjection> streamAllActive();
+
+    /**
+     * Finds the details of an active (non-deleted) article in a single joined SQL statement.
+     *
+     * @param id The ID of the article to find.
+     * @return An {@link Optional} containing the {@link ArticleDetailsProjection} of the article, if found and active.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleDetailsProjection(" +
+            "a.id, a.designation, a.unitPriceExcludingTax, a.vat, a.picture, c.designation, coalesce(s.currentQuantity, 0)) " +
+            FROM_ACTIVE + " and a.id = :id")
+    Optional<ArticleDetailsProjection> findActiveDetailsById(UUID id);
+
+    /**
+     * Computes the version of the set of active articles: their count and the latest update of any article
+     * (deleted ones included, so that logical deletions are seen), category or stock, in a single aggregate statement.
+     * Scans the active set, so callers cache the result until the next write.
+     *
+     * @return The {@link ArticleVersionProjection} of the active articles.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection(" +
+            "coalesce(sum(case when a.isDeleted = false then 1L else 0L end), 0L), max(a.updatedAt), max(c.updatedAt), max(s.updatedAt)) " +
+            "from Article a left join a.category c left join a.stock s")
+    ArticleVersionProjection findActiveVersion();
+
+    /**
+     * Computes the version of one active article: the latest update of the article, its category or its stock,
+     * in a single aggregate statement.
+     *
+     * @param id The ID of the article.
+     * @return The {@link ArticleVersionProjection} of the article, with a count of {@code 0} if it is not found or deleted.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.ArticleVersionProjection(" +
+            "count(a), max(a.updatedAt), max(c.updatedAt), max(s.updatedAt)) " +
+            FROM_ACTIVE + " and a.id = :id")
+    ArticleVersionProjection findVersionById(UUID id);
+
+    /**
+     * Finds the first page of active (non-deleted) article summaries, ordered by designation then ID.
+     * Only the page size of the {@link Pageable} is used; no offset is ever applied.
+     *
+     * @param pageable The page size to fetch.
+     * @return The first page of active article summaries.
+     */
+    @Query(SELECT_SUMMARY + FROM_ACTIVE + " order by a.designation, a.id")
+    List<ArticleSummaryProjection> findActiveFirstPage(Pageable pageable);
+
+    /**
+     * Finds the page of active (non-deleted) article summaries that directly follows the given keyset position.
+     * The row value comparison lets the database seek into the {@code (designation, id)} index, so the cost
+     * of a page does not depend on how deep the client has paged.
+     *
+     * @param designation The designation of the last article of the previous page.
+     * @param id The ID of the last article of the previous page.
+     * @param pageable The page size to fetch.
+     * @return The next page of active article summaries.
+     */
+    @Query(SELECT_SUMMARY + FROM_ACTIVE + " and (a.designation, a.id) > (:designation, :id) order by a.designation, a.id")
+    List<ArticleSummaryProjection> findActivePageAfter(String designation, UUID id, Pageable pageable);
+
+    /**
+     * Multiplies the unit price excluding tax of every matching active article by the given factor, in a single statement.
+     * The new price is rounded half up to the cent and never goes below zero.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param factor The factor to apply (e.g. {@code 1.05} for +5%).
+     * @return The number of articles repriced.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Article a set a.unitPriceExcludingTax = cast(greatest(0, round(a.unitPriceExcludingTax * :factor, 0)) as long)," +
+            " a.updatedAt = local datetime" + REPRICING_FILTER)
+    int repriceByFactor(UUID categoryId, VAT vat, BigDecimal factor);
+
+    /**
+     * Adds the given amount to the unit price excluding tax of every matching active article, in a single statement.
+     * The new price never goes below zero.
+     *
+     * @param categoryId The category of the articles to reprice, or {@code null} for all categories.
+     * @param vat The VAT rate of the articles to reprice, or {@code null} for all rates.
+     * @param amount The amount to add in cents, possibly negative.
+     * @return The number of articles repriced.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Article a set a.unitPriceExcludingTax = greatest(0, a.unitPriceExcludingTax + :amount)," +
+            " a.updatedAt = local datetime" + REPRICING_FILTER)
+    int repriceByAmount(UUID categoryId, VAT vat, long amount);
+
+    /**
+     * Reassigns every matching active article to the given VAT rate, in a single statement.
+     *
+     * @param categoryId The category of the articles to change, or {@code null} for all categories.
+     * @param vat The current VAT rate of the articles to change, or {@code null} for all rates.
+     * @param newVat The VAT rate to assign.
+     * @return The number of articles changed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Article a set a.vat = :newVat, a.updatedAt = local datetime" + REPRICING_FILTER)
+    int reassignVat(UUID categoryId, VAT vat, VAT newVat);
+
+    /**
+     * Finds an active article by its ID, if it exists and is not marked as deleted.
+     *
+     * @param id The ID of the article to find.
+     * @return An {@link Optional} containing the active article, if found.
+     */
+    @Query("select a from Article a where a.id = :id and a.isDeleted = false")
+    Optional<Article> findActiveById(UUID id);
 }
@@ -0,0 +1,82 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDailyRollup;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDailyRollupId;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link StockDailyRollup} entities in the stock management system.
+ * Rollups are kept up to date by the inserts of {@link StockMovementRepository}; this repository rebuilds them from
+ * the history and reads them. Totals over a date range read one rollup per article, day and type, never the movements.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #rebuild(LocalDateTime, LocalDateTime)} - Recomputes the rollups of a period from the movements.</li>
+ * <li>{@link #findDailyTotalsByArticleId(UUID, LocalDate, LocalDate)} - Totals the movements of an article per day and type.</li>
+ * <li>{@link #findDailyTotals(LocalDate, LocalDate)} - Totals the movements of all articles per day and type.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyRollup
+ * @see JpaRepository
+ */
+@Repository
+public interface StockDailyRollupRepository extends JpaRepository<StockDailyRollup, StockDailyRollupId> {
+
+    /**
+     * Recomputes the rollups of a period from the movements, in one statement, replacing the existing rollups of the
+     * same article, day and type. Meant for whole past days, which no longer receive movements.
+     *
+     * @param from The start of the period, inclusive.
+     * @param to The end of the period, exclusive.
+     * @return The number of rollups created or replaced.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into stock_daily_rollup (article_id, day, movement_type, quantity, movement_count) " +
+            "select m.article_id, cast(m.movement_date as date), m.movement_type, sum(m.quantity), count(*) " +
+            "from stock_movement m where m.movement_date >= :from and m.movement_date < :to " +
+            "group by m.article_id, cast(m.movement_date as date), m.movement_type " +
+            "order by m.article_id, cast(m.movement_date as date), m.movement_type " +
+            "on conflict (article_id, day, movement_type) do update " +
+            "set quantity = excluded.quantity, movement_count = excluded.movement_count",
+            nativeQuery = true)
+    int rebuild(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Totals the movements of an article per day and type over a date range, reading the primary key range of the article.
+     *
+     * @param articleId The ID of the article.
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return A list of {@link StockDailyTotalProjection}, ordered by day then type; days without movements are absent.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection(" +
+            "r.id.day, r.id.movementType, sum(r.quantity), sum(r.movementCount)) " +
+            "from StockDailyRollup r where r.id.articleId = :articleId and r.id.day between :from and :to " +
+            "group by r.id.day, r.id.movementType order by r.id.day, r.id.movementType")
+    List<StockDailyTotalProjection> findDailyTotalsByArticleId(UUID articleId, LocalDate from, LocalDate to);
+
+    /**
+     * Totals the movements of all articles per day and type over a date range, reading the rollups through their day index.
+     *
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return A list of {@link StockDailyTotalProjection}, ordered by day then type; days without movements are absent.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDailyTotalProjection(" +
+            "r.id.day, r.id.movementType, sum(r.quantity), sum(r.movementCount)) " +
+            "from StockDailyRollup r where r.id.day between :from and :to " +
+            "group by r.id.day, r.id.movementType order by r.id.day, r.id.movementType")
+    List<StockDailyTotalProjection> findDailyTotals(LocalDate from, LocalDate to);
+}
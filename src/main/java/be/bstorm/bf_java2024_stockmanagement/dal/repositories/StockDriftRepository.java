@@ -0,0 +1,58 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link StockDrift} entities in the stock management system.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #insertAll(UUID, String, String, String, boolean)} - Inserts the drifts of a partition in one statement.</li>
+ * <li>{@link #findAllByReconciliationId(UUID)} - Finds the drifts found by a run.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDrift
+ * @see JpaRepository
+ */
+@Repository
+public interface StockDriftRepository extends JpaRepository<StockDrift, UUID> {
+
+    /**
+     * Inserts the drifts found in a partition in one statement. The three arrays are unnested side by side,
+     * so the n-th drift is made of the n-th element of each.
+     *
+     * @param reconciliationId The ID of the run.
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal.
+     * @param stockQuantities The quantities of the stocks, as an {@code int[]} literal.
+     * @param movementQuantities The signed sums of the movements, as a {@code bigint[]} literal.
+     * @param repaired Whether the stocks were corrected.
+     * @return The number of drifts inserted.
+     */
+    @Modifying
+    @Query(value = "insert into stock_drift (id, stock_quantity, movement_quantity, repaired, reconciliation_id, article_id, created_at, updated_at) " +
+            "select gen_random_uuid(), d.stock_quantity, d.movement_quantity, :repaired, :reconciliationId, d.article_id, now(), now() " +
+            "from unnest(cast(:articleIds as uuid[]), cast(:stockQuantities as int[]), cast(:movementQuantities as bigint[])) " +
+            "as d(article_id, stock_quantity, movement_quantity)",
+            nativeQuery = true)
+    int insertAll(UUID reconciliationId, String articleIds, String stockQuantities, String movementQuantities, boolean repaired);
+
+    /**
+     * Finds the drifts found by a run, ordered by article.
+     *
+     * @param reconciliationId The ID of the run.
+     * @return A list of {@link StockDriftProjection}.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection(" +
+            "d.article.id, d.stockQuantity, d.movementQuantity, d.repaired) " +
+            "from StockDrift d where d.reconciliation.id = :reconciliationId order by d.article.id")
+    List<StockDriftProjection> findAllByReconciliationId(UUID reconciliationId);
+}
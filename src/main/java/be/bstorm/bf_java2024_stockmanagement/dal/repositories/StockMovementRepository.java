@@ -1,22 +1,52 @@
 package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
 
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockMovement;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Repository interface for managing {@link StockMovement} entities in the stock management system.
- * Extends {@link JpaRepository} to provide CRUD operations for StockMovement entities and includes a stored procedure to insert a stock movement.
+ * Extends {@link JpaRepository} to provide CRUD operations for StockMovement entities, plus native inserts of movements;
+ * the stock itself is changed through {@link StockRepository}. The inserts also add the movements to their
+ * {@code stock_daily_rollup} rows in the same statement, so the rollups can never miss a movement.
  *
  * <p>Methods:
  * <ul>
- * <li>{@link #insertStockMovement(UUID, String, int)} - Executes the stored procedure {@code InsertStockMovement} to insert a new stock movement entry.</li>
+ * <li>{@link #insertOne(UUID, String, int)} - Inserts a stock movement and rolls it up, in one statement.</li>
+ * <li>{@link #insertAll(String, String, String)} - Inserts a batch of stock movements and rolls them up, in one statement.</li>
+ * <li>{@link #insertAllDated(String, String, String, String)} - Inserts a batch of stock movements with their own dates and rolls them up, in one statement.</li>
+ * <li>{@link #sumByArticleIdInBetween(Collection, LocalDateTime, LocalDateTime)} - Totals the movements of articles over a period, by type.</li>
+ * <li>{@link #sumByArticleIdInUntil(Collection, LocalDateTime)} - Totals the movements of articles up to a date, by type.</li>
+ * <li>{@link #sumByArticleIdBetween(UUID, UUID)} - Totals all the movements of the articles within a range of IDs, by type.</li>
+ * <li>{@link #findPageByArticleIdBefore(UUID, StockMovementType, LocalDateTime, LocalDateTime, UUID, Pageable)} - Retrieves one keyset page of the movements of an article.</li>
+ * <li>{@link #findPageBefore(StockMovementType, LocalDateTime, LocalDateTime, UUID, Pageable)} - Retrieves one keyset page of the movements of all articles.</li>
+ * <li>{@link #findFirstMovementDate()} - Finds the date of the oldest movement.</li>
+ * <li>{@link #isPartitioned()} - Checks whether the movements are partitioned by month.</li>
+ * <li>{@link #findPartitionNames()} - Finds the names of the partitions of the movements.</li>
  * </ul>
  * </p>
  *
+ * <p>History pages are ordered by {@code (movement_date, id)} descending and start strictly before a position,
+ * so no offset is ever scanned. Movements of one article are read from the {@code (article_id, movement_date)} index;
+ * movements of all articles within a date range rely on the BRIN index on {@code movement_date}
+ * (see {@code sql/StockMovementHistory.sql}). Only projections are returned, the articles are never loaded.</p>
+ *
+ * <p>Once migrated by {@code sql/StockMovementPartitioning.sql}, {@code stock_movement} is partitioned by month on
+ * {@code movement_date}. Every query bounded in time compares {@code movement_date} itself with its bounds, so the
+ * database only reads the partitions of the period; a row-value comparison alone would not prune any partition.</p>
+ *
  * @see StockMovement
  * @see JpaRepository
  */
@@ -24,16 +54,200 @@ import java.util.UUID;
 public interface StockMovementRepository extends JpaRepository<StockMovement, UUID> {
 
     /**
-     * Executes the stored procedure {@code InsertStockMovement} to insert a new stock movement entry.
+     * Adds the movements returned by a common table expression {@code m} to their daily rollups.
+     */
+    String ROLLUP_MOVEMENTS = "insert into stock_daily_rollup (article_id, day, movement_type, quantity, movement_count) " +
+            "select m.article_id, cast(m.movement_date as date), m.movement_type, sum(m.quantity), count(*) from m " +
+            "group by m.article_id, cast(m.movement_date as date), m.movement_type " +
+            "order by m.article_id, cast(m.movement_date as date), m.movement_type " +
+            "on conflict (article_id, day, movement_type) do update " +
+            "set quantity = stock_daily_rollup.quantity + excluded.quantity, " +
+            "movement_count = stock_daily_rollup.movement_count + excluded.movement_count";
+
+    /**
+     * Inserts a stock movement, dated now, and adds it to the rollup of its article, day and type, in one statement;
+     * the stock is not changed.
      *
      * @param articleId The ID of the article associated with the stock movement.
-     * @param movementType The type of stock movement (e.g., STOCK_IN, STOCK_OUT).
+     * @param movementType The name of the type of stock movement (e.g., STOCK_IN, STOCK_OUT).
      * @param quantity The quantity involved in the stock movement.
+     * @return The number of rollups created or updated, {@code 1}.
      */
-    @Procedure(procedureName = "InsertStockMovement")
-    void insertStockMovement(
+    @Transactional
+    @Modifying
+    @Query(value = "with m as (" +
+            "insert into stock_movement (id, movement_type, quantity, movement_date, article_id, created_at, updated_at) " +
+            "values (gen_random_uuid(), :movementType, :quantity, now(), :articleId, now(), now()) " +
+            "returning article_id, movement_type, quantity, movement_date) " +
+            ROLLUP_MOVEMENTS,
+            nativeQuery = true)
+    int insertOne(
             UUID articleId,
             String movementType,
             int quantity
     );
+
+    /**
+     * Inserts a batch of stock movements, dated now, in one statement. The three arrays are unnested side by side,
+     * so the n-th movement is made of the n-th element of each. The movements are added to the rollups of their
+     * article, day and type by the same statement, rollup rows being locked in key order; the stocks are not changed.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal.
+     * @param movementTypes The names of the movement types, as a {@code varchar[]} literal.
+     * @param quantities The quantities moved, as an {@code int[]} literal.
+     * @return The number of rollups created or updated.
+     */
+    @Modifying
+    @Query(value = "with m as (" +
+            "insert into stock_movement (id, movement_type, quantity, movement_date, article_id, created_at, updated_at) " +
+            "select gen_random_uuid(), u.movement_type, u.quantity, now(), u.article_id, now(), now() " +
+            "from unnest(cast(:articleIds as uuid[]), cast(:movementTypes as varchar[]), cast(:quantities as int[])) " +
+            "as u(article_id, movement_type, quantity) " +
+            "returning article_id, movement_type, quantity, movement_date) " +
+            ROLLUP_MOVEMENTS,
+            nativeQuery = true)
+    int insertAll(String articleIds, String movementTypes, String quantities);
+
+    /**
+     * Inserts a batch of stock movements with their own dates, in one statement, like
+     * {@link #insertAll(String, String, String)}; the movements are rolled up on the day of their date.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal.
+     * @param movementTypes The names of the movement types, as a {@code varchar[]} literal.
+     * @param quantities The quantities moved, as an {@code int[]} literal.
+     * @param movementDates The dates of the movements, as a {@code timestamp[]} literal.
+     * @return The number of rollups created or updated.
+     */
+    @Modifying
+    @Query(value = "with m as (" +
+            "insert into stock_movement (id, movement_type, quantity, movement_date, article_id, created_at, updated_at) " +
+            "select gen_random_uuid(), u.movement_type, u.quantity, u.movement_date, u.article_id, now(), now() " +
+            "from unnest(cast(:articleIds as uuid[]), cast(:movementTypes as varchar[]), cast(:quantities as int[]), " +
+            "cast(:movementDates as timestamp[])) " +
+            "as u(article_id, movement_type, quantity, movement_date) " +
+            "returning article_id, movement_type, quantity, movement_date) " +
+            ROLLUP_MOVEMENTS,
+            nativeQuery = true)
+    int insertAllDated(String articleIds, String movementTypes, String quantities, String movementDates);
+
+    /**
+     * Totals the movements of the given articles dated within a period, by article and type.
+     * Reads the {@code (article_id, movement_date)} index range of each article.
+     *
+     * @param articleIds The IDs of the articles.
+     * @param from The start of the period, inclusive.
+     * @param to The end of the period, inclusive.
+     * @return A list of {@link StockMovementTotalProjection}, one per article and type that moved in the period.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection(" +
+            "m.article.id, m.movementType, sum(m.quantity)) " +
+            "from StockMovement m where m.article.id in :articleIds and m.movementDate >= :from and m.movementDate <= :to " +
+            "group by m.article.id, m.movementType")
+    List<StockMovementTotalProjection> sumByArticleIdInBetween(Collection<UUID> articleIds, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Totals all the movements of the given articles dated up to a date, by article and type.
+     * Used for articles that have no snapshot yet.
+     *
+     * @param articleIds The IDs of the articles.
+     * @param to The last date to consider, inclusive.
+     * @return A list of {@link StockMovementTotalProjection}, one per article and type that moved before the date.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection(" +
+            "m.article.id, m.movementType, sum(m.quantity)) " +
+            "from StockMovement m where m.article.id in :articleIds and m.movementDate <= :to " +
+            "group by m.article.id, m.movementType")
+    List<StockMovementTotalProjection> sumByArticleIdInUntil(Collection<UUID> articleIds, LocalDateTime to);
+
+    /**
+     * Totals all the movements of the articles whose ID lies within a range, by article and type, so that only
+     * a few rows per article leave the database.
+     *
+     * @param from The first ID of the range, inclusive.
+     * @param to The last ID of the range, inclusive.
+     * @return A list of {@link StockMovementTotalProjection}, one per article of the range and type that moved.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementTotalProjection(" +
+            "m.article.id, m.movementType, sum(m.quantity)) " +
+            "from StockMovement m where m.article.id between :from and :to " +
+            "group by m.article.id, m.movementType")
+    List<StockMovementTotalProjection> sumByArticleIdBetween(UUID from, UUID to);
+
+    /**
+     * Retrieves one page of the movements of an article, most recent first, starting strictly before a position.
+     *
+     * @param articleId The ID of the article.
+     * @param movementType The type of the movements, or {@code null} for all types.
+     * @param from The earliest movement date, inclusive.
+     * @param beforeDate The movement date of the position to start before.
+     * @param beforeId The ID of the position to start before, breaking ties between movements of the same date.
+     * @param pageable The size of the page.
+     * @return A list of {@link StockMovementProjection}, ordered by date then ID, descending.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection(" +
+            "m.id, m.article.id, m.movementType, m.quantity, m.movementDate) " +
+            "from StockMovement m where m.article.id = :articleId and m.movementDate >= :from " +
+            "and m.movementDate <= :beforeDate and (m.movementDate, m.id) < (:beforeDate, :beforeId) " +
+            "and (:movementType is null or m.movementType = :movementType) " +
+            "order by m.movementDate desc, m.id desc")
+    List<StockMovementProjection> findPageByArticleIdBefore(
+            UUID articleId,
+            StockMovementType movementType,
+            LocalDateTime from,
+            LocalDateTime beforeDate,
+            UUID beforeId,
+            Pageable pageable
+    );
+
+    /**
+     * Retrieves one page of the movements of all articles, most recent first, starting strictly before a position.
+     *
+     * @param movementType The type of the movements, or {@code null} for all types.
+     * @param from The earliest movement date, inclusive.
+     * @param beforeDate The movement date of the position to start before.
+     * @param beforeId The ID of the position to start before, breaking ties between movements of the same date.
+     * @param pageable The size of the page.
+     * @return A list of {@link StockMovementProjection}, ordered by date then ID, descending.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockMovementProjection(" +
+            "m.id, m.article.id, m.movementType, m.quantity, m.movementDate) " +
+            "from StockMovement m where m.movementDate >= :from " +
+            "and m.movementDate <= :beforeDate and (m.movementDate, m.id) < (:beforeDate, :beforeId) " +
+            "and (:movementType is null or m.movementType = :movementType) " +
+            "order by m.movementDate desc, m.id desc")
+    List<StockMovementProjection> findPageBefore(
+            StockMovementType movementType,
+            LocalDateTime from,
+            LocalDateTime beforeDate,
+            UUID beforeId,
+            Pageable pageable
+    );
+
+    /**
+     * Finds the date of the oldest movement, where the history starts.
+     *
+     * @return The date of the oldest movement, or {@code null} if there is none.
+     */
+    @Query("select min(m.movementDate) from StockMovement m")
+    LocalDateTime findFirstMovementDate();
+
+    /**
+     * Checks whether {@code stock_movement} is partitioned, which is only the case once
+     * {@code sql/StockMovementPartitioning.sql} has been run; a schema created by Hibernate is not.
+     *
+     * @return {@code true} if the table is partitioned.
+     */
+    @Query(value = "select exists (select 1 from pg_partitioned_table p where p.partrelid = to_regclass('stock_movement'))",
+            nativeQuery = true)
+    boolean isPartitioned();
+
+    /**
+     * Finds the names of the partitions attached to {@code stock_movement}, the default one included.
+     *
+     * @return The names of the partitions, in alphabetical order, hence monthly partitions in chronological order.
+     */
+    @Query(value = "select cast(c.relname as varchar) from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+            "where i.inhparent = to_regclass('stock_movement') order by c.relname",
+            nativeQuery = true)
+    List<String> findPartitionNames();
 }
@@ -0,0 +1,98 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link StockReconciliation} entities in the stock management system.
+ * The progress of a run is updated with relative statements, so the partitions finishing concurrently never
+ * overwrite each other's progress.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #findFirstByFinishedAtIsNullOrderByCreatedAtDesc()} - Finds the latest unfinished run.</li>
+ * <li>{@link #markPartitionDone(UUID, int, int, int, int)} - Records a partition as done and adds its counts to the run.</li>
+ * <li>{@link #markFinished(UUID, LocalDateTime)} - Records the end of a run.</li>
+ * <li>{@link #markFailed(UUID, LocalDateTime, String)} - Records the error that stopped a run.</li>
+ * <li>{@link #clearFailure(UUID)} - Clears the error of a run being resumed.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockReconciliation
+ * @see JpaRepository
+ */
+@Repository
+public interface StockReconciliationRepository extends JpaRepository<StockReconciliation, UUID> {
+
+    /**
+     * Finds the latest run that did not finish, which is resumed instead of starting a new one.
+     *
+     * @return An {@link Optional} containing the unfinished run, if any.
+     */
+    Optional<StockReconciliation> findFirstByFinishedAtIsNullOrderByCreatedAtDesc();
+
+    /**
+     * Records a partition as done and adds its counts to the run, in one statement.
+     *
+     * @param id The ID of the run.
+     * @param partition The index of the partition.
+     * @param checked The number of articles checked in the partition.
+     * @param drifted The number of articles of the partition whose stock drifted.
+     * @param repaired The number of articles of the partition repaired.
+     * @return The number of runs updated.
+     */
+    @Modifying
+    @Query(value = "update stock_reconciliation " +
+            "set completed_partitions = set_bit(completed_partitions, :partition, 1), " +
+            "checked_articles = checked_articles + :checked, " +
+            "drifted_articles = drifted_articles + :drifted, " +
+            "repaired_articles = repaired_articles + :repaired, " +
+            "updated_at = now() " +
+            "where id = :id",
+            nativeQuery = true)
+    int markPartitionDone(UUID id, int partition, int checked, int drifted, int repaired);
+
+    /**
+     * Records the end of a run.
+     *
+     * @param id The ID of the run.
+     * @param finishedAt The date and time the run finished.
+     * @return The number of runs updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("update StockReconciliation r set r.finishedAt = :finishedAt where r.id = :id")
+    int markFinished(UUID id, LocalDateTime finishedAt);
+
+    /**
+     * Records the error that stopped a run; the run stays unfinished, so it can be resumed.
+     *
+     * @param id The ID of the run.
+     * @param failedAt The date and time the run stopped.
+     * @param error The error that stopped the run.
+     * @return The number of runs updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("update StockReconciliation r set r.failedAt = :failedAt, r.error = :error where r.id = :id")
+    int markFailed(UUID id, LocalDateTime failedAt, String error);
+
+    /**
+     * Clears the error of a run, when it is resumed.
+     *
+     * @param id The ID of the run.
+     * @return The number of runs updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("update StockReconciliation r set r.failedAt = null, r.error = null where r.id = :id")
+    int clearFailure(UUID id);
+}
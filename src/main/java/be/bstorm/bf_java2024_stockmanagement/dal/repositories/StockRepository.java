@@ -1,20 +1,204 @@
 package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
 
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockThresholdProjection;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.Stock;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.SqlArrayUtils;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Repository interface for managing {@link Stock} entities in the stock management system.
  * Extends {@link JpaRepository} to provide CRUD operations for Stock entities.
+ * Batch statements take their values as PostgreSQL array literals (e.g. {@code {a,b,c}}), unnested into rows,
+ * so that any number of articles is handled by one statement with a fixed number of parameters.
  *
- * <p>Provides basic CRUD functionality, including saving, finding, and deleting stock records by UUID.</p>
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #upsertDelta(UUID, int)} - Adds a positive delta to the stock of an article, creating it if needed, and returns the new quantity.</li>
+ * <li>{@link #upsertDeltas(String, String)} - Adds a signed delta to the stock of each of the given articles that has enough, creating missing stocks.</li>
+ * <li>{@link #insertMissing(String, String)} - Creates the stock of each of the given articles that has none, for non-negative deltas.</li>
+ * <li>{@link #lockAll(String)} - Locks the existing stocks of the given articles in article ID order.</li>
+ * <li>{@link #incrementIfAvailable(String, String, String)} - Adds a signed delta to the existing stock of each of the given articles that has enough.</li>
+ * <li>{@link #decrementIfAvailable(UUID, int)} - Subtracts a quantity from the stock of an article only if it has enough.</li>
+ * <li>{@link #findLevelsByArticleIdIn(Collection)} - Finds the current quantities of the given articles.</li>
+ * <li>{@link #upsertThreshold(UUID, Integer)} - Sets the reorder threshold of an article, creating its stock if needed, and returns its quantity.</li>
+ * <li>{@link #findAllThresholds()} - Finds the reorder thresholds of all monitored articles.</li>
+ * <li>{@link #findLevelsByArticleIdBetween(UUID, UUID)} - Finds the current quantities of the articles within a range of IDs.</li>
+ * </ul>
+ * </p>
  *
  * @see Stock
  * @see JpaRepository
  */
 @Repository
 public interface StockRepository extends JpaRepository<Stock, UUID> {
+
+    /**
+     * Adds a delta to the stock of an article in a single atomic statement, creating the stock with the delta
+     * as quantity if the article has none yet, and returns the resulting quantity. The row lock taken by the upsert
+     * serializes concurrent movements of the same article, so none of them is lost.
+     * Decreases go through {@link #decrementIfAvailable(UUID, int)} instead, which never takes the stock below zero.
+     *
+     * @param articleId The ID of the article.
+     * @param delta The change of the stock, not negative.
+     * @return The quantity in stock after the change.
+     */
+    @Transactional
+    @Query(value = "insert into stock (id, current_quantity, article_id, created_at, updated_at) " +
+            "values (gen_random_uuid(), :delta, :articleId, now(), now()) " +
+            "on conflict (article_id) do update " +
+            "set current_quantity = stock.current_quantity + excluded.current_quantity, updated_at = now() " +
+            "returning current_quantity",
+            nativeQuery = true)
+    int upsertDelta(UUID articleId, int delta);
+
+    /**
+     * Adds a signed delta to the stock of each of the given articles, creating the missing stocks.
+     * The two arrays are unnested side by side, so the n-th delta applies to the n-th article.
+     * A stock is never taken below zero: a negative delta is skipped if the article has no stock, and the update is
+     * skipped if the stock, evaluated on the locked row, does not hold enough. The caller compares the returned IDs
+     * with the ones it sent, and rolls back if it needs all of them applied.
+     * The proposed row of an {@code insert ... on conflict do update} must pass the
+     * {@code stock_current_quantity_non_negative} check before the conflict is resolved, so a negative delta cannot
+     * go through one upsert. Missing stocks are therefore inserted first with {@link #insertMissing}, then the others
+     * are locked in article ID order with {@link #lockAll} and updated with {@link #incrementIfAvailable}. Each runs
+     * as its own statement so that, under read committed, it sees the stocks a concurrent batch has just inserted.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal, each appearing once.
+     * @param deltas The net change of each stock, as an {@code int[]} literal.
+     * @return The IDs of the articles whose stock was created or updated.
+     */
+    @Transactional
+    default List<UUID> upsertDeltas(String articleIds, String deltas) {
+        List<UUID> applied = new ArrayList<>(insertMissing(articleIds, deltas));
+        lockAll(articleIds);
+        applied.addAll(incrementIfAvailable(articleIds, deltas, SqlArrayUtils.toArrayLiteral(applied)));
+        return applied;
+    }
+
+    /**
+     * Creates the stock of each of the given articles that has none, with its delta as quantity. Negative deltas are
+     * left out, as are the articles that already have a stock. Rows are inserted in article ID order.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal, each appearing once.
+     * @param deltas The net change of each stock, as an {@code int[]} literal.
+     * @return The IDs of the articles whose stock was created.
+     */
+    @Transactional
+    @Query(value = "insert into stock (id, current_quantity, article_id, created_at, updated_at) " +
+            "select gen_random_uuid(), d.delta, d.article_id, now(), now() " +
+            "from unnest(cast(:articleIds as uuid[]), cast(:deltas as int[])) as d(article_id, delta) " +
+            "where d.delta >= 0 " +
+            "order by d.article_id " +
+            "on conflict (article_id) do nothing " +
+            "returning article_id",
+            nativeQuery = true)
+    List<UUID> insertMissing(String articleIds, String deltas);
+
+    /**
+     * Locks the existing stocks of the given articles in article ID order, so concurrent batches lock shared stocks
+     * in the same order and cannot deadlock, whatever order an update would visit them in.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal.
+     * @return The IDs of the articles whose stock was locked.
+     */
+    @Transactional
+    @Query(value = "select s.article_id from stock s " +
+            "where s.article_id = any(cast(:articleIds as uuid[])) " +
+            "order by s.article_id " +
+            "for update",
+            nativeQuery = true)
+    List<UUID> lockAll(String articleIds);
+
+    /**
+     * Adds a signed delta to the existing stock of each of the given articles that holds enough, the quantity being
+     * evaluated on the latest version of the row. The stocks should already be locked with {@link #lockAll}.
+     *
+     * @param articleIds The IDs of the articles, as a {@code uuid[]} literal, each appearing once.
+     * @param deltas The net change of each stock, as an {@code int[]} literal.
+     * @param excludedIds The IDs of the articles to leave out, such as those whose stock was just created with their
+     *                    delta, as a {@code uuid[]} literal.
+     * @return The IDs of the articles whose stock was updated.
+     */
+    @Transactional
+    @Query(value = "update stock s set current_quantity = s.current_quantity + d.delta, updated_at = now() " +
+            "from unnest(cast(:articleIds as uuid[]), cast(:deltas as int[])) as d(article_id, delta) " +
+            "where s.article_id = d.article_id " +
+            "and d.article_id <> all(cast(:excludedIds as uuid[])) " +
+            "and s.current_quantity + d.delta >= 0 " +
+            "returning s.article_id",
+            nativeQuery = true)
+    List<UUID> incrementIfAvailable(String articleIds, String deltas, String excludedIds);
+
+    /**
+     * Subtracts a quantity from the stock of an article in a single statement, only if the stock holds at least that
+     * quantity. The condition is evaluated on the row being updated, after any concurrent update of it has committed,
+     * so concurrent withdrawals can never drive the stock below zero, without any {@code select ... for update}.
+     *
+     * @param articleId The ID of the article.
+     * @param quantity The quantity to subtract, positive.
+     * @return The quantity in stock after the withdrawal, or {@code null} if the article has no stock or not enough.
+     */
+    @Transactional
+    @Query(value = "update stock set current_quantity = current_quantity - :quantity, updated_at = now() " +
+            "where article_id = :articleId and current_quantity >= :quantity " +
+            "returning current_quantity",
+            nativeQuery = true)
+    Integer decrementIfAvailable(UUID articleId, int quantity);
+
+    /**
+     * Finds the current quantities of the given articles.
+     *
+     * @param articleIds The IDs of the articles.
+     * @return A list of {@link StockLevelProjection}; articles without stock are ignored.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection(s.article.id, s.currentQuantity) " +
+            "from Stock s where s.article.id in :articleIds")
+    List<StockLevelProjection> findLevelsByArticleIdIn(Collection<UUID> articleIds);
+
+    /**
+     * Sets the reorder threshold of an article in a single statement, creating an empty stock if the article has none
+     * yet, and returns the current quantity.
+     *
+     * @param articleId The ID of the article.
+     * @param threshold The quantity below which the article must be reordered, or {@code null} to stop monitoring it.
+     * @return The quantity in stock.
+     */
+    @Transactional
+    @Query(value = "insert into stock (id, current_quantity, reorder_threshold, article_id, created_at, updated_at) " +
+            "values (gen_random_uuid(), 0, :threshold, :articleId, now(), now()) " +
+            "on conflict (article_id) do update " +
+            "set reorder_threshold = excluded.reorder_threshold, updated_at = now() " +
+            "returning current_quantity",
+            nativeQuery = true)
+    int upsertThreshold(UUID articleId, Integer threshold);
+
+    /**
+     * Finds the reorder thresholds of all monitored articles, those whose stock has a threshold.
+     *
+     * @return A list of {@link StockThresholdProjection}, one per monitored article.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockThresholdProjection(s.article.id, s.reorderThreshold) " +
+            "from Stock s where s.reorderThreshold is not null")
+    List<StockThresholdProjection> findAllThresholds();
+
+    /**
+     * Finds the current quantities of the articles whose ID lies within a range, reading the range of the
+     * {@code article_id} unique index.
+     *
+     * @param from The first ID of the range, inclusive.
+     * @param to The last ID of the range, inclusive.
+     * @return A list of {@link StockLevelProjection}, one per article of the range having a stock.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockLevelProjection(s.article.id, s.currentQuantity) " +
+            "from Stock s where s.article.id between :from and :to")
+    List<StockLevelProjection> findLevelsByArticleIdBetween(UUID from, UUID to);
 }
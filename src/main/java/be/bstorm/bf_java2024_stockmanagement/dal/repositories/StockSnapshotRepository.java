@@ -0,0 +1,74 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockSnapshotProjection;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockSnapshot;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link StockSnapshot} entities in the stock management system.
+ * Extends {@link JpaRepository} to provide CRUD operations for StockSnapshot entities, plus the native statement
+ * writing the snapshots of a day and the lookup of the nearest snapshot before a date.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #insertSnapshots(LocalDate, String)} - Writes the snapshots of a day for the articles that moved since their previous one.</li>
+ * <li>{@link #findLatestByArticleIdIn(Collection, LocalDate)} - Finds the latest snapshot of each article, up to a day.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockSnapshot
+ * @see JpaRepository
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, UUID> {
+
+    /**
+     * Writes the snapshots of a day in one statement: for each article having movements between its previous snapshot
+     * (or the beginning of its history) and the start of the day, the previous quantity plus those movements.
+     * Articles without movements are skipped, as their previous snapshot still holds. Days already snapshotted are
+     * left untouched, so the statement can be run again safely.
+     *
+     * @param day The day of the snapshots; only movements dated before its start are counted.
+     * @param positiveTypes The names of the movement types adding to the stock, as a {@code varchar[]} literal;
+     *                      the other types subtract from it.
+     * @return The number of snapshots written.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into stock_snapshot (id, article_id, snapshot_date, quantity, created_at, updated_at) " +
+            "select gen_random_uuid(), a.id, :day, coalesce(s.quantity, 0) + m.delta, now(), now() " +
+            "from article a " +
+            "left join lateral (select ps.snapshot_date, ps.quantity from stock_snapshot ps " +
+            "where ps.article_id = a.id and ps.snapshot_date < :day " +
+            "order by ps.snapshot_date desc limit 1) s on true " +
+            "join lateral (select sum(case when sm.movement_type = any(cast(:positiveTypes as varchar[])) " +
+            "then sm.quantity else -sm.quantity end) as delta from stock_movement sm " +
+            "where sm.article_id = a.id and sm.movement_date < :day " +
+            "and (s.snapshot_date is null or sm.movement_date >= s.snapshot_date)) m on m.delta is not null " +
+            "on conflict (article_id, snapshot_date) do nothing",
+            nativeQuery = true)
+    int insertSnapshots(LocalDate day, String positiveTypes);
+
+    /**
+     * Finds the latest snapshot of each of the given articles taken on or before a day.
+     * Each lookup is a descent of the {@code (article_id, snapshot_date)} unique index.
+     *
+     * @param articleIds The IDs of the articles.
+     * @param day The last day to consider.
+     * @return A list of {@link StockSnapshotProjection}, at most one per article; articles without snapshot are absent.
+     */
+    @Query("select new be.bstorm.bf_java2024_stockmanagement.dal.projections.StockSnapshotProjection(" +
+            "s.article.id, s.snapshotDate, s.quantity) " +
+            "from StockSnapshot s where s.article.id in :articleIds and s.snapshotDate = (" +
+            "select max(l.snapshotDate) from StockSnapshot l where l.article.id = s.article.id and l.snapshotDate <= :day)")
+    List<StockSnapshotProjection> findLatestByArticleIdIn(Collection<UUID> articleIds, LocalDate day);
+}
@@ -0,0 +1,104 @@
+package be.bstorm.bf_java2024_stockmanagement.dal.repositories;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StoredImage;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing {@link StoredImage} entities in the stock management system.
+ * Extends {@link JpaRepository} to provide CRUD operations, plus atomic reference counting statements.
+ * The reference count of an image is the number of active articles whose picture it is: it is changed in the
+ * transaction that changes the article, so a rolled back save never leaks a reference.
+ * The row of an image also guards its file: an upload and the sweeper both lock it before touching the file.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #register(String, long)} - Records an image written to the store, without any reference.</li>
+ * <li>{@link #acquire(String)} - Records a new reference to an image.</li>
+ * <li>{@link #release(String)} - Drops one reference to an image.</li>
+ * <li>{@link #findAllByPathIn(Collection)} - Finds the images stored at the given paths.</li>
+ * <li>{@link #deleteUnreferenced(String, LocalDateTime)} - Forgets an image if it is still unreferenced and past its grace period.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StoredImage
+ * @see JpaRepository
+ */
+@Repository
+public interface StoredImageRepository extends JpaRepository<StoredImage, UUID> {
+
+    /**
+     * Records an image written to the store, in a single upsert statement: the row is created without any reference,
+     * or its last update is moved to now if it already exists, which restarts the grace period of the sweeper.
+     * Either way the row stays locked until the end of the transaction, so the file can be written or reused
+     * without the sweeper removing it in between.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @param size The size of the image in bytes.
+     * @return The number of rows inserted or updated.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into stored_image (id, path, size, reference_count, created_at, updated_at) " +
+            "values (gen_random_uuid(), :path, :size, 0, now(), now()) " +
+            "on conflict (path) do update set updated_at = now()",
+            nativeQuery = true)
+    int register(String path, long size);
+
+    /**
+     * Records a new reference to the image stored at the given path. Meant to run in the transaction assigning
+     * the image to an article. Unknown paths are ignored.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @return The number of rows updated.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update stored_image set reference_count = reference_count + 1, updated_at = now() where path = :path",
+            nativeQuery = true)
+    int acquire(String path);
+
+    /**
+     * Drops one reference to the image stored at the given path, never below zero, and restarts its grace period.
+     * Meant to run in the transaction replacing or deleting the picture of an article.
+     * Unknown paths, such as images stored before the content-addressed store, are ignored.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @return The number of rows updated.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "update stored_image set reference_count = reference_count - 1, updated_at = now() " +
+            "where path = :path and reference_count > 0",
+            nativeQuery = true)
+    int release(String path);
+
+    /**
+     * Finds the images stored at the given paths, such as one chunk of files checked by the sweeper.
+     *
+     * @param paths The paths of the images, relative to the images directory.
+     * @return A list of the {@link StoredImage} found; paths without a row are ignored.
+     */
+    List<StoredImage> findAllByPathIn(Collection<String> paths);
+
+    /**
+     * Forgets the image stored at the given path if no article references it and it was last registered or released
+     * before the cutoff, checked on the locked row. Meant to run in the transaction removing the file, so an upload
+     * reusing the image waits for it, then writes the file again.
+     *
+     * @param path The path of the image, relative to the images directory.
+     * @param cutoff The instant before which an image is past its grace period.
+     * @return The number of rows deleted, {@code 0} if the image is referenced or still in its grace period.
+     */
+    @Modifying
+    @Query("delete from StoredImage i where i.path = :path and i.referenceCount = 0 and i.updatedAt < :cutoff")
+    int deleteUnreferenced(String path, LocalDateTime cutoff);
+}
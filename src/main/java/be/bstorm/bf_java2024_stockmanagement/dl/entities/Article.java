@@ -1,13 +1,12 @@
 package be.bstorm.bf_java2024_stockmanagement.dl.entities;
 
 import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.DesignationUtils;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.validator.constraints.Range;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.UUID;
 
 /**
@@ -18,6 +17,7 @@ import java.util.UUID;
  * <p>Fields:
  * <ul>
  * <li>{@code designation} - Unique designation for the article (required, max length 80).</li>
+ * <li>{@code designationKey} - Lower-cased, accent-folded designation, unique across all articles (derived).</li>
  * <li>{@code unitPriceExcludingTax} - Price before tax (required, non-negative).</li>
  * <li>{@code vat} - VAT rate for the article, represented as an enum (required).</li>
  * <li>{@code picture} - URL or path to the picture of the article (optional).</li>
@@ -31,6 +31,7 @@ import java.util.UUID;
  * <ul>
  * <li>{@link #getUnitPriceIncludingTax()} - Calculates the total price including tax.</li>
  * <li>{@link #getAddedValue()} - Computes the added value based on the VAT.</li>
+ * <li>{@link #computeDesignationKey()} - Derives the designation key before the article is written.</li>
  * </ul>
  * </p>
  *
@@ -40,21 +41,46 @@ import java.util.UUID;
  * @see Stock
  */
 @Entity
-@SQLDelete(sql = "update Article set is_deleted = true where id = ?")
+@Table(
+        indexes = @Index(name = "idx_article_designation_id", columnList = "designation, id"),
+        uniqueConstraints = {
+                @UniqueConstraint(name = Article.DESIGNATION_UNIQUE, columnNames = "designation"),
+                @UniqueConstraint(name = Article.DESIGNATION_KEY_UNIQUE, columnNames = "designation_key")
+        }
+)
+@SQLDelete(sql = "update Article set is_deleted = true, updated_at = now() where id = ?")
 @NoArgsConstructor
 @Getter
 @EqualsAndHashCode(callSuper = true, of = {"designation", "unitPriceExcludingTax", "vat", "category"})
 @ToString(callSuper = true, of = {"designation", "unitPriceExcludingTax", "vat", "category"})
 public class Article extends BaseEntity {
 
+    /**
+     * The name of the unique constraint on {@code designation}.
+     */
+    public static final String DESIGNATION_UNIQUE = "uk_article_designation";
+
+    /**
+     * The name of the unique constraint on {@code designation_key}.
+     */
+    public static final String DESIGNATION_KEY_UNIQUE = "uk_article_designation_key";
+
     /**
      * The unique designation of the article.
      * Cannot be null; max length of 80 characters.
      */
     @Setter
-    @Column(nullable = false, unique = true, length = 80)
+    @Column(nullable = false, length = 80)
     private String designation;
 
+    /**
+     * The normalized designation of the article, see {@link DesignationUtils#toKey(String)}.
+     * Derived from the designation before every insert and update; its unique index enforces case- and accent-insensitive
+     * uniqueness and serves the designation existence checks.
+     */
+    @Column(nullable = false, length = 160)
+    private String designationKey;
+
     /**
      * The unit price of the article before tax.
      * Must be non-negative.
@@ -166,18 +192,25 @@ public class Article extends BaseEntity {
      * @return The unit price including tax.
      */
     public long getUnitPriceIncludingTax() {
-        return getUnitPriceExcludingTax() + getAddedValue();
+        return this.vat.priceIncludingTax(this.unitPriceExcludingTax);
     }
 
     /**
      * Computes the added value, or tax amount, based on the unit price and VAT rate.
+     * The amount is rounded half up to the cent, without any allocation.
      *
      * @return The added value.
      */
     public long getAddedValue() {
-        BigDecimal vat = BigDecimal.valueOf(this.vat.value, 2);
-        BigDecimal priceTTE = BigDecimal.valueOf(this.unitPriceExcludingTax);
-        BigDecimal addedValue = priceTTE.multiply(vat);
-        return addedValue.setScale(0, RoundingMode.HALF_UP).longValue();
+        return this.vat.addedValue(this.unitPriceExcludingTax);
+    }
+
+    /**
+     * Derives the designation key from the designation before the article is inserted or updated.
+     */
+    @PrePersist
+    @PreUpdate
+    private void computeDesignationKey() {
+        this.designationKey = DesignationUtils.toKey(this.designation);
     }
 }
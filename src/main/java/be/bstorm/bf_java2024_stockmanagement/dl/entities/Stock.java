@@ -2,6 +2,7 @@ package be.bstorm.bf_java2024_stockmanagement.dl.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Check;
 
 import java.util.UUID;
 
@@ -11,8 +12,9 @@ import java.util.UUID;
  *
  * <p>Fields:
  * <ul>
- * <li>{@code currentQuantity} - The current quantity of the article in stock (required).</li>
- * <li>{@code article} - The article associated with this stock entry (one-to-one relationship).</li>
+ * <li>{@code currentQuantity} - The current quantity of the article in stock (required, never negative).</li>
+ * <li>{@code reorderThreshold} - The quantity below which the article must be reordered (optional).</li>
+ * <li>{@code article} - The article associated with this stock entry (one-to-one relationship, unique).</li>
  * </ul>
  * </p>
  *
@@ -26,6 +28,7 @@ import java.util.UUID;
  * @see Article
  */
 @Entity
+@Check(name = "stock_current_quantity_non_negative", constraints = "current_quantity >= 0")
 @Getter
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
@@ -34,17 +37,26 @@ public class Stock extends BaseEntity {
 
     /**
      * The current quantity of the article in stock.
-     * Must be non-negative.
+     * Must be non-negative, which a check constraint enforces as a last resort behind the guarded statements.
      */
     @Column(nullable = false)
     @Setter
     private int currentQuantity;
 
+    /**
+     * The quantity below which the article must be reordered; an alert is raised when the stock drops below it.
+     * {@code null} if the article is not monitored.
+     */
+    @Setter
+    private Integer reorderThreshold;
+
     /**
      * The article associated with this stock entry.
      * This relationship is bidirectional, with {@code Stock} managed by the {@code Article} entity.
+     * The column is unique, so that stock upserts can rely on {@code on conflict (article_id)}.
      */
     @OneToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "article_id", unique = true, nullable = false)
     private Article article;
 
     /**
@@ -0,0 +1,56 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Represents the total of the {@link StockMovement} of one type for one article on one day.
+ * Rollups are maintained by the same statements that insert the movements, so they always match the history,
+ * and let aggregates over a date range read one row per day and type instead of every movement.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code id} - The composite key: article, day and movement type.</li>
+ * <li>{@code quantity} - The total quantity moved, unsigned.</li>
+ * <li>{@code movementCount} - The number of movements.</li>
+ * <li>{@code article} - The article whose movements are totalled.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyRollupId
+ * @see StockMovement
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_stock_daily_rollup_day", columnList = "day"))
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+@ToString(exclude = "article")
+public class StockDailyRollup {
+
+    /**
+     * The composite key of the rollup.
+     */
+    @EmbeddedId
+    private StockDailyRollupId id;
+
+    /**
+     * The total quantity moved.
+     */
+    @Column(nullable = false)
+    private long quantity;
+
+    /**
+     * The number of movements.
+     */
+    @Column(nullable = false)
+    private int movementCount;
+
+    /**
+     * The article whose movements are totalled, mapped on the article column of the key.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("articleId")
+    @JoinColumn(name = "article_id")
+    private Article article;
+}
@@ -0,0 +1,52 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Represents the composite key of a {@link StockDailyRollup}: one article, one day and one movement type.
+ * The column order of the key, article first, lets the rollups of one article over a date range be read as one index range.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code articleId} - The unique identifier of the article.</li>
+ * <li>{@code day} - The day the movements occurred.</li>
+ * <li>{@code movementType} - The type of the movements.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDailyRollup
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor @AllArgsConstructor
+@EqualsAndHashCode @ToString
+public class StockDailyRollupId implements Serializable {
+
+    /**
+     * The unique identifier of the article.
+     */
+    @Column(name = "article_id", nullable = false)
+    private UUID articleId;
+
+    /**
+     * The day the movements occurred.
+     */
+    @Column(nullable = false)
+    private LocalDate day;
+
+    /**
+     * The type of the movements.
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StockMovementType movementType;
+}
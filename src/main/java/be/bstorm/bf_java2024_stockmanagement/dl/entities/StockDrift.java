@@ -0,0 +1,59 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Represents an article whose {@link Stock} did not match the sum of its {@link StockMovement},
+ * as found by a {@link StockReconciliation}.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code stockQuantity} - The quantity of the stock when checked.</li>
+ * <li>{@code movementQuantity} - The signed sum of the movements of the article when checked.</li>
+ * <li>{@code repaired} - Whether the stock was corrected by the difference.</li>
+ * <li>{@code reconciliation} - The run that found the drift.</li>
+ * <li>{@code article} - The article whose stock drifted.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockReconciliation
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_stock_drift_reconciliation", columnList = "reconciliation_id"))
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = {"reconciliation", "article"})
+public class StockDrift extends BaseEntity {
+
+    /**
+     * The quantity of the stock when checked.
+     */
+    @Column(nullable = false)
+    private int stockQuantity;
+
+    /**
+     * The signed sum of the movements of the article when checked.
+     */
+    @Column(nullable = false)
+    private long movementQuantity;
+
+    /**
+     * Whether the stock was corrected by the difference.
+     */
+    @Column(nullable = false)
+    private boolean repaired;
+
+    /**
+     * The run that found the drift.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private StockReconciliation reconciliation;
+
+    /**
+     * The article whose stock drifted.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Article article;
+}
@@ -11,6 +11,9 @@ import java.util.UUID;
 /**
  * Represents a stock movement for an article, recording the type, quantity, and date of the movement.
  * Each movement is associated with an article and can either increase or decrease the stock.
+ * Movements are indexed by article and date, so the history of one article over a period is read as one index range.
+ * Once migrated by {@code sql/StockMovementPartitioning.sql}, the table is partitioned by month on {@code movementDate};
+ * its primary key then also holds the date, while JPA still identifies a movement by its ID alone.
  *
  * <p>Fields:
  * <ul>
@@ -25,6 +28,7 @@ import java.util.UUID;
  * @see Article
  */
 @Entity
+@Table(indexes = @Index(name = "idx_stock_movement_article_date", columnList = "article_id, movement_date"))
 @Getter @Setter
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true)
@@ -54,8 +58,9 @@ public class StockMovement extends BaseEntity {
 
     /**
      * The article associated with this stock movement.
+     * Loaded lazily: the history is read through projections that only need the article ID.
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     private Article article;
 
     /**
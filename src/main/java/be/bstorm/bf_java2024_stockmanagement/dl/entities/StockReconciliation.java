@@ -0,0 +1,109 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Represents a run of the stock reconciliation, comparing the {@link Stock} of every article with the sum of its
+ * {@link StockMovement}. Articles are split into partitions of the UUID space; the run records which partitions are
+ * done, so an interrupted run resumes where it stopped. A run stopped by a failing partition records the error, so
+ * clients polling the run can tell it apart from one still running and resume it.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code partitionCount} - The number of partitions of the run, a power of two.</li>
+ * <li>{@code repair} - Whether the drifts found are repaired.</li>
+ * <li>{@code completedPartitions} - The partitions done, as a bit set (bit {@code n} of byte {@code n / 8}, least significant first).</li>
+ * <li>{@code checkedArticles} - The number of articles checked so far.</li>
+ * <li>{@code driftedArticles} - The number of articles whose stock drifted from their movements.</li>
+ * <li>{@code repairedArticles} - The number of drifted articles repaired.</li>
+ * <li>{@code finishedAt} - The date and time the run finished, or {@code null} while running or interrupted.</li>
+ * <li>{@code failedAt} - The date and time the run stopped on an error, or {@code null} if it did not.</li>
+ * <li>{@code error} - The error that stopped the run, or {@code null} if it did not.</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockDrift
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class StockReconciliation extends BaseEntity {
+
+    /**
+     * The longest error message kept for a failed run.
+     */
+    public static final int ERROR_LENGTH = 1000;
+
+    /**
+     * The number of partitions of the run.
+     */
+    @Column(nullable = false)
+    private int partitionCount;
+
+    /**
+     * Whether the drifts found are repaired.
+     */
+    @Column(nullable = false)
+    private boolean repair;
+
+    /**
+     * The partitions done, as a bit set.
+     */
+    @Column(nullable = false)
+    private byte[] completedPartitions;
+
+    /**
+     * The number of articles checked so far.
+     */
+    @Column(nullable = false)
+    private long checkedArticles;
+
+    /**
+     * The number of articles whose stock drifted from their movements.
+     */
+    @Column(nullable = false)
+    private long driftedArticles;
+
+    /**
+     * The number of drifted articles repaired.
+     */
+    @Column(nullable = false)
+    private long repairedArticles;
+
+    /**
+     * The date and time the run finished.
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * The date and time the run stopped on an error; cleared when the run is resumed.
+     */
+    private LocalDateTime failedAt;
+
+    /**
+     * The error that stopped the run, truncated to {@link #ERROR_LENGTH} characters; cleared when the run is resumed.
+     */
+    @Column(length = StockReconciliation.ERROR_LENGTH)
+    private String error;
+
+    /**
+     * Constructs a new StockReconciliation with no partition done.
+     *
+     * @param id The unique identifier of the run.
+     * @param partitionCount The number of partitions of the run, a power of two.
+     * @param repair Whether the drifts found are repaired.
+     */
+    public StockReconciliation(UUID id, int partitionCount, boolean repair) {
+        super(id);
+        this.partitionCount = partitionCount;
+        this.repair = repair;
+        this.completedPartitions = new byte[(partitionCount + 7) / 8];
+    }
+}
@@ -0,0 +1,67 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Represents the stock of an article at the start of a day, computed from its {@link StockMovement} history.
+ * Snapshots let the stock at a past date be rebuilt from the nearest snapshot and the few movements after it,
+ * instead of every movement since the article was created. A day only gets a snapshot for the articles that moved
+ * since their previous one, so an article without movements keeps pointing at its last snapshot.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code snapshotDate} - The day of the snapshot; the quantity is the stock at the start of that day.</li>
+ * <li>{@code quantity} - The quantity of the article in stock at the start of the day.</li>
+ * <li>{@code article} - The article whose stock is recorded (one snapshot per article and day).</li>
+ * </ul>
+ * </p>
+ *
+ * @see StockMovement
+ * @see Article
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_stock_snapshot_article_date", columnNames = {"article_id", "snapshot_date"}))
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class StockSnapshot extends BaseEntity {
+
+    /**
+     * The day of the snapshot.
+     */
+    @Column(nullable = false)
+    private LocalDate snapshotDate;
+
+    /**
+     * The quantity of the article in stock at the start of the day.
+     */
+    @Column(nullable = false)
+    private int quantity;
+
+    /**
+     * The article whose stock is recorded.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "article_id", nullable = false)
+    private Article article;
+
+    /**
+     * Constructs a StockSnapshot with the specified ID, day, quantity and article.
+     *
+     * @param id The unique identifier of the snapshot.
+     * @param snapshotDate The day of the snapshot.
+     * @param quantity The quantity of the article in stock at the start of the day.
+     * @param article The article whose stock is recorded.
+     */
+    public StockSnapshot(UUID id, LocalDate snapshotDate, int quantity, Article article) {
+        super(id);
+        this.snapshotDate = snapshotDate;
+        this.quantity = quantity;
+        this.article = article;
+    }
+}
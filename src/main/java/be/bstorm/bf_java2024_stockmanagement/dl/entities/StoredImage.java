@@ -0,0 +1,64 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Represents an image file of the content-addressed image store.
+ * Each distinct content is stored once, under a path derived from its SHA-256 hash, and counts the active articles
+ * referencing it; an image without reference and not updated for the grace period is removed by the sweeper.
+ *
+ * <p>Fields:
+ * <ul>
+ * <li>{@code path} - The path of the file relative to the images directory, e.g. {@code ab/cd/abcd....jpg} (required, unique).</li>
+ * <li>{@code size} - The size of the file in bytes.</li>
+ * <li>{@code referenceCount} - The number of active articles whose picture is the image.</li>
+ * </ul>
+ * </p>
+ *
+ * @see BaseEntity
+ * @see Article
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class StoredImage extends BaseEntity {
+
+    /**
+     * The path of the file, relative to the images directory.
+     */
+    @Column(nullable = false, unique = true, length = 100)
+    private String path;
+
+    /**
+     * The size of the file in bytes.
+     */
+    @Column(nullable = false)
+    private long size;
+
+    /**
+     * The number of active articles whose picture is the image.
+     */
+    @Column(nullable = false)
+    private int referenceCount;
+
+    /**
+     * Constructs a StoredImage with the specified ID, path, size and reference count.
+     *
+     * @param id The unique identifier of the stored image.
+     * @param path The path of the file, relative to the images directory.
+     * @param size The size of the file in bytes.
+     * @param referenceCount The number of references to the image.
+     */
+    public StoredImage(UUID id, String path, long size, int referenceCount) {
+        super(id);
+        this.path = path;
+        this.size = size;
+        this.referenceCount = referenceCount;
+    }
+}
@@ -15,26 +15,62 @@ package be.bstorm.bf_java2024_stockmanagement.dl.enums;
  * <li>{@link #STOCK_MISSING} - Indicates missing stock, typically for items not accounted for in inventory.</li>
  * </ul>
  * </p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #sign()} - Returns whether the movement adds to or subtracts from the stock.</li>
+ * <li>{@link #delta(int)} - Computes the signed change of stock caused by a movement.</li>
+ * </ul>
+ * </p>
  */
 public enum StockMovementType {
     /** Represents incoming stock, such as new inventory received. */
-    STOCK_IN,
+    STOCK_IN(1),
 
     /** Represents outgoing stock, such as items sold or shipped out. */
-    STOCK_OUT,
+    STOCK_OUT(-1),
 
     /** A positive adjustment to increase stock, often used for manual corrections. */
-    STOCK_POSITIVE_CORRECTION,
+    STOCK_POSITIVE_CORRECTION(1),
 
     /** A negative adjustment to decrease stock, often used for manual corrections. */
-    STOCK_NEGATIVE_CORRECTION,
+    STOCK_NEGATIVE_CORRECTION(-1),
 
     /** Represents returned stock, items that are returned to inventory. */
-    STOCK_RETURN,
+    STOCK_RETURN(-1),
 
     /** Represents a stock recall, typically for items that must be removed for quality or safety reasons. */
-    STOCK_RECALL,
+    STOCK_RECALL(1),
 
     /** Indicates missing stock, typically for items not accounted for in inventory. */
-    STOCK_MISSING
+    STOCK_MISSING(-1);
+
+    /**
+     * The direction in which a movement of this type changes the stock: {@code 1} or {@code -1}.
+     */
+    private final int sign;
+
+    StockMovementType(int sign) {
+        this.sign = sign;
+    }
+
+    /**
+     * Returns the direction in which a movement of this type changes the stock.
+     * This is the only place deciding it; the database only ever receives signed deltas, or the types found positive here.
+     *
+     * @return {@code 1} if the movement adds to the stock, {@code -1} if it subtracts from it.
+     */
+    public int sign() {
+        return sign;
+    }
+
+    /**
+     * Computes the change of stock caused by a movement of this type.
+     *
+     * @param quantity The quantity of items moved.
+     * @return The signed change of the stock quantity.
+     */
+    public int delta(int quantity) {
+        return sign * quantity;
+    }
 }
@@ -13,6 +13,13 @@ package be.bstorm.bf_java2024_stockmanagement.dl.enums;
  * </p>
  *
  * <p>Each VAT rate has an associated integer {@code value} representing the percentage.</p>
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #addedValue(long)} - Computes the VAT amount of a price in cents, rounded half up.</li>
+ * <li>{@link #priceIncludingTax(long)} - Computes the tax-inclusive price of a price in cents.</li>
+ * </ul>
+ * </p>
  */
 public enum VAT {
 
@@ -38,4 +45,36 @@ public enum VAT {
     VAT(int value) {
         this.value = value;
     }
+
+    /**
+     * Computes the VAT amount of a price expressed in cents, rounded to the cent with {@link java.math.RoundingMode#HALF_UP}.
+     * Uses only {@code long} arithmetic and never overflows: the price is split into whole hundreds and a remainder
+     * so that the intermediate product stays within range for any {@code long} price.
+     *
+     * @param unitPriceExcludingTax The price excluding tax, in cents.
+     * @return The VAT amount, in cents.
+     */
+    public long addedValue(long unitPriceExcludingTax) {
+        long amount = (unitPriceExcludingTax / 100) * value;
+        long remainder = (unitPriceExcludingTax % 100) * value;
+        amount += remainder / 100;
+        remainder %= 100;
+        // HALF_UP rounds ties away from zero
+        if (remainder >= 50) {
+            amount++;
+        } else if (remainder <= -50) {
+            amount--;
+        }
+        return amount;
+    }
+
+    /**
+     * Computes the price including tax of a price expressed in cents.
+     *
+     * @param unitPriceExcludingTax The price excluding tax, in cents.
+     * @return The price including tax, in cents.
+     */
+    public long priceIncludingTax(long unitPriceExcludingTax) {
+        return unitPriceExcludingTax + addedValue(unitPriceExcludingTax);
+    }
 }
@@ -0,0 +1,69 @@
+package be.bstorm.bf_java2024_stockmanagement.il.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the in-process caches of the stock management system, backed by Caffeine.
+ * Every cache is bounded in size and entries expire after a time-to-live, both set by the {@code app.cache.spec}
+ * Caffeine specification. Statistics are recorded so that hit, miss and eviction counters can be exposed.
+ * The caches are transaction-aware: a put or an eviction made within a transaction is deferred until it commits, and
+ * dropped if it rolls back. The order of the caching and transaction advices is not fixed, so without this an eviction
+ * by a {@code @Transactional} method could run before its commit, letting a concurrent read cache the old data again
+ * until it expires.
+ *
+ * <p>Caches:
+ * <ul>
+ * <li>{@link #ARTICLES} - Details of active articles by ID.</li>
+ * <li>{@link #ACTIVE_ARTICLES} - The pages of active article summaries, by cursor position and size, and their version.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Configurations:
+ * <ul>
+ * <li>{@link #cacheManager()} - Configures a {@link CaffeineCacheManager} with the known caches, made transaction-aware.</li>
+ * </ul>
+ * </p>
+ *
+ * @see CaffeineCacheManager
+ * @see TransactionAwareCacheManagerProxy
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Name of the cache holding active articles by ID.
+     */
+    public static final String ARTICLES = "articles";
+
+    /**
+     * Name of the cache holding the pages of active articles, and the version of the active set under the {@code "version"} key.
+     */
+    public static final String ACTIVE_ARTICLES = "activeArticles";
+
+    /**
+     * The Caffeine specification (size and TTL eviction) applied to every cache.
+     */
+    @Value("${app.cache.spec:maximumSize=10000,expireAfterWrite=5m}")
+    private String spec;
+
+    /**
+     * Configures a {@link CacheManager} backed by Caffeine, restricted to the known caches and recording statistics,
+     * and wraps it so that puts and evictions within a transaction only apply after it commits.
+     *
+     * @return A {@link TransactionAwareCacheManagerProxy} around a {@link CaffeineCacheManager}.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ARTICLES, ACTIVE_ARTICLES);
+        cacheManager.setCaffeine(Caffeine.from(spec).recordStats());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,19 @@
+package be.bstorm.bf_java2024_stockmanagement.il.configs;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the background jobs of the stock management system, declared with {@code @Scheduled}.
+ * Jobs share the pool of scheduling threads sized by {@code spring.task.scheduling.pool.size}: a job is scheduled again
+ * only once its run has ended, so it never runs concurrently with itself, but a slow job, such as the image sweep,
+ * holds a thread for as long as it runs and delays the others once the pool is busy.
+ * The write-behind flush of the stocks, bounded in latency, does not use this pool: it has its own thread
+ * (see {@code StockWriteBehindServiceImpl}).
+ *
+ * @see org.springframework.scheduling.annotation.Scheduled
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
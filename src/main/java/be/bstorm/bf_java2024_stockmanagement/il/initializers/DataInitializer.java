@@ -1,5 +1,6 @@
 package be.bstorm.bf_java2024_stockmanagement.il.initializers;
 
+import be.bstorm.bf_java2024_stockmanagement.bll.services.StockLedgerService;
 import be.bstorm.bf_java2024_stockmanagement.dal.repositories.*;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.*;
 import be.bstorm.bf_java2024_stockmanagement.dl.entities.person.Client;
@@ -33,6 +34,12 @@ import java.util.UUID;
  * </ul>
  * </p>
  *
+ * <p>Services:
+ * <ul>
+ * <li>{@link StockLedgerService} - For applying the initial stock movements.</li>
+ * </ul>
+ * </p>
+ *
  * @see CommandLineRunner
  * @see CategoryRepository
  * @see ArticleRepository
@@ -40,6 +47,7 @@ import java.util.UUID;
  * @see RoleRepository
  * @see UserRepository
  * @see ExternRepository
+ * @see StockLedgerService
  */
 @Component
 @RequiredArgsConstructor
@@ -48,6 +56,7 @@ public class DataInitializer implements CommandLineRunner {
     private final ArticleRepository articleRepository;
     private final CategoryRepository categoryRepository;
     private final StockMovementRepository movementRepository;
+    private final StockLedgerService stockLedgerService;
     private final RoleRepository roleRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
@@ -140,7 +149,7 @@ public class DataInitializer implements CommandLineRunner {
             );
 
             for (StockMovement movement : movements) {
-                movementRepository.insertStockMovement(movement.getArticle().getId(), movement.getMovementType().toString(), movement.getQuantity());
+                stockLedgerService.apply(movement.getArticle().getId(), movement.getMovementType(), movement.getQuantity());
             }
         }
 
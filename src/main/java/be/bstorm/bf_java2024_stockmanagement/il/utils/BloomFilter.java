@@ -0,0 +1,133 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Bloom filter of strings, answering "definitely absent" or "possibly present" without any I/O.
+ * The filter is sized from an expected number of entries and a target false positive probability;
+ * entries can be added concurrently but never removed.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #put(String)} - Adds a value to the filter.</li>
+ * <li>{@link #mightContain(String)} - Checks whether a value may have been added to the filter.</li>
+ * <li>{@link #isSaturated()} - Checks whether more values than expected have been added.</li>
+ * </ul>
+ * </p>
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * Creates an empty Bloom filter sized for the given number of entries and false positive probability.
+     *
+     * @param expectedInsertions The number of entries the filter is expected to hold.
+     * @param falsePositiveProbability The target probability of a false "possibly present" answer, between 0 and 1 exclusive.
+     * @throws IllegalArgumentException If an argument is out of range.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive");
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value The value to add.
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1 + (long) i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.increment();
+    }
+
+    /**
+     * Checks whether a value may have been added to the filter.
+     *
+     * @param value The value to check.
+     * @return {@code false} if the value has definitely never been added; {@code true} if it possibly has.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1 + (long) i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether more values than expected have been added, in which case the false positive rate
+     * exceeds its target and the filter should be rebuilt with a larger size.
+     *
+     * @return {@code true} if the filter holds more values than it was sized for.
+     */
+    public boolean isSaturated() {
+        return insertions.sum() > expectedInsertions;
+    }
+
+    /**
+     * Maps a combined hash to a bit position.
+     *
+     * @param combinedHash The combined hash of a value for one hash function.
+     * @return The index of the bit, between 0 and the bit count exclusive.
+     */
+    private long bitIndex(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * Computes a well-mixed 64-bit hash of a value: 64-bit FNV-1a over its UTF-8 bytes, finalized with a MurmurHash3 mix.
+     * Its two halves feed the double hashing scheme {@code h1 + i * h2}.
+     *
+     * @param value The value to hash.
+     * @return The 64-bit hash.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
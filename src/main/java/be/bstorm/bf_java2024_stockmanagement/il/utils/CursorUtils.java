@@ -0,0 +1,69 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Utility class for encoding and decoding opaque pagination cursors used by keyset (seek) pagination.
+ * A cursor captures the sort key and the unique identifier of the last element of a page, so the next page
+ * can be fetched with a {@code (key, id) > (:key, :id)} range predicate instead of an offset.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #encode(String, UUID)} - Encodes a sort key and an identifier into an opaque, URL-safe cursor.</li>
+ * <li>{@link #decode(String)} - Decodes an opaque cursor back into its {@link Position}.</li>
+ * </ul>
+ * </p>
+ */
+public final class CursorUtils {
+
+    /**
+     * Separator between the sort key and the identifier, chosen because it cannot appear in a UUID.
+     */
+    private static final char SEPARATOR = '\n';
+
+    private CursorUtils() {
+    }
+
+    /**
+     * Encodes the position of the last element of a page into an opaque, URL-safe cursor.
+     *
+     * @param key The sort key of the last element (e.g. the article designation).
+     * @param id The unique identifier of the last element, used as a tie-breaker.
+     * @return The cursor as a Base64 URL-safe {@link String} without padding.
+     */
+    public static String encode(String key, UUID id) {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor previously produced by {@link #encode(String, UUID)}.
+     *
+     * @param cursor The cursor to decode.
+     * @return The decoded {@link Position}.
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    public static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Position(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * The decoded position of a cursor.
+     *
+     * @param key The sort key of the last element of the previous page.
+     * @param id The unique identifier of the last element of the previous page.
+     */
+    public record Position(String key, UUID id) {
+    }
+}
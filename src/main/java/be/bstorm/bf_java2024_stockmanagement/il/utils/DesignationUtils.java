@@ -0,0 +1,42 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for normalizing article designations into comparison keys.
+ * Two designations that only differ by case or accents (e.g. {@code "Café"} and {@code "CAFE"}) share the same key,
+ * so uniqueness can be enforced by a plain B-tree index on the key instead of a case-insensitive scan.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #toKey(String)} - Normalizes a designation into its lower-cased, accent-folded key.</li>
+ * </ul>
+ * </p>
+ */
+public final class DesignationUtils {
+
+    /**
+     * Matches the combining marks left by the canonical decomposition of accented characters.
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private DesignationUtils() {
+    }
+
+    /**
+     * Normalizes a designation into its comparison key: surrounding whitespace stripped, compatibility-decomposed,
+     * combining marks (accents) removed and lower-cased.
+     *
+     * @param designation The designation to normalize.
+     * @return The normalized key, or {@code null} if the designation is {@code null}.
+     */
+    public static String toKey(String designation) {
+        if (designation == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(designation.strip(), Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
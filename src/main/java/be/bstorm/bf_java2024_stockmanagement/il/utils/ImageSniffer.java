@@ -0,0 +1,244 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utility class identifying images from the first bytes of their content, without decoding them.
+ * JPEG and PNG files are recognized by their magic numbers, and their pixel dimensions are read from the header:
+ * the {@code IHDR} chunk of a PNG, the first start-of-frame ({@code SOFn}) segment of a JPEG. At most
+ * {@link #MAX_HEADER_BYTES} bytes are read, so a file that is not an image is refused after a few bytes.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #sniff(InputStream)} - Reads the format and dimensions of an image from the start of a stream.</li>
+ * <li>{@link #limit(InputStream, long)} - Wraps a stream so that reading past a number of bytes fails.</li>
+ * </ul>
+ * </p>
+ */
+public final class ImageSniffer {
+
+    /**
+     * The maximum number of bytes read to find the dimensions, enough to skip the metadata segments
+     * (EXIF, ICC profile, thumbnails) that may precede the start-of-frame of a JPEG.
+     */
+    public static final int MAX_HEADER_BYTES = 256 * 1024;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private ImageSniffer() {
+    }
+
+    /**
+     * Reads the format and the pixel dimensions of an image from the start of a stream.
+     * The stream is consumed up to the end of the header and is not closed.
+     *
+     * @param in The stream of the image content.
+     * @return The {@link ImageHeader} of the image, or {@code null} if the content is not a JPEG or PNG image,
+     *         or its header is truncated or longer than {@link #MAX_HEADER_BYTES}.
+     * @throws IOException If the stream cannot be read.
+     */
+    public static ImageHeader sniff(InputStream in) throws IOException {
+        HeaderReader reader = new HeaderReader(in);
+        int first = reader.read();
+        int second = reader.read();
+        if (first == 0xff && second == 0xd8) {
+            return sniffJpeg(reader);
+        }
+        if (first == (PNG_SIGNATURE[0] & 0xff) && second == PNG_SIGNATURE[1]) {
+            return sniffPng(reader);
+        }
+        return null;
+    }
+
+    /**
+     * Wraps a stream so that reading more than a number of bytes fails, stopping oversized uploads while they are read
+     * rather than after they are written.
+     *
+     * @param in The stream to wrap.
+     * @param maxBytes The maximum number of bytes that can be read.
+     * @return A stream failing with an {@link IllegalArgumentException} once more than {@code maxBytes} bytes are read.
+     */
+    public static InputStream limit(InputStream in, long maxBytes) {
+        return new FilterInputStream(in) {
+            private long count;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    count(1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read > 0) {
+                    count(read);
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                count(skipped);
+                return skipped;
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            private void count(long read) {
+                count += read;
+                if (count > maxBytes) {
+                    throw new IllegalArgumentException("Image exceeds " + maxBytes + " bytes");
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the dimensions of a PNG image from its {@code IHDR} chunk, which must directly follow the signature.
+     *
+     * @param reader The reader, positioned after the first two bytes of the signature.
+     * @return The {@link ImageHeader}, or {@code null} if the signature or the {@code IHDR} chunk is invalid.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static ImageHeader sniffPng(HeaderReader reader) throws IOException {
+        for (int i = 2; i < PNG_SIGNATURE.length; i++) {
+            if (reader.read() != PNG_SIGNATURE[i]) {
+                return null;
+            }
+        }
+        long length = reader.readInt();
+        if (length != 13 || reader.readInt() != 0x49484452) { // "IHDR"
+            return null;
+        }
+        long width = reader.readInt();
+        long height = reader.readInt();
+        return toHeader("image/png", ".png", width, height);
+    }
+
+    /**
+     * Reads the dimensions of a JPEG image from its first start-of-frame segment, skipping the segments before it.
+     *
+     * @param reader The reader, positioned after the start-of-image marker.
+     * @return The {@link ImageHeader}, or {@code null} if no start-of-frame segment is found in the header.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static ImageHeader sniffJpeg(HeaderReader reader) throws IOException {
+        while (true) {
+            if (reader.read() != 0xff) {
+                return null;
+            }
+            int marker = reader.read();
+            while (marker == 0xff) { // Fill bytes
+                marker = reader.read();
+            }
+            if (marker < 0 || marker == 0xd9 || marker == 0xda) { // End of stream, end of image, start of scan
+                return null;
+            }
+            if (marker == 0x01 || (marker >= 0xd0 && marker <= 0xd7)) { // Standalone markers without a length
+                continue;
+            }
+            int length = reader.readShort();
+            if (length < 2) {
+                return null;
+            }
+            // SOF0 to SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+            if (marker >= 0xc0 && marker <= 0xcf && marker != 0xc4 && marker != 0xc8 && marker != 0xcc) {
+                reader.read(); // Sample precision
+                int height = reader.readShort();
+                int width = reader.readShort();
+                return toHeader("image/jpeg", ".jpg", width, height);
+            }
+            if (!reader.skip(length - 2)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Builds a header from the dimensions read, refusing empty or unreadable ones.
+     *
+     * @param mediaType The media type of the image.
+     * @param extension The file extension of the image, with its leading dot.
+     * @param width The width read from the header, negative if the stream ended.
+     * @param height The height read from the header, negative if the stream ended.
+     * @return The {@link ImageHeader}, or {@code null} if a dimension is not positive or too large.
+     */
+    private static ImageHeader toHeader(String mediaType, String extension, long width, long height) {
+        if (width <= 0 || height <= 0 || width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new ImageHeader(mediaType, extension, (int) width, (int) height);
+    }
+
+    /**
+     * The format and pixel dimensions of an image, as read from its header.
+     *
+     * @param mediaType The media type of the image, {@code image/jpeg} or {@code image/png}.
+     * @param extension The canonical file extension of the image, with its leading dot.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in pixels.
+     */
+    public record ImageHeader(String mediaType, String extension, int width, int height) {
+    }
+
+    /**
+     * Reads big-endian values from the start of a stream, refusing to go past {@link #MAX_HEADER_BYTES}.
+     * Reads past the end of the stream or of the header return {@code -1}.
+     */
+    private static final class HeaderReader {
+
+        private final InputStream in;
+        private int position;
+
+        private HeaderReader(InputStream in) {
+            this.in = in;
+        }
+
+        private int read() throws IOException {
+            if (position >= MAX_HEADER_BYTES) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        private int readShort() throws IOException {
+            int high = read();
+            int low = read();
+            return high < 0 || low < 0 ? -1 : high << 8 | low;
+        }
+
+        private long readInt() throws IOException {
+            int high = readShort();
+            int low = readShort();
+            return high < 0 || low < 0 ? -1 : (long) high << 16 | low;
+        }
+
+        private boolean skip(int count) throws IOException {
+            if (position + (long) count > MAX_HEADER_BYTES) {
+                return false;
+            }
+            try {
+                in.skipNBytes(count);
+            } catch (EOFException e) {
+                return false;
+            }
+            position += count;
+            return true;
+        }
+    }
+}
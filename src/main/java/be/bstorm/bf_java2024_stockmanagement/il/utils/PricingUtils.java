@@ -0,0 +1,78 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+
+/**
+ * Utility class for pricing articles in bulk with pure {@code long} arithmetic.
+ * All amounts are expressed in cents and rounded half up, with the same results as {@link VAT#addedValue(long)}.
+ * Results are written into caller-provided arrays so that pricing a whole listing does not allocate per article.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #price(Article[], long[], long[])} - Prices an array of articles at once.</li>
+ * <li>{@link #price(long[], VAT[], long[], long[])} - Prices parallel arrays of unit prices and VAT rates at once.</li>
+ * </ul>
+ * </p>
+ *
+ * @see VAT
+ */
+public final class PricingUtils {
+
+    private PricingUtils() {
+    }
+
+    /**
+     * Computes the VAT amount and the price including tax of each article.
+     *
+     * @param articles The articles to price.
+     * @param addedValues The array receiving the VAT amount of each article, in cents.
+     * @param unitPricesIncludingTax The array receiving the price including tax of each article, in cents.
+     * @throws IllegalArgumentException If an output array is shorter than {@code articles}.
+     */
+    public static void price(Article[] articles, long[] addedValues, long[] unitPricesIncludingTax) {
+        checkLength(articles.length, addedValues, unitPricesIncludingTax);
+        for (int i = 0; i < articles.length; i++) {
+            long unitPrice = articles[i].getUnitPriceExcludingTax();
+            long addedValue = articles[i].getVat().addedValue(unitPrice);
+            addedValues[i] = addedValue;
+            unitPricesIncludingTax[i] = unitPrice + addedValue;
+        }
+    }
+
+    /**
+     * Computes the VAT amount and the price including tax of each unit price, using the VAT rate at the same index.
+     *
+     * @param unitPricesExcludingTax The prices excluding tax, in cents.
+     * @param vats The VAT rate of each price.
+     * @param addedValues The array receiving each VAT amount, in cents.
+     * @param unitPricesIncludingTax The array receiving each price including tax, in cents.
+     * @throws IllegalArgumentException If {@code vats} or an output array is shorter than {@code unitPricesExcludingTax}.
+     */
+    public static void price(long[] unitPricesExcludingTax, VAT[] vats, long[] addedValues, long[] unitPricesIncludingTax) {
+        checkLength(unitPricesExcludingTax.length, addedValues, unitPricesIncludingTax);
+        if (vats.length < unitPricesExcludingTax.length) {
+            throw new IllegalArgumentException("Missing VAT rates");
+        }
+        for (int i = 0; i < unitPricesExcludingTax.length; i++) {
+            long unitPrice = unitPricesExcludingTax[i];
+            long addedValue = vats[i].addedValue(unitPrice);
+            addedValues[i] = addedValue;
+            unitPricesIncludingTax[i] = unitPrice + addedValue;
+        }
+    }
+
+    /**
+     * Checks that both output arrays can hold the given number of results.
+     *
+     * @param length The number of results to write.
+     * @param addedValues The VAT amounts output array.
+     * @param unitPricesIncludingTax The prices including tax output array.
+     * @throws IllegalArgumentException If an output array is too short.
+     */
+    private static void checkLength(int length, long[] addedValues, long[] unitPricesIncludingTax) {
+        if (addedValues.length < length || unitPricesIncludingTax.length < length) {
+            throw new IllegalArgumentException("Output arrays are too short");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package be.bstorm.bf_java2024_stockmanagement.il.utils;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for passing lists of values to native PostgreSQL statements as array literals,
+ * such as {@code {1,2,3}}, cast on the database side with {@code cast(:values as int[])} and unnested into rows.
+ * A whole batch is then bound as a single parameter, whatever its size.
+ * Statements locking several rows process them in key order, so that concurrent batches lock them in the same order
+ * and cannot deadlock; keys sorted on the Java side must then follow the database order.
+ *
+ * <p>Methods:
+ * <ul>
+ * <li>{@link #toArrayLiteral(Collection)} - Formats values as a PostgreSQL array literal.</li>
+ * <li>{@link #compareUuids(UUID, UUID)} - Compares two UUIDs the way PostgreSQL orders {@code uuid} values.</li>
+ * </ul>
+ * </p>
+ */
+public final class SqlArrayUtils {
+
+    private SqlArrayUtils() {
+    }
+
+    /**
+     * Formats values as a PostgreSQL array literal. Values are written with {@link String#valueOf(Object)} and not
+     * quoted, so this is only meant for values that cannot contain commas, braces, quotes or spaces:
+     * numbers, UUIDs and enum names.
+     *
+     * @param values The values to format.
+     * @return The array literal, e.g. {@code {a,b,c}}.
+     */
+    public static String toArrayLiteral(Collection<?> values) {
+        return values.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    /**
+     * Compares two UUIDs the way PostgreSQL orders {@code uuid} values, as unsigned bytes. {@link UUID#compareTo}
+     * compares the two halves as signed numbers, so it disagrees whenever a half has its high bit set.
+     *
+     * @param a The first UUID.
+     * @param b The second UUID.
+     * @return A negative number, zero or a positive number as {@code a} sorts before, with or after {@code b}.
+     */
+    public static int compareUuids(UUID a, UUID b) {
+        int comparison = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return comparison != 0 ? comparison : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
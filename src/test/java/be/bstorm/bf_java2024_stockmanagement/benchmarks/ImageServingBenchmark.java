@@ -0,0 +1,189 @@
+package be.bstorm.bf_java2024_stockmanagement.benchmarks;
+
+import be.bstorm.bf_java2024_stockmanagement.api.controllers.ImageController;
+import be.bstorm.bf_java2024_stockmanagement.bll.services.ImageService;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmark comparing, over HTTP, the former way images were served, the static resource handler of the removed
+ * {@code WebConfig}, with {@link ImageController#getImage}. Both run side by side in an embedded Tomcat behind a
+ * {@link DispatcherServlet}, and each invocation downloads an image of {@link #size} bytes through a keep-alive
+ * connection. The controller is measured with the connector's sendfile support on and off, the latter exercising
+ * its {@code transferTo} fallback.
+ *
+ * <p>Run it from the IDE through {@link #main(String[])}, or after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main ImageServingBenchmark}.
+ * Add {@code -prof gc} to compare allocation rates.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageServingBenchmark {
+
+    /**
+     * The name of the image served by both handlers.
+     */
+    private static final String IMAGE = "image.jpg";
+
+    @Param({"65536", "4194304"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean sendfile;
+
+    private Path directory;
+    private Tomcat tomcat;
+    private HttpClient client;
+    private HttpRequest resourceHandlerRequest;
+    private HttpRequest controllerRequest;
+
+    @Setup
+    public void setup() throws IOException, LifecycleException {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        directory = Files.createTempDirectory("image-serving");
+        Files.write(directory.resolve(IMAGE), content);
+
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.register(ServingConfig.class);
+        context.addBeanFactoryPostProcessor(beanFactory -> beanFactory.registerSingleton("imageDirectory", directory));
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(directory.resolve(".tomcat").toString());
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("useSendfile", String.valueOf(sendfile));
+        Context servletContext = tomcat.addContext("", null);
+        Tomcat.addServlet(servletContext, "dispatcher", new DispatcherServlet(context)).setLoadOnStartup(1);
+        servletContext.addServletMappingDecoded("/", "dispatcher");
+        tomcat.start();
+
+        String base = "http://localhost:" + tomcat.getConnector().getLocalPort();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        resourceHandlerRequest = HttpRequest.newBuilder(URI.create(base + "/static/" + IMAGE)).build();
+        controllerRequest = HttpRequest.newBuilder(URI.create(base + "/images/" + IMAGE)).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long resourceHandler() throws IOException, InterruptedException {
+        return download(resourceHandlerRequest);
+    }
+
+    @Benchmark
+    public long controller() throws IOException, InterruptedException {
+        return download(controllerRequest);
+    }
+
+    /**
+     * Downloads a response body, discarding it as it arrives like a client would consume it.
+     *
+     * @param request The request to send.
+     * @return The number of bytes received.
+     */
+    private long download(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+    }
+
+    /**
+     * Serves the benchmark directory both ways: {@code /static/**} through the resource handler the removed
+     * {@code WebConfig} registered, and {@code /images/**} through {@link ImageController}.
+     */
+    @Configuration
+    @EnableWebMvc
+    static class ServingConfig implements WebMvcConfigurer {
+
+        private final Path directory;
+
+        ServingConfig(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        public void addResourceHandlers(ResourceHandlerRegistry registry) {
+            registry.addResourceHandler("/static/**")
+                    .addResourceLocations(directory.toUri().toString());
+        }
+
+        @Bean
+        public ImageController imageController() {
+            // Thumbnails are not served here
+            return new ImageController(new DirectoryImageService(directory), null);
+        }
+    }
+
+    /**
+     * An {@link ImageService} resolving images in the benchmark directory, without the database behind uploads.
+     */
+    private record DirectoryImageService(Path directory) implements ImageService {
+
+        @Override
+        public String store(MultipartFile image) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void acquire(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void release(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Path resolve(String path) {
+            return directory.resolve(path);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ImageServingBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
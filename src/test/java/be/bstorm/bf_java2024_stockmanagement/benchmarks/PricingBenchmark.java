@@ -0,0 +1,106 @@
+package be.bstorm.bf_java2024_stockmanagement.benchmarks;
+
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import be.bstorm.bf_java2024_stockmanagement.il.utils.PricingUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the former {@link BigDecimal} VAT computation with the {@code long} arithmetic
+ * of {@link VAT#addedValue(long)} and the batch API of {@link PricingUtils}.
+ * Each invocation prices a listing of {@link #size} articles.
+ *
+ * <p>Run it from the IDE through {@link #main(String[])}, or after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main PricingBenchmark}.
+ * Add {@code -prof gc} to compare allocation rates.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private Article[] articles;
+    private long[] unitPrices;
+    private VAT[] vats;
+    private long[] addedValues;
+    private long[] unitPricesIncludingTax;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        VAT[] rates = VAT.values();
+        articles = new Article[size];
+        unitPrices = new long[size];
+        vats = new VAT[size];
+        for (int i = 0; i < size; i++) {
+            unitPrices[i] = random.nextInt(1_000_000);
+            vats[i] = rates[random.nextInt(rates.length)];
+            articles[i] = new Article("Article " + i, unitPrices[i], vats[i]);
+        }
+        addedValues = new long[size];
+        unitPricesIncludingTax = new long[size];
+    }
+
+    /**
+     * The previous implementation of {@code Article.getAddedValue()}, kept as the baseline.
+     */
+    private static long bigDecimalAddedValue(long unitPriceExcludingTax, VAT vat) {
+        BigDecimal rate = BigDecimal.valueOf(vat.value, 2);
+        BigDecimal priceTTE = BigDecimal.valueOf(unitPriceExcludingTax);
+        return priceTTE.multiply(rate).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            // getUnitPriceIncludingTax() and getAddedValue() each computed the added value
+            long addedValue = bigDecimalAddedValue(unitPrices[i], vats[i]);
+            long priceIncludingTax = unitPrices[i] + bigDecimalAddedValue(unitPrices[i], vats[i]);
+            blackhole.consume(addedValue);
+            blackhole.consume(priceIncludingTax);
+        }
+    }
+
+    @Benchmark
+    public void longArithmetic(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            Article article = articles[i];
+            blackhole.consume(article.getAddedValue());
+            blackhole.consume(article.getUnitPriceIncludingTax());
+        }
+    }
+
+    @Benchmark
+    public long[] batchArticles() {
+        PricingUtils.price(articles, addedValues, unitPricesIncludingTax);
+        return unitPricesIncludingTax;
+    }
+
+    @Benchmark
+    public long[] batchArrays() {
+        PricingUtils.price(unitPrices, vats, addedValues, unitPricesIncludingTax);
+        return unitPricesIncludingTax;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PricingBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
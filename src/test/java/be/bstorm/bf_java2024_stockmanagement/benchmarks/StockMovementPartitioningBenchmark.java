@@ -0,0 +1,163 @@
+package be.bstorm.bf_java2024_stockmanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing the insert and range-query latency of a plain {@code stock_movement} table with the same
+ * table partitioned by month, as migrated by {@code sql/StockMovementPartitioning.sql}. Both layouts hold
+ * {@link #rows} movements over the last 24 months, with the indexes of the application, in a scratch schema dropped
+ * afterwards. The queries are the ones of {@code StockMovementRepository}: the totals of one article over a month,
+ * and one page of the history of all articles within a month.
+ *
+ * <p>Needs a PostgreSQL database, by default the one of {@code application.yml}; override it with the
+ * {@code benchmark.url}, {@code benchmark.username} and {@code benchmark.password} system properties.
+ * Run it from the IDE through {@link #main(String[])}, or after {@code mvn test-compile} with
+ * {@code java -cp target/test-classes:target/classes:<test classpath> org.openjdk.jmh.Main StockMovementPartitioningBenchmark}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockMovementPartitioningBenchmark {
+
+    private static final String SCHEMA = "partitioning_benchmark";
+    private static final int MONTHS = 24;
+    private static final int ARTICLES = 1000;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"plain", "partitioned"})
+    private String layout;
+
+    @Param({"1000000"})
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement articleTotals;
+    private PreparedStatement periodPage;
+    private UUID[] articleIds;
+    private LocalDateTime start;
+    private Random random;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.url", "jdbc:postgresql://localhost:5432/stock_management"),
+                System.getProperty("benchmark.username", "postgres"),
+                System.getProperty("benchmark.password", "Test1234=")
+        );
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA + " cascade");
+            statement.execute("create schema " + SCHEMA);
+            statement.execute("set search_path to " + SCHEMA + ", public");
+
+            String columns = "(id uuid not null, movement_type varchar(255) not null, quantity int not null, " +
+                    "movement_date timestamp(6) not null, article_id uuid, created_at timestamp(6), updated_at timestamp(6)";
+            if (layout.equals("plain")) {
+                statement.execute("create table stock_movement " + columns + ", primary key (id))");
+            } else {
+                statement.execute("create table stock_movement " + columns + ", primary key (id, movement_date)) " +
+                        "partition by range (movement_date)");
+                statement.execute("do $$ declare month date; begin " +
+                        "for month in select generate_series(date_trunc('month', now()) - interval '" + (MONTHS - 1) + " months', " +
+                        "date_trunc('month', now()) + interval '2 months', interval '1 month')::date loop " +
+                        "execute format('create table %I partition of stock_movement for values from (%L) to (%L)', " +
+                        "'stock_movement_p' || to_char(month, 'YYYY_MM'), month, month + interval '1 month'); " +
+                        "end loop; end $$");
+                statement.execute("create table stock_movement_default partition of stock_movement default");
+            }
+
+            // Movements in date order, as the application inserts them
+            statement.execute("insert into stock_movement " +
+                    "select gen_random_uuid(), case when g % 3 = 0 then 'STOCK_OUT' else 'STOCK_IN' end, 1 + g % 10, " +
+                    "s.start + (now() - s.start) * (cast(g as double precision) / " + rows + "), md5(cast(g % " + ARTICLES + " as text))::uuid, now(), now() " +
+                    "from (select date_trunc('month', now()) - interval '" + (MONTHS - 1) + " months' as start) s, " +
+                    "generate_series(1, " + rows + ") g");
+            statement.execute("create index idx_stock_movement_article_date on stock_movement (article_id, movement_date)");
+            statement.execute("create index brin_stock_movement_movement_date on stock_movement using brin (movement_date) " +
+                    "with (pages_per_range = 32, autosummarize = on)");
+            statement.execute("analyze stock_movement");
+
+            articleIds = new UUID[ARTICLES];
+            try (ResultSet resultSet = statement.executeQuery("select distinct article_id from stock_movement")) {
+                for (int i = 0; resultSet.next(); i++) {
+                    articleIds[i] = resultSet.getObject(1, UUID.class);
+                }
+            }
+        }
+
+        insert = connection.prepareStatement("insert into stock_movement " +
+                "(id, movement_type, quantity, movement_date, article_id, created_at, updated_at) " +
+                "values (gen_random_uuid(), 'STOCK_IN', 1, now(), ?, now(), now())");
+        articleTotals = connection.prepareStatement("select movement_type, sum(quantity) from stock_movement " +
+                "where article_id = ? and movement_date >= ? and movement_date <= ? group by movement_type");
+        periodPage = connection.prepareStatement("select id, article_id, movement_type, quantity, movement_date " +
+                "from stock_movement where movement_date >= ? " +
+                "and movement_date <= ? and (movement_date, id) < (?, ?) " +
+                "order by movement_date desc, id desc limit " + PAGE_SIZE);
+        start = LocalDate.now().withDayOfMonth(1).atStartOfDay().minusMonths(MONTHS - 1);
+        random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema " + SCHEMA + " cascade");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        insert.setObject(1, articleIds[random.nextInt(ARTICLES)]);
+        return insert.executeUpdate();
+    }
+
+    @Benchmark
+    public void articleTotals(Blackhole blackhole) throws SQLException {
+        LocalDateTime from = start.plusMonths(random.nextInt(MONTHS));
+        articleTotals.setObject(1, articleIds[random.nextInt(ARTICLES)]);
+        articleTotals.setObject(2, from);
+        articleTotals.setObject(3, from.plusMonths(1));
+        try (ResultSet resultSet = articleTotals.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getLong(2));
+            }
+        }
+    }
+
+    @Benchmark
+    public void periodPage(Blackhole blackhole) throws SQLException {
+        LocalDateTime from = start.plusMonths(random.nextInt(MONTHS));
+        LocalDateTime before = from.plusDays(1 + random.nextInt(27));
+        periodPage.setObject(1, from);
+        periodPage.setObject(2, before);
+        periodPage.setObject(3, before);
+        periodPage.setObject(4, new UUID(-1L, -1L));
+        try (ResultSet resultSet = periodPage.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getObject(1));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StockMovementPartitioningBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,107 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.dal.projections.StockDriftProjection;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.CategoryRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Category;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.StockReconciliation;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the repairs made by {@link StockReconciliationService}: a drifted stock is brought back to the sum of its
+ * movements, in either direction, without failing the run.
+ * Runs against the database configured for the application, like {@code BfJava2024StockManagementApplicationTests}.
+ */
+@SpringBootTest
+class StockReconciliationServiceTests {
+
+    @Autowired
+    private StockReconciliationService stockReconciliationService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private UUID createArticle(int quantity) {
+        Category category = categoryRepository.save(new Category(UUID.randomUUID(), "Drift " + UUID.randomUUID()));
+        Article article = articleRepository.save(
+                new Article(UUID.randomUUID(), "Drift " + UUID.randomUUID(), 100L, VAT.TWENTY_ONE, null, category));
+        stockLedgerService.apply(article.getId(), StockMovementType.STOCK_IN, quantity);
+        return article.getId();
+    }
+
+    private int quantityOf(UUID articleId) {
+        return stockRepository.findLevelsByArticleIdIn(List.of(articleId)).get(0).quantity();
+    }
+
+    /**
+     * Runs a repairing reconciliation to its end. A run left unfinished by a previous test is resumed with its own
+     * settings first, so runs are started until one repairs.
+     *
+     * @return The finished, or failed, run.
+     */
+    private StockReconciliation reconcile() throws InterruptedException {
+        StockReconciliation run;
+        do {
+            run = stockReconciliationService.start(true);
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+            while (run.getFinishedAt() == null && run.getFailedAt() == null) {
+                assertTrue(System.nanoTime() < deadline, "Reconciliation did not end: " + run.getId());
+                TimeUnit.MILLISECONDS.sleep(100);
+                run = stockReconciliationService.findById(run.getId());
+            }
+        } while (!run.isRepair() && run.getFailedAt() == null);
+        return run;
+    }
+
+    private StockDriftProjection driftOf(StockReconciliation run, UUID articleId) {
+        return stockReconciliationService.findDrifts(run.getId()).stream()
+                .filter(drift -> drift.articleId().equals(articleId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No drift recorded for " + articleId));
+    }
+
+    @Test
+    void repairsStockAboveItsMovements() throws Exception {
+        UUID articleId = createArticle(10);
+        stockRepository.upsertDelta(articleId, 5);
+
+        StockReconciliation run = reconcile();
+
+        assertNull(run.getFailedAt(), run.getError());
+        assertEquals(10, quantityOf(articleId));
+        assertEquals(new StockDriftProjection(articleId, 15, 10, true), driftOf(run, articleId));
+    }
+
+    @Test
+    void repairsStockBelowItsMovements() throws Exception {
+        UUID articleId = createArticle(10);
+        stockRepository.upsertDeltas("{" + articleId + "}", "{-4}");
+
+        StockReconciliation run = reconcile();
+
+        assertNull(run.getFailedAt(), run.getError());
+        assertEquals(10, quantityOf(articleId));
+        assertEquals(new StockDriftProjection(articleId, 6, 10, true), driftOf(run, articleId));
+    }
+}
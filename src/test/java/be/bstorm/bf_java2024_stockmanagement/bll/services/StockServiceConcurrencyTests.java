@@ -0,0 +1,142 @@
+package be.bstorm.bf_java2024_stockmanagement.bll.services;
+
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockMovementLine;
+import be.bstorm.bf_java2024_stockmanagement.bll.models.StockWithdrawal;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.ArticleRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.CategoryRepository;
+import be.bstorm.bf_java2024_stockmanagement.dal.repositories.StockRepository;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Article;
+import be.bstorm.bf_java2024_stockmanagement.dl.entities.Category;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.StockMovementType;
+import be.bstorm.bf_java2024_stockmanagement.dl.enums.VAT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests of the guarded withdrawals of {@link StockService} and {@link StockLedgerService}: 64 writers race for
+ * the same stock, and the number of successful withdrawals must match the stock exactly, without ever going below zero.
+ * Runs against the database configured for the application, like {@code BfJava2024StockManagementApplicationTests}.
+ */
+@SpringBootTest
+class StockServiceConcurrencyTests {
+
+    private static final int WRITERS = 64;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private UUID createArticle(int quantity) {
+        Category category = categoryRepository.save(new Category(UUID.randomUUID(), "Stress " + UUID.randomUUID()));
+        Article article = articleRepository.save(
+                new Article(UUID.randomUUID(), "Stress " + UUID.randomUUID(), 100L, VAT.TWENTY_ONE, null, category));
+        stockLedgerService.apply(article.getId(), StockMovementType.STOCK_IN, quantity);
+        return article.getId();
+    }
+
+    private int quantityOf(UUID articleId) {
+        return stockRepository.findLevelsByArticleIdIn(List.of(articleId)).get(0).quantity();
+    }
+
+    /**
+     * Runs the same withdrawal from {@link #WRITERS} threads, started together, until each gets an insufficient stock.
+     *
+     * @return The number of successful withdrawals.
+     */
+    private int race(Callable<StockWithdrawal> withdrawal) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger withdrawn = new AtomicInteger();
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    while (true) {
+                        if (!(withdrawal.call() instanceof StockWithdrawal.Withdrawn result)) {
+                            return null;
+                        }
+                        withdrawn.incrementAndGet();
+                        result.levels().forEach(level -> assertTrue(level.quantity() >= 0, "Negative stock: " + level));
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return withdrawn.get();
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOversell() throws Exception {
+        UUID articleId = createArticle(1_000);
+
+        int withdrawn = race(() -> stockService.withdraw(articleId, 1));
+
+        assertEquals(1_000, withdrawn);
+        assertEquals(0, quantityOf(articleId));
+    }
+
+    @Test
+    void concurrentMultiArticleWithdrawalsAreAllOrNothing() throws Exception {
+        UUID plenty = createArticle(500);
+        UUID scarce = createArticle(200);
+
+        int withdrawn = race(() -> stockService.withdrawAll(Map.of(plenty, 1, scarce, 2)));
+
+        assertEquals(100, withdrawn);
+        assertEquals(400, quantityOf(plenty));
+        assertEquals(0, quantityOf(scarce));
+    }
+
+    @Test
+    void concurrentStockOutMovementsNeverOversell() throws Exception {
+        // The net delta is negative on an existing stock, which must not trip the non-negative check on insert
+        UUID articleId = createArticle(300);
+        List<StockMovementLine> movements = List.of(
+                new StockMovementLine(articleId, StockMovementType.STOCK_IN, 1),
+                new StockMovementLine(articleId, StockMovementType.STOCK_OUT, 4)
+        );
+
+        int withdrawn = race(() -> stockService.recordMovements(movements));
+
+        assertEquals(100, withdrawn);
+        assertEquals(0, quantityOf(articleId));
+    }
+
+    @Test
+    void concurrentLedgerStockOutsNeverOversell() throws Exception {
+        UUID articleId = createArticle(500);
+
+        int withdrawn = race(() -> stockLedgerService.apply(articleId, StockMovementType.STOCK_OUT, 5));
+
+        assertEquals(100, withdrawn);
+        assertEquals(0, quantityOf(articleId));
+    }
+}
@@ -0,0 +1,49 @@
+package be.bstorm.bf_java2024_stockmanagement.dl.enums;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VATTests {
+
+    private static long bigDecimalAddedValue(long unitPriceExcludingTax, VAT vat) {
+        return BigDecimal.valueOf(unitPriceExcludingTax)
+                .multiply(BigDecimal.valueOf(vat.value, 2))
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValue();
+    }
+
+    @Test
+    void addedValueMatchesBigDecimalForSmallPrices() {
+        for (VAT vat : VAT.values()) {
+            for (long price = -10_000; price <= 1_000_000; price++) {
+                assertEquals(bigDecimalAddedValue(price, vat), vat.addedValue(price), vat + " " + price);
+            }
+        }
+    }
+
+    @Test
+    void addedValueMatchesBigDecimalForRandomAndExtremePrices() {
+        Random random = new Random(42);
+        for (VAT vat : VAT.values()) {
+            for (int i = 0; i < 100_000; i++) {
+                long price = random.nextLong();
+                assertEquals(bigDecimalAddedValue(price, vat), vat.addedValue(price), vat + " " + price);
+            }
+            for (long price : new long[]{Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 50, Long.MIN_VALUE + 50}) {
+                assertEquals(bigDecimalAddedValue(price, vat), vat.addedValue(price), vat + " " + price);
+            }
+        }
+    }
+
+    @Test
+    void priceIncludingTaxAddsAddedValue() {
+        assertEquals(6049L, VAT.TWENTY_ONE.priceIncludingTax(4999L));
+        assertEquals(725L, VAT.TWENTY_ONE.priceIncludingTax(599L));
+        assertEquals(53L, VAT.SIX.priceIncludingTax(50L));
+    }
+}